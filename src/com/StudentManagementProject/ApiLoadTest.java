@@ -0,0 +1,156 @@
+package com.StudentManagementProject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ApiLoadTest.java
+ * Load driver for ApiServer (see the api-loadtest target in build.xml).
+ *
+ * Run: java -cp ... com.StudentManagementProject.ApiLoadTest [requests] [concurrency]
+ *
+ * - Seeds 1000 students plus a student login (LT0001 / LT0001) into the student.db in the working
+ *   directory, starts an ApiServer on a free port in the same JVM and logs in once per role
+ * - Keeps `concurrency` requests in flight with the JDK HttpClient (async, one socket per
+ *   in-flight request): by-id reads, roster searches, own-record reads, /me and a few edit requests
+ * - Prints throughput, latency percentiles and the count per HTTP status
+ */
+public final class ApiLoadTest {
+
+    private static final int SEED_STUDENTS = 1000;
+
+    private ApiLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int threads = Integer.getInteger("api.threads", Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+
+        StudentRepository repo = Repositories.current();
+        repo.initAsync();
+        repo.awaitInit();
+        seed(repo);
+
+        ApiServer server = new ApiServer(repo, 0, threads);
+        server.start();
+        String base = "http://localhost:" + server.port() + "/api/";
+        ExecutorService clientPool = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "loadtest-client");
+            t.setDaemon(true);
+            return t;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientPool)
+                .build();
+        String adminToken = login(client, base, "admin", "admin");
+        String studentToken = login(client, base, "LT0001", "LT0001");
+
+        Semaphore slots = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(total);
+        long[] latencies = new long[total];
+        Map<Integer, AtomicInteger> byStatus = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Random rnd = new Random(42);
+
+        System.out.println("[LOADTEST] " + total + " requests, " + concurrency + " in flight, " + threads + " server workers");
+        long t0 = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            slots.acquire();
+            HttpRequest req = pick(base, rnd, adminToken, studentToken);
+            int slot = i;
+            long start = System.nanoTime();
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            client.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((resp, err) -> {
+                latencies[slot] = System.nanoTime() - start;
+                inFlight.decrementAndGet();
+                int status = err != null ? -1 : resp.statusCode();
+                byStatus.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                slots.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+
+        Arrays.sort(latencies);
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        byStatus.forEach((k, v) -> statuses.put(k, v.get()));
+        System.out.printf("[LOADTEST] %.1f s, %.0f req/s, peak in flight %d%n",
+                elapsed / 1e9, total / (elapsed / 1e9), peak.get());
+        System.out.printf("[LOADTEST] latency ms: p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                pct(latencies, 50), pct(latencies, 95), pct(latencies, 99), latencies[total - 1] / 1e6);
+        System.out.println("[LOADTEST] status counts (-1 = transport error): " + statuses);
+        System.out.println("[LOADTEST] server: " + client.send(get(base + "health", null), HttpResponse.BodyHandlers.ofString()).body());
+
+        server.stop(0);
+        System.exit(statuses.keySet().stream().allMatch(s -> s == 200 || s == 201) ? 0 : 1);
+    }
+
+    // Mostly reads, like a morning of students checking their records
+    private static HttpRequest pick(String base, Random rnd, String admin, String student) {
+        int roll = rnd.nextInt(100);
+        if (roll < 60) return get(base + "students/" + id(rnd.nextInt(SEED_STUDENTS)), admin);
+        if (roll < 80) return get(base + "students?q=" + "Tester+" + rnd.nextInt(100) + "&limit=20", admin);
+        if (roll < 95) return get(base + "students/LT0001", student);
+        if (roll < 99) return get(base + "me", student);
+        String body = "{\"field\":\"phone\",\"newValue\":\"9" + (100000000 + rnd.nextInt(900000000)) + "\",\"message\":\"load test\"}";
+        return HttpRequest.newBuilder(URI.create(base + "requests"))
+                .header("Authorization", "Bearer " + student)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest get(String url, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private static String login(HttpClient client, String base, String user, String password) throws Exception {
+        String body = "{\"username\":\"" + user + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> resp = client.send(HttpRequest.newBuilder(URI.create(base + "login"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() != 200) throw new Exception("Login failed for " + user + ": " + resp.body());
+        Object token = Json.parseObject(resp.body()).get("token");
+        return token.toString();
+    }
+
+    private static void seed(StudentRepository repo) throws Exception {
+        if (!repo.isStudentIdTaken(id(SEED_STUDENTS - 1))) {
+            for (int i = 0; i < SEED_STUDENTS; i++) {
+                String id = id(i);
+                if (repo.isStudentIdTaken(id)) continue;
+                repo.insertStudent(id, "Load Tester " + i, "Parent " + i, "2003-0" + (1 + i % 9) + "-1" + (i % 10),
+                        null, "lt" + i + "@example.com", "90000" + String.format("%05d", i), "Hostel " + (i % 7),
+                        i % 2 == 0 ? "B.Tech" : "MCA", "Sem " + (1 + i % 8), i % 3 == 0 ? "Female" : "Male");
+            }
+        }
+        if (!repo.userExists("LT0001")) repo.createUser("LT0001", "LT0001", "student", "LT0001");
+    }
+
+    private static String id(int i) {
+        return String.format("LT%04d", i);
+    }
+
+    private static double pct(long[] sorted, int p) {
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
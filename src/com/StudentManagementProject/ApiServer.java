@@ -0,0 +1,394 @@
+package com.StudentManagementProject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ApiServer.java
+ * Headless HTTP/JSON front end over the StudentRepository, for student self-service from a browser.
+ *
+ * Run: java -cp ... com.StudentManagementProject.ApiServer [port]   (default 8080, or -Dapi.port)
+ *
+ * Endpoints (JSON in and out; all but login/health need "Authorization: Bearer <token>"):
+ *   POST /api/login                 {"username","password"} -> {"token","username","role","studentId"}
+ *   POST /api/logout
+ *   GET  /api/me
+ *   GET  /api/health                engine, pool, cache, session, login-throttle and request-quota counts
+ *   GET  /api/students/{id}         students may only read their own record
+ *   GET  /api/students?q=&course=&semester=&gender=&offset=&limit=   admin; one roster page
+ *                                   (offset >= 0, else 400; limit clamped to 1..1000)
+ *   GET  /api/requests[?status=OPEN]                admin: all, student: own
+ *   POST /api/requests              {"field","newValue","message"} (admin also passes "studentId") -> {"ok","superseded"}
+ *   POST /api/requests/{id}/approve admin
+ *   POST /api/requests/{id}/reject  admin; optional {"reason"}
+ *
+ * - The bearer token is the session issued by the engine's authenticateUser (see Sessions),
+ *   with a sliding idle timeout, so the password is checked once per login, not per request
+ * - Requests run on a fixed pool of platform threads with a bounded queue. This JDK has no
+ *   virtual threads; when the queue is full the accepting thread runs the request itself, which
+ *   stops it accepting new connections until it catches up (the kernel backlog holds the rest)
+ * - Database connections are pooled in Database (ConnectionPool); reads share the search cache
+ * - Errors are {"error": "..."}: 400 bad input or rejected by the data layer, 401 missing or
+ *   expired token, 403 wrong role, 404 unknown id/path, 405 wrong method,
+ *   429 login throttled or edit request quota used up (with Retry-After)
+ */
+public final class ApiServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_BODY = 64 * 1024;
+    private static final int MAX_PAGE = 1000;
+
+    private final StudentRepository repo;
+    private final HttpServer http;
+    private final ThreadPoolExecutor workers;
+
+    /** Thrown by handlers for a specific HTTP status. */
+    private static final class ApiError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * @param port    0 picks a free port (see port())
+     * @param threads request worker threads
+     */
+    public ApiServer(StudentRepository repo, int port, int threads) throws IOException {
+        this.repo = repo;
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory tf = r -> {
+            Thread t = new Thread(r, "api-worker-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), tf, new ThreadPoolExecutor.CallerRunsPolicy());
+        http = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        http.createContext("/api/", this::handle);
+        http.setExecutor(workers);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /** Stops accepting, waits up to delaySec for running exchanges, then stops the workers. */
+    public void stop(int delaySec) {
+        http.stop(delaySec);
+        workers.shutdown();
+    }
+
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("api.port", DEFAULT_PORT);
+        int threads = Integer.getInteger("api.threads", Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+        StudentRepository repo = Repositories.current();
+        repo.initAsync();
+        repo.awaitInit();
+        ApiServer server = new ApiServer(repo, port, threads);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "api-shutdown"));
+        System.out.println("[API] " + repo.engine() + " engine, " + threads + " workers, listening on http://localhost:" + server.port() + "/api/");
+    }
+
+    // ------------------------- ROUTING -------------------------
+
+    private void handle(HttpExchange ex) {
+        try {
+            String path = ex.getRequestURI().getPath();
+            String[] parts = path.substring("/api/".length()).split("/");
+            String method = ex.getRequestMethod();
+            Json.Writer out;
+            switch (parts[0]) {
+                case "login": out = login(ex, method); break;
+                case "logout": out = logout(ex, method); break;
+                case "health": out = health(method); break;
+                case "me": out = me(auth(ex), method); break;
+                case "students": out = students(ex, auth(ex), method, parts); break;
+                case "requests": out = requests(ex, auth(ex), method, parts); break;
+                default: throw new ApiError(404, "Not found: " + path);
+            }
+            send(ex, "POST".equals(method) && parts[0].equals("requests") && parts.length == 1 ? 201 : 200, out);
+        } catch (ApiError e) {
+            sendError(ex, e.status, e.getMessage());
+        } catch (LoginThrottle.Rejected e) {
+            sendTooMany(ex, e.retryAfterMillis, e.getMessage());
+        } catch (RequestLimiter.Rejected e) {
+            sendTooMany(ex, e.retryAfterMillis, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(ex, 500, "Internal error.");
+        } catch (Exception e) {
+            // data layer errors carry a user-readable message (see StudentRepository)
+            sendError(ex, 400, e.getMessage());
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Json.Writer login(HttpExchange ex, String method) throws Exception {
+        requireMethod(method, "POST");
+        Map<String, Object> body = Json.parseObject(readBody(ex));
+        String username = str(body, "username");
+        String password = str(body, "password");
+        if (username == null || password == null) throw new ApiError(400, "username and password required.");
+        Database.AuthResult auth = repo.authenticateUser(username.trim(), password);
+        if (auth == null || !auth.ok) throw new ApiError(401, "Invalid username or password.");
+        return session(new Json.Writer().beginObject().field("token", auth.token), auth).endObject();
+    }
+
+    private Json.Writer logout(HttpExchange ex, String method) throws ApiError {
+        requireMethod(method, "POST");
+        repo.logout(bearer(ex));
+        return ok();
+    }
+
+    private Json.Writer health(String method) throws ApiError {
+        requireMethod(method, "GET");
+        Json.Writer w = new Json.Writer().beginObject()
+                .field("status", "ok")
+                .field("engine", repo.engine())
+                .field("workers", workers.getPoolSize())
+                .field("queued", workers.getQueue().size());
+        if ("sqlite".equals(repo.engine())) {
+            w.field("sessions", Database.sessionCount()).field("logins", Database.loginThrottleStats())
+                    .field("requests", Database.requestLimiterStats())
+                    .field("pool", Database.connectionPoolStats()).field("cache", Database.searchCacheStats());
+        }
+        return w.endObject();
+    }
+
+    private Json.Writer me(Database.AuthResult s, String method) throws ApiError {
+        requireMethod(method, "GET");
+        return session(new Json.Writer().beginObject(), s).endObject();
+    }
+
+    private Json.Writer students(HttpExchange ex, Database.AuthResult s, String method, String[] parts) throws Exception {
+        requireMethod(method, "GET");
+        if (parts.length == 2) {
+            String id = parts[1];
+            if (!s.isAdmin() && (s.studentId == null || !s.studentId.equalsIgnoreCase(id))) {
+                throw new ApiError(403, "Students can only view their own record.");
+            }
+            Student st = repo.findStudent(id);
+            if (st == null) throw new ApiError(404, "No student with id " + id + ".");
+            return student(new Json.Writer(), st);
+        }
+        if (parts.length != 1) throw new ApiError(404, "Not found.");
+        requireAdmin(s);
+
+        Map<String, String> q = query(ex);
+        int offset = intParam(q, "offset", 0);
+        if (offset < 0) throw new ApiError(400, "offset must be 0 or more.");
+        RosterQuery rq = RosterQuery.all()
+                .withSearch(q.get("q"))
+                .withFilters(q.get("course"), q.get("semester"), q.get("gender"), null, null)
+                .withOffset(offset)
+                .withLimit(Math.min(MAX_PAGE, Math.max(1, intParam(q, "limit", 100))));
+        Json.Writer w = new Json.Writer().beginObject()
+                .field("offset", rq.offset)
+                .field("limit", rq.limit)
+                .name("students").beginArray();
+        repo.streamStudentPage(rq, st -> student(w, st), new Database.CancelToken());
+        return w.endArray().endObject();
+    }
+
+    private Json.Writer requests(HttpExchange ex, Database.AuthResult s, String method, String[] parts) throws Exception {
+        if (parts.length == 1 && "GET".equals(method)) {
+            String status = query(ex).get("status");
+            Json.Writer w = new Json.Writer().beginObject().name("requests").beginArray();
+            repo.streamEditRequests(r -> {
+                if (!s.isAdmin() && (s.studentId == null || !s.studentId.equalsIgnoreCase(r.studentId))) return;
+                if (status != null && !status.equalsIgnoreCase(r.status)) return;
+                editRequest(w, r);
+            }, new Database.CancelToken());
+            return w.endArray().endObject();
+        }
+        if (parts.length == 1 && "POST".equals(method)) {
+            Map<String, Object> body = Json.parseObject(readBody(ex));
+            String studentId = s.isAdmin() ? str(body, "studentId") : s.studentId;
+            if (studentId == null || studentId.trim().isEmpty()) {
+                throw new ApiError(s.isAdmin() ? 400 : 403, s.isAdmin() ? "studentId required." : "No student record is linked to this account.");
+            }
+            boolean superseded = repo.createEditRequest(studentId.trim(), str(body, "field"), str(body, "newValue"), str(body, "message"));
+            return new Json.Writer().beginObject().field("ok", true).field("superseded", superseded).endObject();
+        }
+        if (parts.length == 3 && "POST".equals(method)) {
+            requireAdmin(s);
+            int id;
+            try {
+                id = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException nfe) {
+                throw new ApiError(404, "No request with id " + parts[1] + ".");
+            }
+            switch (parts[2]) {
+                case "approve":
+                    repo.approveEditRequest(id, s.username);
+                    return ok();
+                case "reject":
+                    String body = readBody(ex);
+                    String reason = body.trim().isEmpty() ? null : str(Json.parseObject(body), "reason");
+                    repo.rejectEditRequest(id, s.username, reason);
+                    return ok();
+                default:
+                    throw new ApiError(404, "Not found.");
+            }
+        }
+        if (parts.length == 1 || parts.length == 3) throw new ApiError(405, "Method not allowed.");
+        throw new ApiError(404, "Not found.");
+    }
+
+    // ------------------------- JSON -------------------------
+
+    private static Json.Writer session(Json.Writer w, Database.AuthResult s) {
+        return w.field("username", s.username).field("role", s.role).field("studentId", s.studentId);
+    }
+
+    private static Json.Writer student(Json.Writer w, Student s) {
+        return w.beginObject()
+                .field("id", s.id)
+                .field("name", s.name)
+                .field("fatherName", s.fatherName)
+                .field("dob", s.dob)
+                .field("age", s.age)
+                .field("gender", s.gender)
+                .field("phone", s.phone)
+                .field("email", s.email)
+                .field("address", s.address)
+                .field("course", s.course)
+                .field("semester", s.semester)
+                .endObject();
+    }
+
+    private static Json.Writer editRequest(Json.Writer w, EditRequest r) {
+        return w.beginObject()
+                .field("id", r.id)
+                .field("studentId", r.studentId)
+                .field("field", r.field)
+                .field("newValue", r.newValue)
+                .field("message", r.message)
+                .field("status", r.status)
+                .field("createdAt", r.createdAt)
+                .field("handledBy", r.handledBy)
+                .field("handledAt", r.handledAt)
+                .field("handledReason", r.handledReason)
+                .endObject();
+    }
+
+    private static Json.Writer ok() {
+        return new Json.Writer().beginObject().field("ok", true).endObject();
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private Database.AuthResult auth(HttpExchange ex) throws ApiError {
+        String token = bearer(ex);
+        if (token == null) throw new ApiError(401, "Login required.");
+        Database.AuthResult s = repo.resumeSession(token);
+        if (s == null) throw new ApiError(401, "Session expired; log in again.");
+        return s;
+    }
+
+    private static String bearer(HttpExchange ex) {
+        String h = ex.getRequestHeaders().getFirst("Authorization");
+        if (h == null || !h.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        String t = h.substring(7).trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static void requireMethod(String method, String expected) throws ApiError {
+        if (!expected.equals(method)) throw new ApiError(405, "Method not allowed.");
+    }
+
+    private static void requireAdmin(Database.AuthResult s) throws ApiError {
+        if (!s.isAdmin()) throw new ApiError(403, "Admin only.");
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException, ApiError {
+        try (InputStream in = ex.getRequestBody()) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int r; (r = in.read(chunk)) != -1; ) {
+                buf.write(chunk, 0, r);
+                if (buf.size() > MAX_BODY) throw new ApiError(413, "Request body too large.");
+            }
+            return buf.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.put(k, v);
+        }
+        return out;
+    }
+
+    private static int intParam(Map<String, String> q, String name, int dflt) throws ApiError {
+        String v = q.get(name);
+        if (v == null || v.isEmpty()) return dflt;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException nfe) {
+            throw new ApiError(400, name + " must be a number.");
+        }
+    }
+
+    private static String str(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        return v == null ? null : v.toString();
+    }
+
+    private static void send(HttpExchange ex, int status, Json.Writer body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void sendTooMany(HttpExchange ex, long retryAfterMillis, String message) {
+        ex.getResponseHeaders().set("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000));
+        sendError(ex, 429, message);
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) {
+        try {
+            send(ex, status, new Json.Writer().beginObject().field("error", message).endObject());
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+}
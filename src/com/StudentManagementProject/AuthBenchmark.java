@@ -0,0 +1,173 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AuthBenchmark.java
+ * Login throughput of the auth path (see the auth-benchmark target in build.xml).
+ *
+ * Run: java -cp ... com.StudentManagementProject.AuthBenchmark [logins] [threads]
+ *
+ * - Seeds USERS student logins (AB000.. with password = username) into the engine picked by
+ *   -Dstudent.engine, in the working directory
+ * - Logs in `logins` times from `threads` threads, like a morning login rush, and prints
+ *   logins/s, latency percentiles and logins refused because the hashing queue was full
+ * - Meanwhile a probe thread keeps doing small database reads and prints their latency, which
+ *   should stay low however many logins are queued for the hashing pool
+ * - Times password changes that re-check the old password against ones made on a session
+ * - Times Database.hashPassword alone at the calibrated PBKDF2 cost
+ * - Last, a brute-force run: wrong passwords for one account from every thread; prints how many
+ *   reached the password check and how many the login throttle turned away
+ */
+public final class AuthBenchmark {
+
+    private static final int USERS = 100;
+    private static final String[] NAMES = new String[USERS];
+
+    static {
+        for (int i = 0; i < USERS; i++) NAMES[i] = String.format("AB%03d", i);
+    }
+
+    private AuthBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        StudentRepository repo = Repositories.current();
+        repo.initAsync();
+        repo.awaitInit();
+        for (int i = 0; i < USERS; i++) {
+            if (!repo.userExists(user(i))) repo.createUser(user(i), user(i), "student", null);
+        }
+        System.out.println("[AUTH] " + repo.engine() + " engine, " + logins + " logins on " + threads + " threads");
+
+        // warm-up, so the first numbers are not class loading and JIT; upgrades any legacy hashes too
+        for (int i = 0; i < USERS; i++) repo.logout(repo.authenticateUser(user(i), user(i)).token);
+
+        long[] latencies = new long[logins];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicBoolean storm = new AtomicBoolean(true);
+        List<Long> probes = new ArrayList<>();
+        Thread probe = new Thread(() -> {
+            while (storm.get()) {
+                long start = System.nanoTime();
+                try {
+                    repo.userExists(user(probes.size() % USERS));
+                } catch (Exception ex) {
+                    return;
+                }
+                probes.add(System.nanoTime() - start);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }, "auth-probe");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        probe.start();
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            done.add(pool.submit(() -> {
+                for (int i; (i = next.getAndIncrement()) < logins; ) {
+                    String u = user(i % USERS);
+                    long start = System.nanoTime();
+                    Database.AuthResult r;
+                    try {
+                        r = repo.authenticateUser(u, u);
+                    } catch (Exception ex) {
+                        latencies[i] = System.nanoTime() - start;
+                        refused.incrementAndGet(); // hashing queue full
+                        continue;
+                    }
+                    latencies[i] = System.nanoTime() - start;
+                    if (!r.ok) failed.incrementAndGet();
+                    repo.logout(r.token);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        long elapsed = System.nanoTime() - t0;
+        storm.set(false);
+        probe.join();
+        pool.shutdown();
+        Arrays.sort(latencies);
+        System.out.printf("[AUTH] logins: %.0f/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, failed %d, refused %d%n",
+                logins / (elapsed / 1e9), pct(latencies, 50), pct(latencies, 99), latencies[logins - 1] / 1e6,
+                failed.get(), refused.get());
+        long[] probeLatencies = probes.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (probeLatencies.length > 0) {
+            System.out.printf("[AUTH] db reads during the rush: %d, p50 %.2f ms, p99 %.2f ms%n",
+                    probeLatencies.length, pct(probeLatencies, 50), pct(probeLatencies, 99));
+        }
+
+        // password changes: old-password check vs an existing session
+        int changes = 20;
+        String u = user(0);
+        long c0 = System.nanoTime();
+        for (int i = 0; i < changes; i++) repo.changePassword(u, u, u);
+        long byPassword = System.nanoTime() - c0;
+        Database.AuthResult session = repo.authenticateUser(u, u);
+        c0 = System.nanoTime();
+        for (int i = 0; i < changes; i++) repo.changePassword(session, u);
+        long bySession = System.nanoTime() - c0;
+        repo.logout(session.token);
+        System.out.printf("[AUTH] password change: %.3f ms re-checking the old password, %.3f ms on a session%n",
+                byPassword / 1e6 / changes, bySession / 1e6 / changes);
+
+        // the hash alone
+        int hashes = 20;
+        long h0 = System.nanoTime();
+        for (int i = 0; i < hashes; i++) Database.hashPassword(user(i % USERS));
+        System.out.printf("[AUTH] hashPassword: %.2f ms/call at %d iterations%n",
+                (System.nanoTime() - h0) / 1e6 / hashes, PasswordHasher.iterations());
+        // brute force against one account (left in backoff afterwards)
+        int guesses = 2_000;
+        AtomicInteger checked = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        AtomicInteger guess = new AtomicInteger();
+        ExecutorService attackers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> attack = new ArrayList<>();
+        long g0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            attack.add(attackers.submit(() -> {
+                for (int i; (i = guess.getAndIncrement()) < guesses; ) {
+                    try {
+                        repo.authenticateUser(user(USERS - 1), "guess" + i);
+                        checked.incrementAndGet();
+                    } catch (Exception ex) {
+                        throttled.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : attack) f.get();
+        attackers.shutdown();
+        System.out.printf("[AUTH] brute force: %d guesses in %.0f ms, %d reached the password check, %d throttled%n",
+                guesses, (System.nanoTime() - g0) / 1e6, checked.get(), throttled.get());
+        if ("sqlite".equals(repo.engine())) System.out.println("[AUTH] throttle: " + Database.loginThrottleStats());
+        System.exit(failed.get() == 0 ? 0 : 1);
+    }
+
+    private static String user(int i) {
+        return NAMES[i];
+    }
+
+    private static double pct(long[] sorted, int p) {
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
@@ -0,0 +1,140 @@
+package com.StudentManagementProject;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * CdsTraining.java
+ * Training / probe driver for the AppCDS archive (see the cds-* targets in build.xml).
+ *
+ * - "train": run under -XX:ArchiveClassesAtExit; touches the DB layer, Nimbus and the
+ *   login/admin/student UIs so their classes end up in the shared archive
+ * - "probe": same work, prints JVM-start-to-ready time for the startup benchmark
+ *
+ * Runs against a scratch student.db in the working directory (build/cds-training).
+ * With a display the real windows are built (never shown); headless, the same Swing
+ * component types are laid out and painted offscreen instead.
+ */
+public final class CdsTraining {
+
+    private CdsTraining() {}
+
+    public static void main(String[] args) throws Exception {
+        boolean probe = args.length > 0 && "probe".equals(args[0]);
+
+        Database.dbInit();
+        if (!Database.isStudentIdTaken("CDS1")) {
+            Database.insertStudent("CDS1", "Cds Trainee", "Trainer", "2004-06-01", "Other", "0000000000",
+                    "B.Tech - Sem 1", "cds@example.com", "n/a");
+        }
+        if (!Database.userExists("CDS1")) Database.createUser("CDS1", "CDS1", "student", "CDS1");
+
+        Database.authenticateUser("admin", "admin");
+        Database.CancelToken token = new Database.CancelToken();
+        StudentTableModel roster = new StudentTableModel();
+        roster.appendRows(Database.fetchAllStudents(token));
+        TableAdapters.students(Database.searchStudents("cds", token));
+        Database.searchStudents("course:\"B.Tech\" sem:1 name:cd*", token);
+        Database.findStudent("CDS1");
+        Database.explainSearch("name:cd*");
+        TableAdapters.editRequests(Database.fetchAllEditRequests(token));
+
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
+                    if ("Nimbus".equals(info.getName())) {
+                        UIManager.setLookAndFeel(info.getClassName());
+                        break;
+                    }
+                }
+            } catch (Exception ignored) {}
+            if (GraphicsEnvironment.isHeadless()) warmUpHeadless();
+            else warmUpWindows();
+        });
+
+        long ms = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("[CDS] " + (probe ? "startup probe" : "training run") + ": " + ms + " ms");
+        System.exit(0);
+    }
+
+    // Build the real windows without showing them
+    private static void warmUpWindows() {
+        login.warmUp();
+
+        StudentManagement admin = new StudentManagement(new Database.AuthResult(true, "admin", "admin", null));
+        admin.frame.pack();
+        RequestsDialog requests = new RequestsDialog(admin.frame, "admin");
+        requests.dispose();
+        admin.frame.dispose();
+
+        StudentView student = new StudentView(new Database.AuthResult(true, "CDS1", "student", "CDS1"));
+        student.pack();
+        student.dispose();
+    }
+
+    // Headless: no Window may be created, so lay out and paint the same component types offscreen
+    private static void warmUpHeadless() {
+        JPanel root = new JPanel(new BorderLayout(8, 8));
+
+        JPanel form = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(6, 6, 6, 6);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        form.add(new JLabel("Username:"), gbc);
+        form.add(new JTextField(18), gbc);
+        form.add(new JPasswordField(18), gbc);
+        JRadioButton a = new JRadioButton("Admin", true);
+        JRadioButton b = new JRadioButton("Student");
+        ButtonGroup g = new ButtonGroup();
+        g.add(a);
+        g.add(b);
+        form.add(a, gbc);
+        form.add(b, gbc);
+        JComboBox<String> combo = new JComboBox<>(new String[] {"B.Tech - CSE", "MCA"});
+        combo.setEditable(true);
+        form.add(combo, gbc);
+        JTextArea area = new JTextArea(5, 20);
+        area.setLineWrap(true);
+        form.add(new JScrollPane(area), gbc);
+        form.add(new JButton("Insert"), gbc);
+
+        DefaultTableModel model = new DefaultTableModel(new Object[] {"ID", "Name", "Course/Sem"}, 0);
+        model.addRow(new Object[] {"CDS1", "Cds Trainee", "B.Tech - Sem 1"});
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+
+        JPopupMenu popup = new JPopupMenu();
+        popup.add(new JScrollPane(new JList<>(new String[] {"Cds Trainee"})));
+
+        root.add(new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, form, new JScrollPane(table)), BorderLayout.CENTER);
+        root.add(new JOptionPane("warm-up", JOptionPane.INFORMATION_MESSAGE), BorderLayout.SOUTH);
+        root.setSize(1100, 640);
+        layout(root);
+
+        BufferedImage img = new BufferedImage(1100, 640, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = img.createGraphics();
+        root.paint(g2);
+        g2.dispose();
+
+        // load (and initialize) the window classes that can't be constructed headless
+        for (String cls : new String[] {"LoginDialog", "ChangePasswordDialog", "StudentManagement", "StudentView", "RequestsDialog"}) {
+            try {
+                Class.forName("com.StudentManagementProject." + cls);
+            } catch (ClassNotFoundException ignored) {}
+        }
+    }
+
+    private static void layout(Component c) {
+        c.doLayout();
+        if (c instanceof Container) {
+            for (Component child : ((Container) c).getComponents()) {
+                if (child.getWidth() == 0) child.setSize(child.getPreferredSize());
+                layout(child);
+            }
+        }
+    }
+}
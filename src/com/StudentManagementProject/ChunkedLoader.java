@@ -0,0 +1,165 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * ChunkedLoader.java
+ * SwingWorker that streams records (Student, EditRequest) from one of the StudentRepository
+ * stream* calls into a table.
+ *
+ * - Rows are buffered on the worker and handed to the EDT in chunks; each chunk is one
+ *   insert event, never one event per row
+ * - The first chunk is small so the first screen shows up right away; later chunks grow
+ *   up to MAX_CHUNK, and a partial chunk is flushed once FLUSH_MS have passed
+ * - The target is reset when the first chunk arrives (or at the end if nothing matched),
+ *   so the previous rows stay on screen until new ones are ready
+ * - Once the token is cancelled, late chunks are dropped and onDone/onError are not called
+ *
+ * Package-private: used by StudentManagement and RequestsDialog.
+ */
+final class ChunkedLoader<T> extends SwingWorker<Integer, Void> {
+
+    private static final int FIRST_CHUNK = 64;
+    private static final int MAX_CHUNK = 4096;
+    private static final long FLUSH_MS = 50;
+
+    /** Produces records on the worker thread, e.g. out -> repo.streamSearch(q, out, token). */
+    interface Source<T> {
+        void stream(Consumer<T> out) throws Exception;
+    }
+
+    /** Receives records on the EDT. */
+    interface Target<T> {
+        void reset();
+        void append(List<T> rows);
+        default void finish() {}
+    }
+
+    private final Database.CancelToken token;
+    private final Source<T> source;
+    private final Target<T> target;
+    private final Runnable onDone;
+    private final Consumer<Exception> onError;
+
+    // worker-side buffer
+    private List<T> buffer = new ArrayList<>(FIRST_CHUNK);
+    private int chunkSize = FIRST_CHUNK;
+    private long lastFlush;
+
+    // EDT-side
+    private boolean started;
+
+    /**
+     * @param onDone  runs on the EDT after the last row (may be null)
+     * @param onError runs on the EDT if the source fails for any reason other than cancellation
+     */
+    ChunkedLoader(Database.CancelToken token, Source<T> source, Target<T> target, Runnable onDone, Consumer<Exception> onError) {
+        this.token = token;
+        this.source = source;
+        this.target = target;
+        this.onDone = onDone;
+        this.onError = onError;
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception {
+        int[] count = {0};
+        lastFlush = System.nanoTime();
+        source.stream(row -> {
+            buffer.add(row);
+            count[0]++;
+            if (buffer.size() >= chunkSize || System.nanoTime() - lastFlush >= FLUSH_MS * 1_000_000L) flush();
+        });
+        if (!buffer.isEmpty()) flush();
+        return count[0];
+    }
+
+    // invokeLater keeps chunks in order and ahead of done(), which SwingWorker also posts with invokeLater
+    private void flush() {
+        List<T> chunk = buffer;
+        chunkSize = Math.min(MAX_CHUNK, chunkSize * 2);
+        buffer = new ArrayList<>(chunkSize);
+        lastFlush = System.nanoTime();
+        SwingUtilities.invokeLater(() -> deliver(chunk));
+    }
+
+    private void deliver(List<T> chunk) {
+        if (token.isCancelled()) return;
+        if (!started) {
+            started = true;
+            target.reset();
+        }
+        target.append(chunk);
+    }
+
+    @Override
+    protected void done() {
+        if (token.isCancelled()) return;
+        try {
+            get();
+            if (!started) {
+                started = true;
+                target.reset();
+            }
+            target.finish();
+            if (onDone != null) onDone.run();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Database.CancelledException) return;
+            Throwable cause = ex.getCause();
+            onError.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+        } catch (InterruptedException ignored) {}
+    }
+
+    // ------------------------- TARGETS -------------------------
+
+    static Target<Student> into(StudentTableModel model) {
+        return new Target<Student>() {
+            @Override
+            public void reset() {
+                model.reset();
+            }
+
+            @Override
+            public void append(List<Student> rows) {
+                model.appendRows(rows);
+            }
+
+            @Override
+            public void finish() {
+                model.trimToSize();
+            }
+        };
+    }
+
+    /**
+     * Records are converted with toRow (see TableAdapters) straight into the model's data vector,
+     * followed by one rows-inserted event.
+     */
+    static <T> Target<T> into(DefaultTableModel model, Object[] columns, Function<T, Object[]> toRow) {
+        return new Target<T>() {
+            @Override
+            public void reset() {
+                model.setDataVector(new Object[0][], columns);
+            }
+
+            @Override
+            @SuppressWarnings({"rawtypes", "unchecked"})
+            public void append(List<T> rows) {
+                if (rows.isEmpty()) return;
+                int first = model.getRowCount();
+                Vector<Vector> data = model.getDataVector();
+                for (T row : rows) data.add(new Vector<>(Arrays.asList(toRow.apply(row))));
+                model.fireTableRowsInserted(first, first + rows.size() - 1);
+            }
+        };
+    }
+}
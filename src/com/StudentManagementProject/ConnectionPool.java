@@ -0,0 +1,120 @@
+package com.StudentManagementProject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * ConnectionPool.java
+ * Reuses open SQLite connections instead of opening the database file for every call.
+ *
+ * - borrow() hands out a wrapper whose close() returns the connection to the pool; code keeps
+ *   using try-with-resources exactly as with DriverManager connections
+ * - Never blocks: when no idle connection is available a new one is opened, and connections
+ *   beyond MAX_IDLE are closed on return (callers such as the API server bound concurrency)
+ * - A connection left inside a transaction is rolled back and set to auto-commit on return
+ * - Connections wait up to -Dstudent.db.busy.ms (default 10000) for a lock held by another
+ *   connection instead of sqlite-jdbc's 3 s. The database runs in WAL mode (Database.dbInit), so
+ *   readers never hold writers off and writers only queue for each other; write transactions take
+ *   the write lock up front (Database.beginWrite) so that queueing is all they do
+ * - Opened/reused counters for metrics (stats())
+ *
+ * Package-private: only Database talks to it.
+ */
+final class ConnectionPool {
+
+    private static final int MAX_IDLE = 16;
+    private static final int BUSY_TIMEOUT_MS = Integer.getInteger("student.db.busy.ms", 10_000);
+
+    private final String url;
+    private final Properties options = new Properties(); // sqlite-jdbc connection settings
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+
+    // metrics
+    private long opened, reused, discarded;
+
+    ConnectionPool(String url) {
+        this.url = url;
+        options.setProperty("busy_timeout", String.valueOf(BUSY_TIMEOUT_MS));
+    }
+
+    Connection borrow() throws SQLException {
+        Connection raw;
+        synchronized (this) {
+            raw = idle.pollFirst();
+            if (raw != null) reused++;
+        }
+        if (raw == null || raw.isClosed()) {
+            raw = DriverManager.getConnection(url, options);
+            synchronized (this) {
+                opened++;
+            }
+        }
+        return wrap(raw);
+    }
+
+    synchronized String stats() {
+        return String.format(Locale.ROOT, "idle=%d opened=%d reused=%d discarded=%d", idle.size(), opened, reused, discarded);
+    }
+
+    private void release(Connection raw) {
+        try {
+            if (raw.isClosed()) return;
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            closeQuietly(raw);
+            return;
+        }
+        synchronized (this) {
+            if (idle.size() < MAX_IDLE) {
+                idle.addFirst(raw); // most recently used first: its pages are still warm
+                return;
+            }
+            discarded++;
+        }
+        closeQuietly(raw);
+    }
+
+    // Connection whose close() releases raw back to the pool; any use after close() fails
+    private Connection wrap(Connection raw) {
+        boolean[] released = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!released[0]) {
+                                released[0] = true;
+                                release(raw);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released[0] || raw.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "pooled " + raw;
+                        default:
+                            if (released[0]) throw new SQLException("Connection is closed.");
+                            try {
+                                return method.invoke(raw, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getCause();
+                            }
+                    }
+                });
+    }
+
+    private static void closeQuietly(Connection c) {
+        try { c.close(); } catch (SQLException ignored) {}
+    }
+}
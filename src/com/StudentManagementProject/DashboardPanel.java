@@ -0,0 +1,155 @@
+package com.StudentManagementProject;
+
+import java.awt.*;
+import java.util.Map;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * DashboardPanel.java
+ * Enrollment headcounts for the admin window: total, by course, semester, gender, age band
+ * and course x semester.
+ *
+ * - refresh() reads the repository's enrollmentSummary(), which is kept in memory, so it runs on the EDT
+ *   and returns at once; while the startup count is still running it retries on a timer
+ * - Rebuild recounts from the students table on a SwingWorker (needed after changes made by
+ *   another program)
+ *
+ * Package-private: shown as a tab by StudentManagement.
+ */
+final class DashboardPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int RETRY_MS = 250;
+
+    private final StudentRepository repo;
+    private final JLabel totalLabel = new JLabel();
+    private final DefaultTableModel courseModel = countModel("Course");
+    private final DefaultTableModel semesterModel = countModel("Semester");
+    private final DefaultTableModel genderModel = countModel("Gender");
+    private final DefaultTableModel ageModel = countModel("Age");
+    private final DefaultTableModel pairModel = new DefaultTableModel(new Object[] {"Course", "Semester", "Students"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 2 ? Integer.class : String.class;
+        }
+    };
+    private final Timer retry = new Timer(RETRY_MS, e -> refresh());
+    private final JButton rebuildBtn = new JButton("Rebuild");
+
+    DashboardPanel(StudentRepository repo) {
+        super(new BorderLayout(8, 8));
+        this.repo = repo;
+        setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        retry.setRepeats(false);
+
+        JPanel top = new JPanel();
+        top.setLayout(new BoxLayout(top, BoxLayout.X_AXIS));
+        totalLabel.setFont(totalLabel.getFont().deriveFont(Font.BOLD, 14f));
+        top.add(totalLabel);
+        top.add(Box.createHorizontalGlue());
+        JButton refreshBtn = new JButton("Refresh");
+        rebuildBtn.setToolTipText("Recount from the database (after changes made outside this window)");
+        top.add(refreshBtn);
+        top.add(Box.createRigidArea(new Dimension(4, 0)));
+        top.add(rebuildBtn);
+        add(top, BorderLayout.NORTH);
+
+        JPanel grid = new JPanel(new GridLayout(2, 3, 8, 8));
+        grid.add(titled("By course", courseModel));
+        grid.add(titled("By semester", semesterModel));
+        grid.add(titled("By gender", genderModel));
+        grid.add(titled("By age", ageModel));
+        grid.add(titled("Course x semester", pairModel));
+        add(grid, BorderLayout.CENTER);
+
+        refreshBtn.addActionListener(e -> refresh());
+        rebuildBtn.addActionListener(e -> rebuild());
+    }
+
+    /** Re-reads the in-memory counts. EDT only. */
+    void refresh() {
+        EnrollmentSummary s;
+        try {
+            s = repo.enrollmentSummary();
+        } catch (Exception ex) {
+            totalLabel.setText("Statistics unavailable: " + ex.getMessage());
+            return;
+        }
+        if (s == null) {
+            totalLabel.setText("Counting students…");
+            retry.restart();
+            return;
+        }
+        totalLabel.setText("Total students: " + s.total);
+        fill(courseModel, s.byCourse);
+        fill(semesterModel, s.bySemester);
+        fill(genderModel, s.byGender);
+        fill(ageModel, s.byAgeBand);
+        pairModel.setRowCount(0);
+        for (Map.Entry<String, Map<String, Integer>> c : s.byCourseSemester.entrySet()) {
+            for (Map.Entry<String, Integer> e : c.getValue().entrySet()) {
+                pairModel.addRow(new Object[] {c.getKey(), e.getKey(), e.getValue()});
+            }
+        }
+    }
+
+    private void rebuild() {
+        rebuildBtn.setEnabled(false);
+        totalLabel.setText("Recounting…");
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                repo.rebuildEnrollmentStats();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                rebuildBtn.setEnabled(true);
+                try {
+                    get();
+                    refresh();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    totalLabel.setText("Rebuild failed: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private static void fill(DefaultTableModel model, Map<String, Integer> counts) {
+        model.setRowCount(0);
+        for (Map.Entry<String, Integer> e : counts.entrySet()) model.addRow(new Object[] {e.getKey(), e.getValue()});
+    }
+
+    private static JComponent titled(String title, DefaultTableModel model) {
+        JTable t = new JTable(model);
+        t.setAutoCreateRowSorter(true);
+        JScrollPane sp = new JScrollPane(t);
+        sp.setBorder(BorderFactory.createTitledBorder(title));
+        return sp;
+    }
+
+    private static DefaultTableModel countModel(String label) {
+        return new DefaultTableModel(new Object[] {label, "Students"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 1 ? Integer.class : String.class;
+            }
+        };
+    }
+}
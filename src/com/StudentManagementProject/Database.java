@@ -1,23 +1,61 @@
 package com.StudentManagementProject;
 
 import java.sql.*;
-import javax.swing.table.DefaultTableModel;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
-import java.security.MessageDigest;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 /**
  * Database.java - consolidated and complete for StudentManagementProject
  *
- * - DB init & migration (students, users, edit_requests tables)
- * - User management: createUser, userExists, authenticateUser
- * - Password hashing (SHA-256)
- * - Password operations: changePassword, resetPassword
+ * - DB init & migration (students, users, edit_requests tables); dbInitAsync + awaitInit for startup,
+ *   with a PRAGMA user_version fast path when the schema is already current
+ * - User management: createUser, userExists, authenticateUser (issues a session token), resumeSession, logout
+ * - Login throttling (LoginThrottle): per-username exponential backoff and a global rate on password checks
+ * - Password hashing (PasswordHasher: salted PBKDF2, cost calibrated at startup, verified on a bounded pool;
+ *   legacy SHA-256 hashes still verify and are upgraded on the next login)
+ * - Password operations: changePassword, resetPassword (by password, or on an existing session)
  * - Student CRUD: insertStudent (old/new), updateStudent (old/new), deleteStudent
- * - Fetch/search: fetchAllData, searchStudents (populate DefaultTableModel)
- * - Edit request workflow: createEditRequest, fetchAllEditRequests, approveEditRequest, rejectEditRequest
+ * - updateStudent diffs against the stored row (StudentDiff) and writes only changed columns; a no-op
+ *   update writes nothing, and listeners are told which fields changed
+ * - Optimistic concurrency: students.version is bumped by every write; updateStudent(..., expectedVersion)
+ *   only applies to an unchanged row and otherwise throws ConflictException with the current row
+ * - Enrollment: enrollStudent / enrollStudents insert students and their student logins in one transaction
+ * - Course / semester lookup tables (courses, semesters) referenced by integer ids, cached in LookupTable
+ * - DOB also stored as dob_day (epoch day, indexed); ages are computed from it and age/birthday filters are dob_day ranges
+ *   (age filters fall back to the stored age for rows without a valid dob)
+ * - Fetch/search: fetchAllStudents, searchStudents, findStudent return immutable Student / EditRequest records
+ *   (no Swing types here; tables are filled by StudentTableModel / TableAdapters)
+ * - Roster pages: countStudents, streamStudentPage (RosterQuery filters + sort pushed down to SQL, LIMIT/OFFSET)
+ * - Streaming: streamAllData, streamSearch, streamFuzzySearch, streamEditRequests (records to a Consumer, see ChunkedLoader)
+ * - Connections come from a small pool (ConnectionPool) instead of one DriverManager open per call
+ * - Cancellation: CancelToken + per-operation query timeouts
+ * - Search result cache (SearchCache), invalidated on writes and PRAGMA data_version
+ * - Field-qualified search syntax (StudentQuery) over indexed columns + FTS5, explainSearch
+ * - Typo-tolerant name search: fuzzySearchStudents over an in-memory TrigramIndex
+ * - Autocomplete: completeStudentNames / completeStudentIds / isStudentIdTaken (PrefixIndex)
+ * - Enrollment headcounts (EnrollmentStats) kept current by every student write: enrollmentSummary, rebuildEnrollmentStats
+ * - Edit request workflow: createEditRequest, fetchAllEditRequests, approveEditRequest, rejectEditRequest;
+ *   one OPEN request per student and field (partial unique index), a new one supersedes the old
+ * - Edit request quota (RequestLimiter): an in-memory token bucket per student in front of createEditRequest
+ * - Change listeners (StudentChange) told about every committed write; StudentServer pushes them to clients
  *
  * IMPORTANT: package must be com.StudentManagementProject to match the rest of your project.
  */
@@ -26,35 +64,262 @@ public class Database {
     private static final String DB_URL = "jdbc:sqlite:student.db";
     private static final DateTimeFormatter DOB_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-    // --- Auth result holder
+    // Bump whenever dbInit's migrations change; stored in PRAGMA user_version
+    private static final int SCHEMA_VERSION = 6;
+
+    // A new edit request replaces the student's open one for the same field (else it is refused)
+    static final boolean SUPERSEDE_REQUESTS = Boolean.parseBoolean(System.getProperty("student.requests.supersede", "true"));
+    static final String SUPERSEDED_REASON = "Replaced by a newer request for the same field.";
+
+    // Query timeouts (seconds) per operation class; 0 would mean "no limit" to the driver
+    private static final int READ_TIMEOUT_SEC = 15;
+    private static final int WRITE_TIMEOUT_SEC = 30;
+    private static final int AUTH_TIMEOUT_SEC = 5;
+
+    private static volatile CompletableFuture<Void> initFuture;
+
+    private static final ConnectionPool pool = new ConnectionPool(DB_URL);
+
+    private static final SearchCache searchCache = new SearchCache(DB_URL);
+
+    // Fuzzy name index. rebuildNameIndex fills a fresh one with no lock held and swaps it in;
+    // writes made meanwhile are logged in nameIndexReplay and replayed on it before the swap.
+    private static volatile TrigramIndex nameIndex = new TrigramIndex();
+    private static final Object nameIndexLock = new Object(); // guards nameIndexReplay and the swap
+    private static List<String[]> nameIndexReplay; // {id, name, father} or {id} for a removal; null when no build runs
+    private static final Object nameIndexBuild = new Object(); // one rebuild at a time
+    private static final CountDownLatch nameIndexBuilt = new CountDownLatch(1);
+
+    // Course / semester lookup tables (students.course_id, students.semester_id)
+    private static final LookupTable courses = new LookupTable("courses");
+    private static final LookupTable semesters = new LookupTable("semesters");
+    private static final Map<Long, String> courseSemLabels = new ConcurrentHashMap<>(); // "Course - Sem" per id pair
+
+    // Headcounts for the dashboard; built at startup, then adjusted by each write below
+    private static final EnrollmentStats enrollment = new EnrollmentStats();
+    private static final Object enrollmentRebuild = new Object(); // one rebuildEnrollmentStats at a time
+
+    // Logins issued by authenticateUser; password operations on a session skip the re-check
+    private static final Sessions sessions = new Sessions(Sessions.DEFAULT_IDLE_MS);
+
+    // Per-username backoff and a global rate on password checks, ahead of the users lookup and the hash
+    private static final LoginThrottle loginThrottle = new LoginThrottle();
+    private static final RequestLimiter requestLimiter = new RequestLimiter();
+
+    // Told about every committed student / edit request write (see fireChange)
+    private static final List<Consumer<StudentChange>> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Autocomplete indexes: null until the background load publishes them in one volatile swap.
+    // completionLock is only held for single lookups / edits, never across the load's table scan;
+    // edits made while the load runs are queued in completionReplay and applied before the swap.
+    private static final class Completions {
+        final PrefixIndex names = new PrefixIndex();
+        final PrefixIndex ids = new PrefixIndex();
+    }
+    private static final Object completionLock = new Object();
+    private static volatile Completions completions;
+    private static List<Consumer<Completions>> completionReplay; // non-null while a load runs
+
+    // Set by dbInit: false if this SQLite build has no FTS5 (free terms then use LIKE)
+    private static volatile boolean ftsAvailable = false;
+
+    // --- Auth result holder; a successful login also carries its session token
     public static class AuthResult {
         public final boolean ok;
         public final String username;
         public final String role;      // "admin" or "student"
         public final String studentId; // linked student id for role=student (may be null)
+        public final String token;     // session for resumeSession / changePassword(session, ...); null if !ok
 
         public AuthResult(boolean ok, String username, String role, String studentId) {
+            this(ok, username, role, studentId, null);
+        }
+
+        public AuthResult(boolean ok, String username, String role, String studentId, String token) {
             this.ok = ok;
             this.username = username;
             this.role = role;
             this.studentId = studentId;
+            this.token = token;
+        }
+
+        public boolean isAdmin() {
+            return ok && "admin".equalsIgnoreCase(role);
+        }
+    }
+
+    // --- Outcome of enrollStudent(s): the student row is always new, the login only if the name was free
+    public static class EnrollResult {
+        public final String studentId;
+        public final String username;     // the student's login (= studentId, initial password too)
+        public final boolean userCreated; // false: a user with that name already existed and was left alone
+
+        public EnrollResult(String studentId, String username, boolean userCreated) {
+            this.studentId = studentId;
+            this.username = username;
+            this.userCreated = userCreated;
+        }
+    }
+
+    // --- Thrown by a conditional updateStudent when the row is no longer at the expected version
+    public static class ConflictException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public final Student current; // the row as it is now
+
+        public ConflictException(String message, Student current) {
+            super(message);
+            this.current = current;
+        }
+    }
+
+    // --- Thrown when a query was cancelled through its CancelToken
+    public static class CancelledException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public CancelledException() {
+            super("Query cancelled.");
+        }
+    }
+
+    /**
+     * Cancellation handle for a running query. The UI creates one per request and calls
+     * cancel() when the result is no longer wanted (superseded search, dialog closed).
+     * cancel() maps to Statement.cancel(), which interrupts SQLite mid-step.
+     */
+    public static class CancelToken {
+        private volatile boolean cancelled;
+        private Statement statement; // guarded by this
+
+        public void cancel() {
+            cancelled = true;
+            // sqlite-jdbc's Statement.cancel() interrupts the whole connection, so it must never
+            // run after detach(), once the connection may be back in the pool serving someone else
+            synchronized (this) {
+                Statement s = statement;
+                if (s != null) {
+                    try { s.cancel(); } catch (SQLException ignored) {}
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void attach(Statement s) throws CancelledException {
+            statement = s;
+            if (cancelled) throw new CancelledException();
+        }
+
+        /** Call before the statement and its connection are closed; waits out a cancel() in progress. */
+        synchronized void detach() {
+            statement = null;
         }
     }
 
     // ------------------------- CONNECTION HELPERS -------------------------
+    // Pooled; close() hands the connection back (see ConnectionPool)
     private static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return pool.borrow();
+    }
+
+    /**
+     * Prepares a statement with the timeout of its operation class.
+     */
+    private static PreparedStatement prepare(Connection conn, String sql, int timeoutSec) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        ps.setQueryTimeout(timeoutSec);
+        return ps;
+    }
+
+    /**
+     * Turns auto-commit off and takes the write lock now, waiting for it up to busy_timeout. Left to
+     * SQLite, a transaction that reads first takes it at its first write, and in WAL mode that fails
+     * at once if another connection committed since the read. On failure the pool rolls back on close.
+     */
+    private static void beginWrite(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement s = conn.createStatement()) {
+            s.setQueryTimeout(WRITE_TIMEOUT_SEC);
+            // matches no row, only takes the lock; courses has no triggers (through the FTS5 ones on
+            // students this failed at once instead of waiting when another write was under way)
+            s.executeUpdate("UPDATE courses SET id = id WHERE 0;");
+        }
     }
 
     // ------------------------- DB INITIALIZATION -------------------------
+    /**
+     * Starts dbInit on a background thread so it overlaps with UI construction.
+     * Callers that need the database use awaitInit().
+     */
+    public static CompletableFuture<Void> dbInitAsync() {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        initFuture = f;
+        Thread t = new Thread(() -> {
+            long t0 = System.nanoTime();
+            try {
+                dbInit();
+                System.out.println("[STARTUP] db init: " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+                f.complete(null);
+            } catch (Throwable ex) {
+                f.completeExceptionally(ex);
+            }
+        }, "db-init");
+        t.setDaemon(true);
+        t.start();
+        return f;
+    }
+
+    /**
+     * Blocks until a dbInitAsync() started earlier has finished; no-op if it was never started.
+     */
+    public static void awaitInit() throws Exception {
+        CompletableFuture<Void> f = initFuture;
+        if (f == null) return;
+        try {
+            f.get();
+        } catch (ExecutionException | CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw new Exception("DB init failed: " + cause, cause);
+        }
+    }
+
     /**
      * Initialize DB: create students table (with migration), users table and edit_requests.
      * Auto-creates a default admin user (admin/admin) if no users exist.
+     * If PRAGMA user_version already equals SCHEMA_VERSION, all of that is skipped after one read.
      */
     public static void dbInit() throws Exception {
+        PasswordHasher.calibrateInBackground();
         try (Connection conn = getConnection();
              Statement st = conn.createStatement()) {
 
+            // WAL: readers (search, roster pages, stats rebuilds) no longer hold off writers, and writers
+            // only wait for each other (busy_timeout, see ConnectionPool). Stored in the file, so this is
+            // a no-op after the first run; needs a moment with no other connection, else it stays as it was.
+            try (ResultSet rs = st.executeQuery("PRAGMA journal_mode = WAL;")) {
+                String mode = rs.next() ? rs.getString(1) : "?";
+                if (!"wal".equalsIgnoreCase(mode)) System.err.println("[STARTUP] journal_mode is " + mode + ", not wal");
+            } catch (SQLException ex) {
+                System.err.println("[STARTUP] could not switch to WAL: " + ex.getMessage());
+            }
+
+            // Fast path: schema version and FTS presence in a single cheap read
+            try (ResultSet rs = st.executeQuery("SELECT (SELECT user_version FROM pragma_user_version), "
+                    + "EXISTS (SELECT 1 FROM sqlite_master WHERE name = 'students_fts');")) {
+                if (rs.next() && rs.getInt(1) == SCHEMA_VERSION) {
+                    ftsAvailable = rs.getInt(2) == 1;
+                    startNameIndexBuild();
+                    return;
+                }
+            }
+
+            // Lookup tables for course / semester
+            st.execute("CREATE TABLE IF NOT EXISTS courses (id INTEGER PRIMARY KEY, label TEXT NOT NULL UNIQUE COLLATE NOCASE);");
+            st.execute("CREATE TABLE IF NOT EXISTS semesters (id INTEGER PRIMARY KEY, label TEXT NOT NULL UNIQUE COLLATE NOCASE);");
+
             // Create students table
             String createStudents = "CREATE TABLE IF NOT EXISTS students ("
                     + "id TEXT PRIMARY KEY, "
@@ -66,15 +331,40 @@ public class Database {
                     + "email TEXT, "
                     + "phone TEXT, "
                     + "address TEXT, "
-                    + "course TEXT, "
-                    + "semester TEXT"
+                    + "dob_day INTEGER, "
+                    + "course_id INTEGER REFERENCES courses(id), "
+                    + "semester_id INTEGER REFERENCES semesters(id), "
+                    + "version INTEGER NOT NULL DEFAULT 1"   // bumped by every update (optimistic concurrency)
                     + ");";
             st.execute(createStudents);
 
             // Ensure backward-compatible columns exist
             ensureColumnExists(conn, "students", "age", "INTEGER");
-            ensureColumnExists(conn, "students", "course", "TEXT");
-            ensureColumnExists(conn, "students", "semester", "TEXT");
+            ensureColumnExists(conn, "students", "course_id", "INTEGER REFERENCES courses(id)");
+            ensureColumnExists(conn, "students", "semester_id", "INTEGER REFERENCES semesters(id)");
+            ensureColumnExists(conn, "students", "dob_day", "INTEGER");
+            ensureColumnExists(conn, "students", "version", "INTEGER NOT NULL DEFAULT 1");
+            st.execute("DROP TRIGGER IF EXISTS students_fts_au;"); // recreated below, limited to the indexed columns
+            backfillDobDay(conn);
+
+            // Older databases keep course/semester as text on every row: move them to the lookup tables
+            boolean movedCourseText = columnExists(conn, "students", "course") || columnExists(conn, "students", "semester");
+            if (movedCourseText) migrateCourseSemesterText(conn);
+
+            // Indexes used by structured search (StudentQuery), roster filters and ORDER BY name.
+            // Filter indexes end in name so a filtered page sorted by name is read in index order.
+            // Age filters/sorts use dob_day (the stored age goes stale every birthday); the stored age
+            // is only compared for rows whose dob_day is NULL.
+            st.execute("CREATE INDEX IF NOT EXISTS idx_students_name ON students(name COLLATE NOCASE);");
+            st.execute("DROP INDEX IF EXISTS idx_students_age;");
+            st.execute("DROP INDEX IF EXISTS idx_students_age_name;");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_students_dob_day ON students(dob_day);");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_students_course_sem_ids ON students(course_id, semester_id, name COLLATE NOCASE);");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_students_semester_id ON students(semester_id, name COLLATE NOCASE);");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_students_gender_name ON students(gender COLLATE NOCASE, name COLLATE NOCASE);");
+
+            // Full-text index for free search terms
+            ftsAvailable = ensureStudentsFts(conn);
 
             // Create users table
             String createUsers = "CREATE TABLE IF NOT EXISTS users ("
@@ -99,15 +389,88 @@ public class Database {
                     + "handled_reason TEXT"
                     + ");";
             st.execute(createRequests);
+            // At most one OPEN request per student and field: older duplicates give way to the newest
+            st.execute("UPDATE edit_requests SET status = 'SUPERSEDED', handled_at = datetime('now'), handled_reason = '" + SUPERSEDED_REASON + "' "
+                    + "WHERE status = 'OPEN' AND EXISTS (SELECT 1 FROM edit_requests n WHERE n.student_id = edit_requests.student_id "
+                    + "AND n.field = edit_requests.field AND n.status = 'OPEN' AND n.id > edit_requests.id);");
+            st.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_edit_requests_open ON edit_requests(student_id, field) WHERE status = 'OPEN';");
 
             // Create default admin if no users exist
             if (!hasAnyUser(conn)) {
-                createUser(conn, "admin", "admin", "admin", null); // change password after first run!
+                createUser(conn, "admin", PasswordHasher.hash("admin"), "admin", null); // change password after first run!
             }
 
+            st.execute("PRAGMA user_version = " + SCHEMA_VERSION + ";");
+
+            // reclaim the pages freed by dropping the text columns
+            if (movedCourseText) st.execute("VACUUM;");
+
         } catch (SQLException ex) {
             throw new Exception("DB init failed: " + ex.getMessage(), ex);
         }
+
+        startNameIndexBuild();
+    }
+
+    // Build the fuzzy name index and the enrollment counts in the background; fuzzy searches wait
+    // for the former, enrollmentSummary() returns null until the latter is done
+    private static void startNameIndexBuild() {
+        Thread t = new Thread(Database::rebuildNameIndex, "name-index-build");
+        t.setDaemon(true);
+        t.start();
+        Thread s = new Thread(() -> {
+            try {
+                rebuildEnrollmentStats();
+            } catch (Exception ex) {
+                System.err.println(ex.getMessage());
+            }
+        }, "enrollment-stats-build");
+        s.setDaemon(true);
+        s.start();
+    }
+
+    /**
+     * Rebuilds the in-memory trigram index from the students table. Searches keep using the old
+     * index and writers are not held up while the table is scanned.
+     */
+    static void rebuildNameIndex() {
+        synchronized (nameIndexBuild) {
+            synchronized (nameIndexLock) {
+                nameIndexReplay = new ArrayList<>();
+            }
+            TrigramIndex fresh = new TrigramIndex();
+            try (Connection conn = getConnection();
+                 Statement s = conn.createStatement();
+                 ResultSet rs = s.executeQuery("SELECT id, name, father_name FROM students;")) {
+                while (rs.next()) {
+                    fresh.put(rs.getString("id"), rs.getString("name"), rs.getString("father_name"));
+                }
+            } catch (SQLException ex) {
+                System.err.println("Name index build failed: " + ex.getMessage());
+            }
+            synchronized (nameIndexLock) {
+                for (String[] w : nameIndexReplay) {
+                    if (w.length == 1) fresh.remove(w[0]); else fresh.put(w[0], w[1], w[2]);
+                }
+                nameIndexReplay = null;
+                nameIndex = fresh;
+            }
+        }
+        nameIndexBuilt.countDown();
+    }
+
+    private static void indexName(String id, String name, String fatherName) {
+        synchronized (nameIndexLock) {
+            nameIndex.put(id, name, fatherName);
+            if (nameIndexReplay != null) nameIndexReplay.add(new String[] {id, name, fatherName});
+        }
+    }
+
+    private static void unindexName(String id) {
+        synchronized (nameIndexLock) {
+            nameIndex.remove(id);
+            if (nameIndexReplay != null) nameIndexReplay.add(new String[] {id});
+        }
     }
 
     private static boolean hasAnyUser(Connection conn) throws SQLException {
@@ -119,22 +482,128 @@ public class Database {
     }
 
     /**
-     * Adds a column to a table if it doesn't exist (used for migrations).
+     * Creates the students_fts external-content FTS5 table and its sync triggers.
+     * Returns false if FTS5 is not compiled into the driver.
      */
-    private static void ensureColumnExists(Connection conn, String table, String column, String type) throws SQLException {
-        boolean exists = false;
-        String qi = "PRAGMA table_info(" + table + ");";
+    private static boolean ensureStudentsFts(Connection conn) throws SQLException {
+        String cols = "id, name, father_name, course, semester, phone, email, address";
+        String newVals = "new.rowid, new.id, new.name, new.father_name, "
+                + "(SELECT label FROM courses WHERE id = new.course_id), (SELECT label FROM semesters WHERE id = new.semester_id), "
+                + "new.phone, new.email, new.address";
+        String oldVals = "old.rowid, old.id, old.name, old.father_name, "
+                + "(SELECT label FROM courses WHERE id = old.course_id), (SELECT label FROM semesters WHERE id = old.semester_id), "
+                + "old.phone, old.email, old.address";
+        boolean existed = tableExists(conn, "students_fts");
+        try (Statement s = conn.createStatement()) {
+            if (!existed) {
+                // external content comes from a view so course/semester are indexed as text
+                s.execute("CREATE VIEW IF NOT EXISTS students_fts_src AS SELECT s.rowid AS rid, s.id AS id, s.name AS name, "
+                        + "s.father_name AS father_name, c.label AS course, m.label AS semester, s.phone AS phone, s.email AS email, "
+                        + "s.address AS address FROM students s LEFT JOIN courses c ON c.id = s.course_id "
+                        + "LEFT JOIN semesters m ON m.id = s.semester_id;");
+                try {
+                    s.execute("CREATE VIRTUAL TABLE students_fts USING fts5(" + cols + ", content='students_fts_src', content_rowid='rid');");
+                } catch (SQLException noFts) {
+                    return false;
+                }
+            }
+            s.execute("CREATE TRIGGER IF NOT EXISTS students_fts_ai AFTER INSERT ON students BEGIN "
+                    + "INSERT INTO students_fts(rowid, " + cols + ") VALUES (" + newVals + "); END;");
+            s.execute("CREATE TRIGGER IF NOT EXISTS students_fts_ad AFTER DELETE ON students BEGIN "
+                    + "INSERT INTO students_fts(students_fts, rowid, " + cols + ") VALUES ('delete', " + oldVals + "); END;");
+            s.execute("CREATE TRIGGER IF NOT EXISTS students_fts_au AFTER UPDATE OF id, name, father_name, course_id, semester_id, phone, email, address ON students BEGIN "
+                    + "INSERT INTO students_fts(students_fts, rowid, " + cols + ") VALUES ('delete', " + oldVals + "); "
+                    + "INSERT INTO students_fts(rowid, " + cols + ") VALUES (" + newVals + "); END;");
+            if (!existed) {
+                // index rows that were inserted before the FTS table existed
+                s.execute("INSERT INTO students_fts(students_fts) VALUES ('rebuild');");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Schema 3 migration: fills courses/semesters from the old text columns, points
+     * course_id/semester_id at them and drops the text columns (and everything built on them).
+     */
+    private static void migrateCourseSemesterText(Connection conn) throws SQLException {
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement s = conn.createStatement()) {
+            // the FTS table and triggers read the text columns; ensureStudentsFts recreates them
+            s.execute("DROP TRIGGER IF EXISTS students_fts_ai;");
+            s.execute("DROP TRIGGER IF EXISTS students_fts_ad;");
+            s.execute("DROP TRIGGER IF EXISTS students_fts_au;");
+            s.execute("DROP TABLE IF EXISTS students_fts;");
+            s.execute("DROP INDEX IF EXISTS idx_students_course_sem;");
+            s.execute("DROP INDEX IF EXISTS idx_students_semester;");
+            s.execute("DROP INDEX IF EXISTS idx_students_course_sem_name;");
+            s.execute("DROP INDEX IF EXISTS idx_students_semester_name;");
+            for (String[] m : new String[][] {{"course", "courses", "course_id"}, {"semester", "semesters", "semester_id"}}) {
+                if (!columnExists(conn, "students", m[0])) continue;
+                s.execute("INSERT OR IGNORE INTO " + m[1] + " (label) SELECT DISTINCT trim(" + m[0] + ") FROM students "
+                        + "WHERE trim(coalesce(" + m[0] + ", '')) <> '';");
+                s.execute("UPDATE students SET " + m[2] + " = (SELECT id FROM " + m[1] + " WHERE label = trim(students." + m[0] + ")) "
+                        + "WHERE " + m[2] + " IS NULL;");
+                s.execute("ALTER TABLE students DROP COLUMN " + m[0] + ";");
+            }
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+        courses.clear();
+        semesters.clear();
+    }
+
+    /**
+     * Schema 4 migration: fills dob_day from the yyyy-MM-dd dob text for rows that don't have it.
+     * Unparseable dates stay NULL (no age).
+     */
+    private static void backfillDobDay(Connection conn) throws SQLException {
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
         try (Statement s = conn.createStatement();
-             ResultSet rs = s.executeQuery(qi)) {
+             ResultSet rs = s.executeQuery("SELECT rowid, dob FROM students WHERE dob_day IS NULL AND dob IS NOT NULL;");
+             PreparedStatement u = conn.prepareStatement("UPDATE students SET dob_day = ? WHERE rowid = ?;")) {
+            int pending = 0;
             while (rs.next()) {
-                String colName = rs.getString("name");
-                if (colName != null && colName.equalsIgnoreCase(column)) {
-                    exists = true;
-                    break;
+                Integer day = dobDay(rs.getString(2));
+                if (day == null) continue;
+                u.setInt(1, day);
+                u.setLong(2, rs.getLong(1));
+                u.addBatch();
+                if (++pending == 1000) {
+                    u.executeBatch();
+                    pending = 0;
                 }
             }
+            if (pending > 0) u.executeBatch();
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE name = ?;")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
         }
-        if (!exists) {
+    }
+
+    /**
+     * Adds a column to a table if it doesn't exist (used for migrations).
+     */
+    private static void ensureColumnExists(Connection conn, String table, String column, String type) throws SQLException {
+        if (!columnExists(conn, table, column)) {
             String alter = "ALTER TABLE " + table + " ADD COLUMN " + column + " " + type + ";";
             try (Statement s2 = conn.createStatement()) {
                 s2.execute(alter);
@@ -142,16 +611,28 @@ public class Database {
         }
     }
 
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        String qi = "PRAGMA table_info(" + table + ");";
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery(qi)) {
+            while (rs.next()) {
+                String colName = rs.getString("name");
+                if (colName != null && colName.equalsIgnoreCase(column)) return true;
+            }
+        }
+        return false;
+    }
+
     // ------------------------- USER MANAGEMENT -------------------------
 
     /**
-     * Internal helper to create a user using an existing Connection.
+     * Internal helper to create a user using an existing Connection; passwordHash from PasswordHasher.
      */
-    private static void createUser(Connection conn, String username, String passwordPlain, String role, String studentId) throws SQLException {
+    private static void createUser(Connection conn, String username, String passwordHash, String role, String studentId) throws SQLException {
         String sql = "INSERT INTO users (username, password_hash, role, student_id) VALUES (?, ?, ?, ?);";
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
-            ps.setString(2, hashPassword(passwordPlain));
+            ps.setString(2, passwordHash);
             ps.setString(3, role);
             if (studentId == null) ps.setNull(4, Types.VARCHAR); else ps.setString(4, studentId);
             ps.executeUpdate();
@@ -162,8 +643,9 @@ public class Database {
      * Public method to create a user (admin or student).
      */
     public static void createUser(String username, String passwordPlain, String role, String studentId) throws Exception {
+        String hash = PasswordHasher.hash(passwordPlain); // before taking a pooled connection
         try (Connection conn = getConnection()) {
-            createUser(conn, username, passwordPlain, role, studentId);
+            createUser(conn, username, hash, role, studentId);
         } catch (SQLException ex) {
             throw new Exception("Failed to create user: " + ex.getMessage(), ex);
         }
@@ -176,7 +658,7 @@ public class Database {
         if (username == null) return false;
         String sql = "SELECT COUNT(*) AS c FROM users WHERE username = ?;";
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getInt("c") > 0;
@@ -190,46 +672,107 @@ public class Database {
     // ------------------------- AUTHENTICATION -------------------------
 
     /**
-     * Authenticate a user; returns AuthResult with role and optional studentId.
+     * Authenticate a user; returns AuthResult with role, optional studentId and a new session token.
      */
     public static AuthResult authenticateUser(String username, String passwordPlain) throws Exception {
-        String sql = "SELECT username, password_hash, role, student_id FROM users WHERE username = ?;";
+        AuthResult verified;
+        try {
+            verified = verifyPassword(username, passwordPlain, true);
+        } catch (SQLException ex) {
+            throw new Exception("Authentication failed: " + ex.getMessage(), ex);
+        }
+        if (verified == null) return new AuthResult(false, username, null, null);
+        return sessions.create(verified.username, verified.role, verified.studentId).toAuthResult();
+    }
+
+    /**
+     * The login behind token, with its expiry pushed out, or null if the session is unknown or
+     * expired. No database access.
+     */
+    public static AuthResult resumeSession(String token) {
+        Sessions.Session s = sessions.touch(token);
+        return s == null ? null : s.toAuthResult();
+    }
+
+    public static void logout(String token) {
+        sessions.remove(token);
+    }
+
+    public static int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Login throttle metrics (attempts, failures, lockouts, rejections, usernames tracked).
+     */
+    public static String loginThrottleStats() {
+        return loginThrottle.stats();
+    }
+
+    /**
+     * Edit request quota counters (granted, rejected, students tracked).
+     */
+    public static String requestLimiterStats() {
+        return requestLimiter.stats();
+    }
+
+    // The user's role and student id if plain matches the stored hash, else null; issues no session.
+    // Throttled per username and globally (LoginThrottle.Rejected). The connection goes back to the
+    // pool before the (deliberately slow) hash check. With upgrade, a legacy or under-cost hash is
+    // replaced in the background once the password has matched.
+    private static AuthResult verifyPassword(String username, String plain, boolean upgrade) throws Exception {
+        loginThrottle.check(username);
+        AuthResult found = lookupAndVerify(username, plain, upgrade);
+        loginThrottle.record(username, found != null);
+        return found;
+    }
+
+    private static AuthResult lookupAndVerify(String username, String plain, boolean upgrade) throws Exception {
+        String sql = "SELECT password_hash, role, student_id FROM users WHERE username = ?;";
+        String storedHash;
+        AuthResult found;
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = prepare(conn, sql, AUTH_TIMEOUT_SEC)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return new AuthResult(false, username, null, null);
-                String storedHash = rs.getString("password_hash");
-                String role = rs.getString("role");
-                String studentId = rs.getString("student_id");
-                String providedHash = hashPassword(passwordPlain);
-                if (storedHash != null && storedHash.equals(providedHash)) {
-                    return new AuthResult(true, username, role, studentId);
-                } else {
-                    return new AuthResult(false, username, null, null);
-                }
+                if (!rs.next()) return null;
+                storedHash = rs.getString("password_hash");
+                found = new AuthResult(true, username, rs.getString("role"), rs.getString("student_id"));
             }
+        }
+        if (!PasswordHasher.verify(plain, storedHash)) return null;
+        if (upgrade && PasswordHasher.needsRehash(storedHash)) {
+            PasswordHasher.rehashLater(plain, newHash -> storeRehash(username, storedHash, newHash));
+        }
+        return found;
+    }
+
+    // Only replaces the hash that was verified, so a password change in between wins
+    private static void storeRehash(String username, String oldHash, String newHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE username = ? AND password_hash = ?;";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, sql, WRITE_TIMEOUT_SEC)) {
+            ps.setString(1, newHash);
+            ps.setString(2, username);
+            ps.setString(3, oldHash);
+            ps.executeUpdate();
         } catch (SQLException ex) {
-            throw new Exception("Authentication failed: " + ex.getMessage(), ex);
+            System.err.println("Password rehash for " + username + " failed: " + ex.getMessage());
         }
     }
 
+    // Session for an operation on behalf of the logged-in user
+    private static Sessions.Session requireSession(AuthResult session) throws Exception {
+        Sessions.Session s = sessions.touch(session == null ? null : session.token);
+        if (s == null) throw new Exception("Session expired; please log in again.");
+        return s;
+    }
+
     /**
-     * Simple SHA-256 hashing (hex) for passwords.
-     * NOTE: For production use salted hashing (BCrypt/Argon2). This is OK for an academic desktop app.
+     * A new password_hash record for plain (salted PBKDF2, see PasswordHasher).
      */
-    private static String hashPassword(String plain) {
-        if (plain == null) plain = "";
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] b = md.digest(plain.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder();
-            for (byte x : b) sb.append(String.format("%02x", x));
-            return sb.toString();
-        } catch (Exception e) {
-            // fallback (should not happen)
-            return Integer.toHexString(plain.hashCode());
-        }
+    static String hashPassword(String plain) throws Exception {
+        return PasswordHasher.hash(plain);
     }
 
     /**
@@ -238,22 +781,30 @@ public class Database {
     public static void changePassword(String username, String oldPassword, String newPassword) throws Exception {
         if (username == null || username.trim().isEmpty()) throw new Exception("Username required.");
         if (oldPassword == null || newPassword == null) throw new Exception("Passwords cannot be null.");
-        // verify old password
-        AuthResult ar = authenticateUser(username, oldPassword);
-        if (ar == null || !ar.ok) {
-            throw new Exception("Current password is incorrect.");
+        try {
+            if (verifyPassword(username, oldPassword, false) == null) {
+                throw new Exception("Current password is incorrect.");
+            }
+            setPassword(username, newPassword, "Failed to update password (user not found).");
+        } catch (SQLException ex) {
+            throw new Exception("Failed to change password: " + ex.getMessage(), ex);
         }
-        // update
-        String sql = "UPDATE users SET password_hash = ? WHERE username = ?;";
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, hashPassword(newPassword));
-            ps.setString(2, username);
-            int updated = ps.executeUpdate();
-            if (updated == 0) throw new Exception("Failed to update password (user not found).");
+        sessions.removeUser(username, null);
+    }
+
+    /**
+     * Change the session user's own password; the login already proved who they are.
+     * Their other sessions end, this one stays valid.
+     */
+    public static void changePassword(AuthResult session, String newPassword) throws Exception {
+        if (newPassword == null) throw new Exception("Passwords cannot be null.");
+        Sessions.Session s = requireSession(session);
+        try {
+            setPassword(s.username, newPassword, "Failed to update password (user not found).");
         } catch (SQLException ex) {
             throw new Exception("Failed to change password: " + ex.getMessage(), ex);
         }
+        sessions.removeUser(s.username, s.token);
     }
 
     /**
@@ -263,138 +814,642 @@ public class Database {
     public static void resetPassword(String adminUsername, String adminPassword, String targetUsername, String newPassword) throws Exception {
         if (adminUsername == null || adminPassword == null) throw new Exception("Admin credentials required.");
         if (targetUsername == null || targetUsername.trim().isEmpty()) throw new Exception("Target username required.");
-        // authenticate admin
-        AuthResult ar = authenticateUser(adminUsername, adminPassword);
-        if (ar == null || !ar.ok || ar.role == null || !ar.role.equalsIgnoreCase("admin")) {
-            throw new Exception("Admin authentication failed or not authorized.");
+        try {
+            AuthResult ar = verifyPassword(adminUsername, adminPassword, false);
+            if (ar == null || !ar.isAdmin()) {
+                throw new Exception("Admin authentication failed or not authorized.");
+            }
+            setPassword(targetUsername, newPassword, "Target user not found: " + targetUsername);
+        } catch (SQLException ex) {
+            throw new Exception("Failed to reset password: " + ex.getMessage(), ex);
         }
-        // update target
-        String sql = "UPDATE users SET password_hash = ? WHERE username = ?;";
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, hashPassword(newPassword));
-            ps.setString(2, targetUsername);
-            int updated = ps.executeUpdate();
-            if (updated == 0) throw new Exception("Target user not found: " + targetUsername);
+        sessions.removeUser(targetUsername, null);
+    }
+
+    /**
+     * Admin resets another user's password from a logged-in admin session (no password prompt).
+     * The target's sessions end.
+     */
+    public static void resetPassword(AuthResult adminSession, String targetUsername, String newPassword) throws Exception {
+        if (targetUsername == null || targetUsername.trim().isEmpty()) throw new Exception("Target username required.");
+        if (!requireSession(adminSession).isAdmin()) throw new Exception("Admin authentication failed or not authorized.");
+        try {
+            setPassword(targetUsername, newPassword, "Target user not found: " + targetUsername);
         } catch (SQLException ex) {
             throw new Exception("Failed to reset password: " + ex.getMessage(), ex);
         }
+        sessions.removeUser(targetUsername, null);
+    }
+
+    // Hashes first, then takes a connection only for the UPDATE
+    private static void setPassword(String username, String newPassword, String notFound) throws Exception {
+        String hash = PasswordHasher.hash(newPassword);
+        String sql = "UPDATE users SET password_hash = ? WHERE username = ?;";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, sql, WRITE_TIMEOUT_SEC)) {
+            ps.setString(1, hash);
+            ps.setString(2, username);
+            if (ps.executeUpdate() == 0) throw new Exception(notFound);
+        }
     }
 
     // ------------------------- FETCH / SEARCH -------------------------
+    private static final String STUDENT_SELECT = "SELECT id, name, father_name, dob, gender, phone, course_id, semester_id, email, address, age, dob_day, version FROM students ";
+
     /**
-     * Populates the provided DefaultTableModel with all rows.
-     * Columns: ID, Name, Father, DOB, Gender, Phone, Course/Sem, E-mail, Address, Age, Course, Semester
+     * All students, ordered by name.
      */
-    public static void fetchAllData(DefaultTableModel model) throws Exception {
-        String sql = "SELECT id, name, father_name, dob, gender, phone, course, semester, email, address, age FROM students ORDER BY name COLLATE NOCASE;";
-        model.setRowCount(0);
-        model.setColumnIdentifiers(new Object[]{"ID", "Name", "Father", "DOB", "Gender", "Phone", "Course/Sem", "E-mail", "Address", "Age", "Course", "Semester"});
+    public static List<Student> fetchAllStudents(CancelToken token) throws Exception {
+        List<Student> out = new ArrayList<>();
+        streamAllData(out::add, token);
+        return out;
+    }
 
+    /**
+     * Streams all students, ordered by name, to out as they are read. Runs on the calling
+     * thread; out should be cheap (e.g. buffer into chunks for the EDT).
+     */
+    public static void streamAllData(Consumer<Student> out, CancelToken token) throws Exception {
+        String sql = STUDENT_SELECT + "ORDER BY name COLLATE NOCASE;";
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                String courseSem = joinCourseSemester(rs.getString("course"), rs.getString("semester"));
-                model.addRow(new Object[]{
-                        rs.getString("id"), rs.getString("name"), rs.getString("father_name"), rs.getString("dob"),
-                        rs.getString("gender"), rs.getString("phone"), courseSem, rs.getString("email"),
-                        rs.getString("address"), rs.getInt("age"), rs.getString("course"), rs.getString("semester")
-                });
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
+            token.attach(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                addStudentRows(rs, out, token, null);
+            } finally {
+                token.detach();
             }
         } catch (SQLException ex) {
-            throw new Exception("Failed fetchAllData: " + ex.getMessage(), ex);
+            if (token.isCancelled()) throw new CancelledException();
+            throw new Exception("Failed to load students: " + ex.getMessage(), ex);
         }
     }
 
     /**
-     * Search by id, name, father_name, course, semester, phone, email, address (LIKE %q%).
-     * Populates same columns as fetchAllData.
+     * The student with exactly this id, or null.
      */
-    public static void searchStudents(DefaultTableModel model, String q) throws Exception {
-        String like = "%" + q + "%";
-        String sql = "SELECT id, name, father_name, dob, gender, phone, course, semester, email, address, age FROM students "
-                + "WHERE id LIKE ? OR name LIKE ? OR father_name LIKE ? OR course LIKE ? OR semester LIKE ? OR phone LIKE ? OR email LIKE ? OR address LIKE ? "
-                + "ORDER BY name COLLATE NOCASE;";
-        model.setRowCount(0);
-        model.setColumnIdentifiers(new Object[]{"ID", "Name", "Father", "DOB", "Gender", "Phone", "Course/Sem", "E-mail", "Address", "Age", "Course", "Semester"});
-
+    public static Student findStudent(String id) throws Exception {
+        if (id == null || id.trim().isEmpty()) return null;
+        List<Student> found = new ArrayList<>(1);
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            for (int i = 1; i <= 8; i++) ps.setString(i, like);
-
+             PreparedStatement ps = prepare(conn, STUDENT_SELECT + "WHERE id = ?;", READ_TIMEOUT_SEC)) {
+            ps.setString(1, id.trim());
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String courseSem = joinCourseSemester(rs.getString("course"), rs.getString("semester"));
-                    model.addRow(new Object[]{
-                            rs.getString("id"), rs.getString("name"), rs.getString("father_name"), rs.getString("dob"),
-                            rs.getString("gender"), rs.getString("phone"), courseSem, rs.getString("email"),
-                            rs.getString("address"), rs.getInt("age"), rs.getString("course"), rs.getString("semester")
-                    });
-                }
+                addStudentRows(rs, found::add, new CancelToken(), null);
             }
         } catch (SQLException ex) {
-            throw new Exception("Search failed: " + ex.getMessage(), ex);
+            throw new Exception("Failed to load student: " + ex.getMessage(), ex);
         }
+        return found.isEmpty() ? null : found.get(0);
     }
 
-    // ------------------------- INSERT / UPDATE / DELETE -------------------------
     /**
-     * Backward-compatible insert signature:
-     * insertStudent(id,name,fatherName,dob,gender,contact,section,email,address)
-     * where section was previously "Course - Semester"
+     * Search by id, name, father_name, course, semester, phone, email, address (LIKE %q%), or
+     * the field:value syntax of StudentQuery. Ordered by name. Results are served from the
+     * search cache when the same normalized query was seen since the last write.
      */
-    public static void insertStudent(String id, String name, String fatherName,
-                                     String dob, String gender, String contact,
-                                     String section, String email, String address) throws Exception {
-        String[] cs = parseSection(section);
-        String course = cs[0];
-        String semester = cs[1];
-        Integer age = computeAgeFromDob(dob);
-
-        insertStudent(id, name, fatherName, dob, age, email, contact, address, course, semester, gender);
+    public static List<Student> searchStudents(String q, CancelToken token) throws Exception {
+        List<Student> out = new ArrayList<>();
+        streamSearch(q, out::add, token);
+        return out;
     }
 
     /**
-     * New/explicit insert (preferred).
+     * Streaming variant of searchStudents (same rows, same cache).
      */
-    public static void insertStudent(String id, String name, String fatherName,
-                                     String dob, Integer age, String email, String phone,
-                                     String address, String course, String semester, String gender) throws Exception {
-        String sql = "INSERT INTO students (id, name, father_name, dob, gender, age, email, phone, address, course, semester) "
-                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+    public static void streamSearch(String q, Consumer<Student> out, CancelToken token) throws Exception {
+        SearchSql search = buildSearch(q);
+        // structured queries may use age/birthday, which depend on today's date
+        String key = search.structured ? "q:" + LocalDate.now() + ":" + q.trim() : SearchCache.normalize(q);
+        long gen = searchCache.begin();
+        List<Student> cached = searchCache.get(key);
+        if (cached != null) {
+            for (Student st : cached) out.accept(st);
+            return;
+        }
+
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = prepare(conn, search.sql, READ_TIMEOUT_SEC)) {
 
-            ps.setString(1, id);
-            ps.setString(2, name);
-            ps.setString(3, fatherName);
-            ps.setString(4, dob);
-            ps.setString(5, gender);
-            if (age == null) ps.setNull(6, Types.INTEGER); else ps.setInt(6, age);
-            ps.setString(7, email);
-            ps.setString(8, phone);
-            ps.setString(9, address);
-            ps.setString(10, course);
-            ps.setString(11, semester);
+            bindAll(ps, search.params);
 
-            ps.executeUpdate();
+            token.attach(ps);
+            List<Student> rows = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                addStudentRows(rs, out, token, rows);
+            } finally {
+                token.detach();
+            }
+            searchCache.put(key, rows, gen);
         } catch (SQLException ex) {
-            throw new Exception("Insert failed: " + ex.getMessage(), ex);
+            if (token.isCancelled()) throw new CancelledException();
+            throw new Exception("Search failed: " + ex.getMessage(), ex);
         }
     }
 
     /**
-     * Backward-compatible update signature:
-     * updateStudent(String id,String name,String fatherName,String contact,
-     *               String dob,String gender,String email, String section,String address)
+     * Typo-tolerant search on name / father's name. Candidates come from the trigram index
+     * (no SQL per candidate); matching rows are then loaded by id and ordered by similarity.
      */
-    public static void updateStudent(String id, String name, String fatherName,
-                                     String contact, String dob, String gender,
-                                     String email, String section, String address) throws Exception {
-        String[] cs = parseSection(section);
+    public static List<Student> fuzzySearchStudents(String q, CancelToken token) throws Exception {
+        List<Student> out = new ArrayList<>();
+        streamFuzzySearch(q, out::add, token);
+        return out;
+    }
+
+    /**
+     * Streaming variant of fuzzySearchStudents.
+     */
+    public static void streamFuzzySearch(String q, Consumer<Student> out, CancelToken token) throws Exception {
+        if (!nameIndexBuilt.await(READ_TIMEOUT_SEC, TimeUnit.SECONDS)) throw new Exception("Name index is still loading.");
+        List<TrigramIndex.Match> matches = nameIndex.search(q, 50, 0.3);
+        if (matches.isEmpty() || token.isCancelled()) return;
+
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < matches.size(); i++) in.append(i == 0 ? "?" : ", ?");
+        String sql = STUDENT_SELECT + "WHERE id IN (" + in + ");";
+
+        Map<String, Student> byId = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
+            for (int i = 0; i < matches.size(); i++) ps.setString(i + 1, matches.get(i).studentId);
+            token.attach(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                addStudentRows(rs, st -> byId.put(st.id, st), token, null);
+            } finally {
+                token.detach();
+            }
+        } catch (SQLException ex) {
+            if (token.isCancelled()) throw new CancelledException();
+            throw new Exception("Fuzzy search failed: " + ex.getMessage(), ex);
+        }
+
+        // re-apply similarity order
+        for (TrigramIndex.Match m : matches) {
+            Student st = byId.get(m.studentId);
+            if (st != null) out.accept(st);
+        }
+    }
+
+    // ------------------------- ROSTER PAGES -------------------------
+
+    /**
+     * Number of students matching rq's search text and filters (sort and page window are ignored).
+     */
+    public static int countStudents(RosterQuery rq, CancelToken token) throws Exception {
+        List<Object> params = new ArrayList<>();
+        String where = rosterWhere(rq, params);
+        String sql = "SELECT COUNT(*) FROM students" + (where.isEmpty() ? "" : " WHERE " + where) + ";";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
+            bindAll(ps, params);
+            token.attach(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            } finally {
+                token.detach();
+            }
+        } catch (SQLException ex) {
+            if (token.isCancelled()) throw new CancelledException();
+            throw new Exception("Count failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Streams one page of the roster: rq's search text and filters, sorted in SQL (rowid as
+     * tie-breaker so consecutive pages neither overlap nor skip rows), LIMIT/OFFSET window.
+     * Pages go through the search cache like searchStudents.
+     */
+    public static void streamStudentPage(RosterQuery rq, Consumer<Student> out, CancelToken token) throws Exception {
+        List<Object> params = new ArrayList<>();
+        String where = rosterWhere(rq, params);
+        String sql = STUDENT_SELECT
+                + (where.isEmpty() ? "" : "WHERE " + where)
+                + " ORDER BY " + rosterOrder(rq) + " LIMIT ? OFFSET ?;";
+        params.add(rq.limit);
+        params.add(rq.offset);
+
+        String key = LocalDate.now() + ":" + rq.key();
+        long gen = searchCache.begin();
+        List<Student> cached = searchCache.get(key);
+        if (cached != null) {
+            for (Student st : cached) out.accept(st);
+            return;
+        }
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
+            bindAll(ps, params);
+            token.attach(ps);
+            List<Student> rows = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                addStudentRows(rs, out, token, rows);
+            } finally {
+                token.detach();
+            }
+            searchCache.put(key, rows, gen);
+        } catch (SQLException ex) {
+            if (token.isCancelled()) throw new CancelledException();
+            throw new Exception("Failed loading page: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Query plan for a roster page, like explainSearch (for checking which index serves a sort/filter).
+     */
+    public static String explainRosterPage(RosterQuery rq) throws Exception {
+        List<Object> params = new ArrayList<>();
+        String where = rosterWhere(rq, params);
+        String sql = "SELECT id FROM students" + (where.isEmpty() ? "" : " WHERE " + where)
+                + " ORDER BY " + rosterOrder(rq) + " LIMIT ? OFFSET ?;";
+        params.add(rq.limit);
+        params.add(rq.offset);
+        StringBuilder out = new StringBuilder();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, "EXPLAIN QUERY PLAN " + sql, READ_TIMEOUT_SEC)) {
+            bindAll(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.append("  ").append(rs.getString("detail")).append('\n');
+            }
+        } catch (SQLException ex) {
+            throw new Exception("Explain failed: " + ex.getMessage(), ex);
+        }
+        return out.toString();
+    }
+
+    private static String rosterWhere(RosterQuery rq, List<Object> params) throws Exception {
+        List<String> preds = new ArrayList<>();
+        if (rq.course != null) {
+            preds.add("course_id = (SELECT id FROM courses WHERE label = ?)");
+            params.add(rq.course);
+        }
+        if (rq.semester != null) {
+            preds.add("semester_id = (SELECT id FROM semesters WHERE label = ?)");
+            params.add(rq.semester.chars().allMatch(Character::isDigit) ? "Sem " + rq.semester : rq.semester);
+        }
+        if (rq.gender != null) {
+            preds.add("gender = ? COLLATE NOCASE");
+            params.add(rq.gender);
+        }
+        if (rq.ageMin != null || rq.ageMax != null) {
+            StringBuilder age = new StringBuilder();
+            StudentQuery.appendAgeRange(age, params, rq.ageMin, rq.ageMax, LocalDate.now());
+            preds.add(age.toString());
+        }
+        if (rq.search != null) {
+            StudentQuery sq = StudentQuery.isStructured(rq.search) ? StudentQuery.parse(rq.search) : null;
+            String w = searchWhere(rq.search, sq, params);
+            if (!w.isEmpty()) preds.add("(" + w + ")");
+        }
+        return String.join(" AND ", preds);
+    }
+
+    // Sort keys per StudentTableModel column; the NOCASE ones match the indexes created in dbInit.
+    // Course/semester sort by label (ids are in insertion order, not alphabetical).
+    private static final String COURSE_LABEL = "(SELECT label FROM courses WHERE courses.id = students.course_id)";
+    private static final String SEMESTER_LABEL = "(SELECT label FROM semesters WHERE semesters.id = students.semester_id)";
+
+    private static String rosterOrder(RosterQuery rq) {
+        String dir = rq.ascending ? " ASC" : " DESC";
+        String[] keys;
+        switch (rq.sortColumn) {
+            case StudentTableModel.COL_ID: keys = new String[] {"id"}; break;
+            case StudentTableModel.COL_FATHER: keys = new String[] {"father_name COLLATE NOCASE"}; break;
+            case StudentTableModel.COL_DOB: keys = new String[] {"dob_day"}; break;
+            case StudentTableModel.COL_GENDER: keys = new String[] {"gender COLLATE NOCASE", "name COLLATE NOCASE"}; break;
+            case StudentTableModel.COL_PHONE: keys = new String[] {"phone"}; break;
+            case StudentTableModel.COL_COURSE_SEM:
+            case StudentTableModel.COL_COURSE: keys = new String[] {COURSE_LABEL, SEMESTER_LABEL, "name COLLATE NOCASE"}; break;
+            case StudentTableModel.COL_EMAIL: keys = new String[] {"email COLLATE NOCASE"}; break;
+            case StudentTableModel.COL_ADDRESS: keys = new String[] {"address COLLATE NOCASE"}; break;
+            case StudentTableModel.COL_AGE: keys = new String[] {"dob_day"}; break; // direction flipped below
+            case StudentTableModel.COL_SEMESTER: keys = new String[] {SEMESTER_LABEL, "name COLLATE NOCASE"}; break;
+            default: keys = new String[] {"name COLLATE NOCASE"};
+        }
+        if (rq.sortColumn == StudentTableModel.COL_AGE) dir = rq.ascending ? " DESC" : " ASC"; // younger = later dob
+        StringBuilder sb = new StringBuilder();
+        for (String k : keys) sb.append(k).append(dir).append(", ");
+        return sb.append("rowid").append(dir).toString();
+    }
+
+    /**
+     * Explain mode for the search box: shows how the query was parsed, the SQL that
+     * would run and SQLite's EXPLAIN QUERY PLAN output.
+     */
+    public static String explainSearch(String q) throws Exception {
+        SearchSql search = buildSearch(q);
+        StringBuilder sb = new StringBuilder();
+        sb.append("mode: ").append(search.structured ? "structured" : "plain (OR of LIKEs)").append('\n');
+        if (search.description != null) sb.append(search.description).append('\n');
+        sb.append("full-text: ").append(ftsAvailable ? "FTS5" : "unavailable (LIKE fallback)").append('\n');
+        sb.append("sql: ").append(search.sql).append('\n');
+        sb.append("plan:");
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, "EXPLAIN QUERY PLAN " + search.sql, READ_TIMEOUT_SEC)) {
+            bindAll(ps, search.params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) sb.append("\n  ").append(rs.getString("detail"));
+            }
+        } catch (SQLException ex) {
+            throw new Exception("Explain failed: " + ex.getMessage(), ex);
+        }
+        return sb.toString();
+    }
+
+    // --- Compiled search: SQL text plus bind values
+    private static class SearchSql {
+        final String sql;
+        final List<Object> params;
+        final boolean structured;
+        final String description;
+
+        SearchSql(String sql, List<Object> params, boolean structured, String description) {
+            this.sql = sql;
+            this.params = params;
+            this.structured = structured;
+            this.description = description;
+        }
+    }
+
+    private static SearchSql buildSearch(String q) throws Exception {
+        String select = STUDENT_SELECT;
+        String order = "ORDER BY name COLLATE NOCASE;";
+        List<Object> params = new ArrayList<>();
+        boolean structured = StudentQuery.isStructured(q);
+        StudentQuery sq = structured ? StudentQuery.parse(q) : null;
+        String where = searchWhere(q, sq, params);
+        String sql = select + (where.isEmpty() ? "" : "WHERE " + where + " ") + order;
+        return new SearchSql(sql, params, structured, structured ? sq.describe() : null);
+    }
+
+    // Plain-text match over all text columns; course/semester match their lookup labels
+    private static final String LIKE_ANY = "(id LIKE ? OR name LIKE ? OR father_name LIKE ? "
+            + "OR course_id IN (SELECT id FROM courses WHERE label LIKE ?) OR semester_id IN (SELECT id FROM semesters WHERE label LIKE ?) "
+            + "OR phone LIKE ? OR email LIKE ? OR address LIKE ?)";
+
+    // WHERE predicate (without the keyword, "" for none) for the search box text; sq is its parse if structured
+    private static String searchWhere(String q, StudentQuery sq, List<Object> params) {
+        if (sq == null) {
+            String like = "%" + q + "%";
+            for (int i = 1; i <= 8; i++) params.add(like);
+            return LIKE_ANY;
+        }
+
+        StringBuilder where = new StringBuilder(sq.where);
+        params.addAll(sq.params);
+        if (!sq.freeTerms.isEmpty()) {
+            if (where.length() > 0) where.append(" AND ");
+            if (ftsAvailable) {
+                where.append("rowid IN (SELECT rowid FROM students_fts WHERE students_fts MATCH ?)");
+                params.add(ftsMatch(sq.freeTerms));
+            } else {
+                for (int t = 0; t < sq.freeTerms.size(); t++) {
+                    if (t > 0) where.append(" AND ");
+                    where.append(LIKE_ANY);
+                    String like = "%" + sq.freeTerms.get(t) + "%";
+                    for (int i = 1; i <= 8; i++) params.add(like);
+                }
+            }
+        }
+        return where.toString();
+    }
+
+    // Each free term becomes a quoted prefix token: "ravi"* "kum"*  (implicit AND)
+    private static String ftsMatch(List<String> terms) {
+        StringBuilder sb = new StringBuilder();
+        for (String t : terms) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(t.replace("\"", "\"\"")).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    private static void bindAll(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object v = params.get(i);
+            if (v instanceof Integer) ps.setInt(i + 1, (Integer) v);
+            else ps.setString(i + 1, v == null ? null : v.toString());
+        }
+    }
+
+    // Shared row mapping for every STUDENT_SELECT query; stops early once the token is cancelled.
+    // Students are also collected into sink (if not null) for the search cache.
+    private static void addStudentRows(ResultSet rs, Consumer<Student> out, CancelToken token, List<Student> sink) throws SQLException, CancelledException {
+        Connection conn = rs.getStatement().getConnection();
+        LocalDate today = LocalDate.now();
+        while (rs.next()) {
+            if (token.isCancelled()) throw new CancelledException();
+            int courseId = rs.getInt("course_id");
+            int semesterId = rs.getInt("semester_id");
+            String course = courses.label(conn, courseId);
+            String semester = semesters.label(conn, semesterId);
+            Student st = new Student(
+                    rs.getString("id"), rs.getString("name"), rs.getString("father_name"), rs.getString("dob"),
+                    rs.getString("gender"), rs.getString("phone"), rs.getString("email"), rs.getString("address"),
+                    course, semester, courseSemLabel(courseId, semesterId, course, semester), currentAge(rs, today),
+                    rs.getInt("version"));
+            out.accept(st);
+            if (sink != null) sink.add(st);
+        }
+    }
+
+    // Age as of today from dob_day; the stored age column only for rows without a valid dob
+    private static int currentAge(ResultSet rs, LocalDate today) throws SQLException {
+        long day = rs.getLong("dob_day");
+        if (rs.wasNull()) return rs.getInt("age");
+        LocalDate dob = LocalDate.ofEpochDay(day);
+        return dob.isAfter(today) ? 0 : Period.between(dob, today).getYears();
+    }
+
+    // Joined "Course - Sem" text, built once per id pair (labels never change)
+    private static String courseSemLabel(int courseId, int semesterId, String course, String semester) {
+        long key = ((long) courseId << 32) | (semesterId & 0xffffffffL);
+        return courseSemLabels.computeIfAbsent(key, k -> joinCourseSemester(course, semester));
+    }
+
+    /**
+     * Search cache metrics (entries, bytes, hits, misses, hit ratio, invalidations).
+     */
+    public static String searchCacheStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * Connection pool metrics (idle, opened, reused, discarded).
+     */
+    public static String connectionPoolStats() {
+        return pool.stats();
+    }
+
+    // ------------------------- INSERT / UPDATE / DELETE -------------------------
+    /**
+     * Backward-compatible insert signature:
+     * insertStudent(id,name,fatherName,dob,gender,contact,section,email,address)
+     * where section was previously "Course - Semester"
+     */
+    public static void insertStudent(String id, String name, String fatherName,
+                                     String dob, String gender, String contact,
+                                     String section, String email, String address) throws Exception {
+        String[] cs = parseSection(section);
+        String course = cs[0];
+        String semester = cs[1];
+        Integer age = computeAgeFromDob(dob);
+
+        insertStudent(id, name, fatherName, dob, age, email, contact, address, course, semester, gender);
+    }
+
+    /**
+     * New/explicit insert (preferred).
+     */
+    public static void insertStudent(String id, String name, String fatherName,
+                                     String dob, Integer age, String email, String phone,
+                                     String address, String course, String semester, String gender) throws Exception {
+        Lock statsGate = enrollment.writeGate().readLock();
+        statsGate.lock();
+        try (Connection conn = getConnection()) {
+            EnrollmentStats.Key key;
+            boolean auto = conn.getAutoCommit();
+            beginWrite(conn); // a new course/semester label commits with the row
+            try (PreparedStatement ps = prepare(conn, INSERT_STUDENT, WRITE_TIMEOUT_SEC)) {
+                key = bindNewStudent(conn, ps, id, name, fatherName, dob, age, email, phone, address, course, semester, gender);
+                ps.executeUpdate();
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+            indexNewStudent(id, name, fatherName, key);
+            searchCache.invalidate();
+        } catch (SQLException ex) {
+            throw new Exception("Insert failed: " + ex.getMessage(), ex);
+        } finally {
+            statsGate.unlock();
+        }
+        fireChange(StudentChange.Kind.STUDENT_ADDED, id);
+    }
+
+    private static final String INSERT_STUDENT = "INSERT INTO students (id, name, father_name, dob, gender, age, email, phone, address, course_id, semester_id, dob_day) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+
+    // Binds INSERT_STUDENT (creating missing course/semester labels); the headcount key for the new row
+    private static EnrollmentStats.Key bindNewStudent(Connection conn, PreparedStatement ps, String id, String name, String fatherName,
+                                                      String dob, Integer age, String email, String phone, String address,
+                                                      String course, String semester, String gender) throws SQLException {
+        Integer courseId = courses.idFor(conn, course);
+        Integer semesterId = semesters.idFor(conn, semester);
+        Integer day = dobDay(dob);
+
+        ps.setString(1, id);
+        ps.setString(2, name);
+        ps.setString(3, fatherName);
+        ps.setString(4, dob);
+        ps.setString(5, gender);
+        if (age == null) ps.setNull(6, Types.INTEGER); else ps.setInt(6, age);
+        ps.setString(7, email);
+        ps.setString(8, phone);
+        ps.setString(9, address);
+        setIntOrNull(ps, 10, courseId);
+        setIntOrNull(ps, 11, semesterId);
+        setIntOrNull(ps, 12, day);
+        return enrollmentKey(courseId, semesterId, gender, day);
+    }
+
+    // In-memory indexes for a committed new student (the caller invalidates the search cache)
+    private static void indexNewStudent(String id, String name, String fatherName, EnrollmentStats.Key key) {
+        enrollment.add(key);
+        indexName(id, name, fatherName);
+        updateCompletions(c -> {
+            c.names.add(name, id);
+            c.ids.add(id, id);
+        });
+    }
+
+    // ------------------------- ENROLLMENT -------------------------
+
+    /**
+     * Inserts a student and their login (username and initial password = student id, role
+     * student, linked to the student) in one transaction: afterwards both rows exist or neither
+     * does. An existing user with that name is kept as it is (EnrollResult.userCreated false).
+     */
+    public static EnrollResult enrollStudent(String id, String name, String fatherName,
+                                             String dob, Integer age, String email, String phone,
+                                             String address, String course, String semester, String gender) throws Exception {
+        Student s = new Student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age == null ? 0 : age);
+        return enrollStudents(List.of(s)).get(0);
+    }
+
+    /**
+     * enrollStudent for many students in one transaction and two batched statements; all or
+     * nothing. The stored age is computed from dob, or s.age when dob does not parse (0 = none).
+     * Results are in input order.
+     */
+    public static List<EnrollResult> enrollStudents(List<Student> students) throws Exception {
+        if (students.isEmpty()) return new ArrayList<>();
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student s : students) {
+            if (s.id == null || s.id.trim().isEmpty()) throw new Exception("Student ID required.");
+            ids.add(s.id);
+        }
+        List<String> hashes = PasswordHasher.hashAll(ids); // before taking a connection
+        String insertUser = "INSERT OR IGNORE INTO users (username, password_hash, role, student_id) VALUES (?, ?, 'student', ?);";
+        List<EnrollmentStats.Key> keys = new ArrayList<>(students.size());
+        int[] userRows;
+        Lock statsGate = enrollment.writeGate().readLock();
+        statsGate.lock();
+        try (Connection conn = getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            beginWrite(conn);
+            try (PreparedStatement ps = prepare(conn, INSERT_STUDENT, WRITE_TIMEOUT_SEC);
+                 PreparedStatement pu = prepare(conn, insertUser, WRITE_TIMEOUT_SEC)) {
+                for (int i = 0; i < students.size(); i++) {
+                    Student s = students.get(i);
+                    Integer age = computeAgeFromDob(s.dob);
+                    if (age == null && s.age > 0) age = s.age;
+                    keys.add(bindNewStudent(conn, ps, s.id, s.name, s.fatherName, s.dob, age, s.email, s.phone, s.address,
+                            s.course, s.semester, s.gender));
+                    ps.addBatch();
+                    pu.setString(1, s.id);
+                    pu.setString(2, hashes.get(i));
+                    pu.setString(3, s.id);
+                    pu.addBatch();
+                }
+                ps.executeBatch();
+                userRows = pu.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        } catch (SQLException ex) {
+            throw new Exception("Insert failed: " + ex.getMessage(), ex);
+        } finally {
+            statsGate.unlock();
+        }
+
+        List<EnrollResult> out = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            indexNewStudent(s.id, s.name, s.fatherName, keys.get(i));
+            out.add(new EnrollResult(s.id, s.id, userRows[i] > 0));
+        }
+        searchCache.invalidate();
+        for (Student s : students) fireChange(StudentChange.Kind.STUDENT_ADDED, s.id);
+        return out;
+    }
+
+    /**
+     * Backward-compatible update signature:
+     * updateStudent(String id,String name,String fatherName,String contact,
+     *               String dob,String gender,String email, String section,String address)
+     */
+    public static void updateStudent(String id, String name, String fatherName,
+                                     String contact, String dob, String gender,
+                                     String email, String section, String address) throws Exception {
+        String[] cs = parseSection(section);
         String course = cs[0];
         String semester = cs[1];
         Integer age = computeAgeFromDob(dob);
@@ -403,34 +1458,177 @@ public class Database {
     }
 
     /**
-     * New explicit update (preferred).
+     * New explicit update (preferred). Unconditional: overwrites whatever is stored (and bumps the version).
      */
     public static void updateStudent(String id, String name, String fatherName,
                                      String phone, String dob, String gender,
                                      String email, String address, String course,
                                      String semester, Integer age) throws Exception {
-        String sql = "UPDATE students SET name = ?, father_name = ?, dob = ?, gender = ?, age = ?, email = ?, phone = ?, address = ?, course = ?, semester = ? WHERE id = ?;";
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        updateStudent(id, name, fatherName, phone, dob, gender, email, address, course, semester, age, null);
+    }
 
-            ps.setString(1, name);
-            ps.setString(2, fatherName);
-            ps.setString(3, dob);
-            ps.setString(4, gender);
-            if (age == null) ps.setNull(5, Types.INTEGER); else ps.setInt(5, age);
-            ps.setString(6, email);
-            ps.setString(7, phone);
-            ps.setString(8, address);
-            ps.setString(9, course);
-            ps.setString(10, semester);
-            ps.setString(11, id);
-
-            int updated = ps.executeUpdate();
-            if (updated == 0) {
-                throw new Exception("No student with id '" + id + "' found to update.");
+    /**
+     * Conditional update: applies only if the row is still at expectedVersion (Student.version as
+     * read), so a concurrent edit is never silently overwritten. Returns the new version; throws
+     * ConflictException carrying the current row when someone else wrote it first.
+     */
+    public static int updateStudent(String id, String name, String fatherName,
+                                    String phone, String dob, String gender,
+                                    String email, String address, String course,
+                                    String semester, Integer age, int expectedVersion) throws Exception {
+        return updateStudent(id, name, fatherName, phone, dob, gender, email, address, course, semester, age, (Integer) expectedVersion);
+    }
+
+    private static final int UPDATE_ATTEMPTS = 5;
+
+    // Reads the row, diffs it against the new values and updates only the changed columns, provided
+    // the version is still the one read; a write slipping in between makes it diff again
+    private static int updateStudent(String id, String name, String fatherName,
+                                     String phone, String dob, String gender,
+                                     String email, String address, String course,
+                                     String semester, Integer age, Integer expectedVersion) throws Exception {
+        Student wanted = new Student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age == null ? 0 : age);
+        Set<String> changed;
+        int newVersion;
+        Lock statsGate = enrollment.writeGate().readLock();
+        statsGate.lock();
+        try (Connection conn = getConnection()) {
+            for (int attempt = 1; ; attempt++) {
+                Student current = readStudent(conn, id);
+                if (current == null) throw new Exception("No student with id '" + id + "' found to update.");
+                changed = StudentDiff.changed(current, wanted);
+                // without a valid dob the stored age is what is shown, so it is a field of its own
+                if (!changed.contains("dob") && dobDay(dob) == null && age != null && age != current.age) changed.add("age");
+                if (changed.isEmpty()) return current.version; // already stored: no write, no event
+                if (expectedVersion != null && current.version != expectedVersion) {
+                    throw new ConflictException("Student " + id + " was changed by someone else (now version "
+                            + current.version + ", you edited version " + expectedVersion + ").", current);
+                }
+                boolean keyChanged = changed.contains("course") || changed.contains("semester")
+                        || changed.contains("gender") || changed.contains("dob");
+                EnrollmentStats.Key oldKey = null;
+                Written written;
+                boolean auto = conn.getAutoCommit();
+                beginWrite(conn); // a new course/semester label commits with the update
+                try {
+                    // read in the write's transaction, so it is the key of the row the conditional write replaces
+                    if (keyChanged) oldKey = enrollmentKey(conn, id);
+                    written = writeChangedColumns(conn, wanted, changed, age, current.version, oldKey);
+                    if (written == null) conn.rollback(); else conn.commit();
+                } catch (SQLException | RuntimeException ex) {
+                    conn.rollback();
+                    throw ex;
+                } finally {
+                    conn.setAutoCommit(auto);
+                }
+                if (written == null) {
+                    if (attempt == UPDATE_ATTEMPTS) throw new Exception("Update failed: student " + id + " keeps changing; try again.");
+                    continue;
+                }
+                newVersion = written.version;
+                if (keyChanged) {
+                    enrollment.remove(oldKey);
+                    enrollment.add(written.key);
+                }
+                searchCache.invalidate();
+                if (changed.contains("name") || changed.contains("father_name")) indexName(id, name, fatherName);
+                if (changed.contains("name")) {
+                    String oldName = current.name;
+                    updateCompletions(c -> {
+                        c.names.remove(oldName, id);
+                        c.names.add(name, id);
+                    });
+                }
+                break;
             }
         } catch (SQLException ex) {
             throw new Exception("Update failed: " + ex.getMessage(), ex);
+        } finally {
+            statsGate.unlock();
+        }
+        fireChange(StudentChange.Kind.STUDENT_UPDATED, id, changed);
+        return newVersion;
+    }
+
+    // One row, versioned, on the caller's connection; null if there is no such student
+    private static Student readStudent(Connection conn, String id) throws SQLException {
+        List<Student> found = new ArrayList<>(1);
+        try (PreparedStatement ps = prepare(conn, STUDENT_SELECT + "WHERE id = ?;", WRITE_TIMEOUT_SEC)) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                addStudentRows(rs, found::add, new CancelToken(), null);
+            } catch (CancelledException ex) {
+                throw new IllegalStateException(ex); // fresh token, never cancelled
+            }
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    // What writeChangedColumns stored: the new version, and the row's stats key built from the values
+    // written over oldKey (null without an oldKey)
+    private static final class Written {
+        final int version;
+        final EnrollmentStats.Key key;
+
+        Written(int version, EnrollmentStats.Key key) {
+            this.version = version;
+            this.key = key;
+        }
+    }
+
+    // UPDATE of just the changed columns if the row is still at version; null if it was not
+    private static Written writeChangedColumns(Connection conn, Student s, Set<String> changed, Integer age, int version,
+                                               EnrollmentStats.Key oldKey) throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE students SET ");
+        List<Object> values = new ArrayList<>();
+        Integer courseId = null, semesterId = null, day = null; // written values of the key columns
+        for (String field : changed) {
+            switch (field) {
+                case "dob":
+                    sql.append("dob = ?, dob_day = ?, age = ?, ");
+                    day = dobDay(s.dob);
+                    values.add(s.dob);
+                    values.add(day);
+                    values.add(age);
+                    break;
+                case "age":
+                    sql.append("age = ?, ");
+                    values.add(age);
+                    break;
+                case "course":
+                    sql.append("course_id = ?, ");
+                    courseId = courses.idFor(conn, s.course);
+                    values.add(courseId);
+                    break;
+                case "semester":
+                    sql.append("semester_id = ?, ");
+                    semesterId = semesters.idFor(conn, s.semester);
+                    values.add(semesterId);
+                    break;
+                default: // name, father_name, gender, phone, email, address: same-named text columns
+                    sql.append(field).append(" = ?, ");
+                    values.add(StudentDiff.value(s, field));
+            }
+        }
+        sql.append("version = version + 1 WHERE id = ? AND version = ? RETURNING version;");
+        try (PreparedStatement ps = prepare(conn, sql.toString(), WRITE_TIMEOUT_SEC)) {
+            int i = 1;
+            for (Object v : values) {
+                if (v instanceof Integer) ps.setInt(i++, (Integer) v);
+                else if (v == null) ps.setNull(i++, Types.NULL);
+                else ps.setString(i++, (String) v);
+            }
+            ps.setString(i++, s.id);
+            ps.setInt(i, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                EnrollmentStats.Key key = oldKey == null ? null : new EnrollmentStats.Key(
+                        changed.contains("course") ? orZero(courseId) : oldKey.courseId,
+                        changed.contains("semester") ? orZero(semesterId) : oldKey.semesterId,
+                        changed.contains("gender") ? s.gender : oldKey.gender,
+                        changed.contains("dob") ? day : oldKey.dobDay);
+                return new Written(rs.getInt(1), key);
+            }
         }
     }
 
@@ -438,134 +1636,510 @@ public class Database {
      * Delete by id.
      */
     public static void deleteStudent(String id) throws Exception {
-        String sql = "DELETE FROM students WHERE id = ?;";
+        // the stats key and name (for the autocomplete index) of the row actually removed
+        String sql = "DELETE FROM students WHERE id = ? RETURNING course_id, semester_id, gender, dob_day, name;";
+        Lock statsGate = enrollment.writeGate().readLock();
+        statsGate.lock();
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = prepare(conn, sql, WRITE_TIMEOUT_SEC)) {
 
             ps.setString(1, id);
-            int deleted = ps.executeUpdate();
-            if (deleted == 0) {
-                throw new Exception("No student with id '" + id + "' found to delete.");
+            EnrollmentStats.Key oldKey;
+            String oldName;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new Exception("No student with id '" + id + "' found to delete.");
+                }
+                oldKey = enrollmentKey(rs);
+                oldName = rs.getString(5);
             }
+            enrollment.remove(oldKey);
+            searchCache.invalidate();
+            unindexName(id);
+            updateCompletions(c -> {
+                c.names.remove(oldName, id);
+                c.ids.remove(id, id);
+            });
         } catch (SQLException ex) {
             throw new Exception("Delete failed: " + ex.getMessage(), ex);
+        } finally {
+            statsGate.unlock();
+        }
+        fireChange(StudentChange.Kind.STUDENT_DELETED, id);
+    }
+
+    // ------------------------- CHANGE LISTENERS -------------------------
+
+    /**
+     * Registers l to hear about every student / edit request write made through this class. Called
+     * on the writing thread after the write committed, so l must be quick (e.g. post to the EDT).
+     */
+    public static void addChangeListener(Consumer<StudentChange> l) {
+        changeListeners.add(l);
+    }
+
+    public static void removeChangeListener(Consumer<StudentChange> l) {
+        changeListeners.remove(l);
+    }
+
+    private static void fireChange(StudentChange.Kind kind, String studentId) {
+        fireChange(kind, studentId, Collections.emptySet());
+    }
+
+    private static void fireChange(StudentChange.Kind kind, String studentId, Set<String> fields) {
+        if (changeListeners.isEmpty()) return;
+        StudentChange change = new StudentChange(kind, studentId, fields);
+        for (Consumer<StudentChange> l : changeListeners) {
+            try {
+                l.accept(change);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace(); // a broken listener must not fail the write that already committed
+            }
+        }
+    }
+
+    // ------------------------- ENROLLMENT STATS -------------------------
+    // Age bands shown on the dashboard: {lo, hi}, hi = -1 for open-ended
+    private static final int[][] AGE_BANDS = {{0, 17}, {18, 20}, {21, 23}, {24, 26}, {27, 29}, {30, -1}};
+
+    /**
+     * Current headcounts without scanning students (only unknown labels are looked up),
+     * or null while the startup build is still running.
+     */
+    public static EnrollmentSummary enrollmentSummary() throws Exception {
+        if (!enrollment.isReady()) return null;
+        Map<Long, Integer> pairs = enrollment.courseSemesterCounts();
+        Map<String, Integer> byGender = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byGender.putAll(enrollment.genderCounts());
+        int total = enrollment.total();
+        LocalDate today = LocalDate.now();
+
+        Map<String, Integer> byCourse = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Integer> bySemester = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Map<String, Integer>> byCourseSemester = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (Connection conn = getConnection()) {
+            for (Map.Entry<Long, Integer> e : pairs.entrySet()) {
+                String course = labelOrNone(courses.label(conn, (int) (e.getKey() >>> 32)));
+                String semester = labelOrNone(semesters.label(conn, (int) (long) e.getKey()));
+                int n = e.getValue();
+                byCourse.merge(course, n, Integer::sum);
+                bySemester.merge(semester, n, Integer::sum);
+                byCourseSemester.computeIfAbsent(course, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER)).merge(semester, n, Integer::sum);
+            }
+        } catch (SQLException ex) {
+            throw new Exception("Failed to load enrollment labels: " + ex.getMessage(), ex);
+        }
+
+        Map<String, Integer> byAgeBand = new LinkedHashMap<>();
+        int banded = 0;
+        for (int[] band : AGE_BANDS) {
+            int n = enrollment.countAged(band[0], band[1] < 0 ? null : band[1], today);
+            String label = band[0] == 0 ? "Under " + (band[1] + 1) : band[1] < 0 ? band[0] + "+" : band[0] + "-" + band[1];
+            byAgeBand.put(label, n);
+            banded += n;
+        }
+        byAgeBand.put("No DOB", total - banded); // missing, unparseable or future dates
+
+        return new EnrollmentSummary(total, byCourse, bySemester, byGender, byAgeBand, byCourseSemester);
+    }
+
+    /**
+     * Recounts everything from the students table, e.g. after another process changed it.
+     * The scan runs without blocking this process's writers: the stats gate is only held until the
+     * scan's snapshot is taken, and in WAL mode (dbInit) the open cursor does not hold commits off.
+     * Their deltas during the scan are replayed onto the new counts before they replace the old ones.
+     */
+    public static void rebuildEnrollmentStats() throws Exception {
+        synchronized (enrollmentRebuild) {
+            EnrollmentStats fresh = new EnrollmentStats();
+            Lock gate = enrollment.writeGate().writeLock();
+            try (Connection conn = getConnection();
+                 PreparedStatement ps = prepare(conn, "SELECT course_id, semester_id, gender, dob_day FROM students;", READ_TIMEOUT_SEC)) {
+                ResultSet rs;
+                boolean more;
+                // The first step pins the snapshot the scan reads. No writer is between its SQL and its
+                // delta while the gate is held, so exactly the deltas logged from here on are missing from it.
+                gate.lock();
+                try {
+                    rs = ps.executeQuery();
+                    more = rs.next();
+                    enrollment.startRebuild();
+                } finally {
+                    gate.unlock();
+                }
+                try (ResultSet scan = rs) {
+                    for (; more; more = scan.next()) fresh.add(enrollmentKey(scan));
+                }
+                enrollment.replaceWith(fresh);
+            } catch (SQLException ex) {
+                enrollment.abortRebuild();
+                throw new Exception("Enrollment stats rebuild failed: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    // Current stats key of a student, or null if there is no such row
+    private static EnrollmentStats.Key enrollmentKey(Connection conn, String id) throws SQLException {
+        try (PreparedStatement ps = prepare(conn, "SELECT course_id, semester_id, gender, dob_day FROM students WHERE id = ?;", WRITE_TIMEOUT_SEC)) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? enrollmentKey(rs) : null;
+            }
+        }
+    }
+
+    private static EnrollmentStats.Key enrollmentKey(ResultSet rs) throws SQLException {
+        int day = rs.getInt(4);
+        Integer dobDay = rs.wasNull() ? null : day;
+        return new EnrollmentStats.Key(rs.getInt(1), rs.getInt(2), rs.getString(3), dobDay);
+    }
+
+    private static EnrollmentStats.Key enrollmentKey(Integer courseId, Integer semesterId, String gender, Integer dobDay) {
+        return new EnrollmentStats.Key(orZero(courseId), orZero(semesterId), gender, dobDay);
+    }
+
+    // Stats key ids: 0 = none
+    private static int orZero(Integer lookupId) {
+        return lookupId == null ? 0 : lookupId;
+    }
+
+    private static String labelOrNone(String label) {
+        return label == null ? "(none)" : label;
+    }
+
+    // ------------------------- AUTOCOMPLETE -------------------------
+
+    /**
+     * Top-K student names starting with prefix. Answered from memory; returns an empty
+     * list (and starts loading) until the index is ready, so it never blocks the EDT.
+     */
+    public static List<String> completeStudentNames(String prefix, int limit) {
+        Completions c = completions();
+        if (c == null) return new ArrayList<>();
+        synchronized (completionLock) {
+            return c.names.complete(prefix, limit);
+        }
+    }
+
+    /**
+     * Top-K student ids starting with prefix (same loading rules as completeStudentNames).
+     */
+    public static List<String> completeStudentIds(String prefix, int limit) {
+        Completions c = completions();
+        if (c == null) return new ArrayList<>();
+        synchronized (completionLock) {
+            return c.ids.complete(prefix, limit);
+        }
+    }
+
+    /**
+     * True if a student with this exact id exists. Uses the in-memory index when loaded,
+     * otherwise a primary-key lookup.
+     */
+    public static boolean isStudentIdTaken(String id) throws Exception {
+        if (id == null || id.trim().isEmpty()) return false;
+        Boolean known = studentIdTakenIfKnown(id);
+        if (known != null) return known;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = prepare(conn, "SELECT 1 FROM students WHERE id = ?;", READ_TIMEOUT_SEC)) {
+            ps.setString(1, id.trim());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException ex) {
+            throw new Exception("Id check failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Keystroke-time variant of isStudentIdTaken: answered from memory only, null ("unknown")
+     * while the index is still loading.
+     */
+    public static Boolean studentIdTakenIfKnown(String id) {
+        if (id == null || id.trim().isEmpty()) return false;
+        Completions c = completions();
+        if (c == null) return null;
+        synchronized (completionLock) {
+            return c.ids.contains(id);
+        }
+    }
+
+    // The loaded indexes, or null after starting the one-time background load
+    private static Completions completions() {
+        Completions c = completions;
+        if (c != null) return c;
+        synchronized (completionLock) {
+            if (completions == null && completionReplay == null) {
+                completionReplay = new ArrayList<>();
+                Thread t = new Thread(Database::loadCompletions, "completion-load");
+                t.setDaemon(true);
+                t.start();
+            }
+            return completions;
+        }
+    }
+
+    // Applies an index edit now, or queues it for the load that is running (dropped if none ran yet)
+    private static void updateCompletions(Consumer<Completions> change) {
+        synchronized (completionLock) {
+            Completions c = completions;
+            if (c != null) change.accept(c);
+            else if (completionReplay != null) completionReplay.add(change);
+        }
+    }
+
+    private static void loadCompletions() {
+        List<String[]> names = new ArrayList<>();
+        List<String[]> ids = new ArrayList<>();
+        Completions fresh = new Completions();
+        try (Connection conn = getConnection();
+             Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT id, name FROM students;")) {
+            while (rs.next()) {
+                String id = rs.getString("id");
+                names.add(new String[] { rs.getString("name"), id });
+                ids.add(new String[] { id, id });
+            }
+            fresh.names.load(names);
+            fresh.ids.load(ids);
+        } catch (SQLException ex) {
+            System.err.println("Autocomplete load failed: " + ex.getMessage());
+            synchronized (completionLock) {
+                completionReplay = null; // the next lookup tries again
+            }
+            return;
+        }
+        synchronized (completionLock) {
+            for (Consumer<Completions> change : completionReplay) change.accept(fresh);
+            completionReplay = null;
+            completions = fresh;
+        }
+    }
+
+    private static String currentName(Connection conn, String id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT name FROM students WHERE id = ?;")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("name") : null;
+            }
         }
     }
 
     // ------------------------- EDIT REQUESTS WORKFLOW -------------------------
 
     /**
-     * Create a new edit request (called by students)
+     * Create a new edit request (called by students). At most one request per student and field
+     * is OPEN: a new one marks the open one SUPERSEDED in the same transaction, so admins only
+     * review the latest value. With -Dstudent.requests.supersede=false it is refused instead.
+     * Each student may file only so many (RequestLimiter.Rejected, thrown before any database work);
+     * a request that is then refused or fails gives its token back.
+     * Returns true if an earlier request was superseded.
      */
-    public static void createEditRequest(String studentId, String field, String newValue, String message) throws Exception {
+    public static boolean createEditRequest(String studentId, String field, String newValue, String message) throws Exception {
         if (studentId == null || studentId.trim().isEmpty()) throw new Exception("Student ID required.");
         if (field == null || field.trim().isEmpty()) throw new Exception("Field required.");
         // normalize field to allowed column
         String column = normalizeField(field);
         if (column == null) throw new Exception("Field not allowed: " + field);
+        requestLimiter.take(studentId);
+        boolean filed = false;
 
+        String supersede = "UPDATE edit_requests SET status = 'SUPERSEDED', handled_at = datetime('now'), handled_reason = ? "
+                + "WHERE student_id = ? AND field = ? AND status = 'OPEN';";
         String sql = "INSERT INTO edit_requests (student_id, field, new_value, message, status, created_at) VALUES (?, ?, ?, ?, 'OPEN', datetime('now'));";
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, studentId);
-            ps.setString(2, column);
-            ps.setString(3, newValue);
-            ps.setString(4, message);
-            ps.executeUpdate();
+        int superseded = 0;
+        try (Connection conn = getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            beginWrite(conn);
+            try (PreparedStatement pu = prepare(conn, supersede, WRITE_TIMEOUT_SEC);
+                 PreparedStatement ps = prepare(conn, sql, WRITE_TIMEOUT_SEC)) {
+                if (SUPERSEDE_REQUESTS) {
+                    pu.setString(1, SUPERSEDED_REASON);
+                    pu.setString(2, studentId);
+                    pu.setString(3, column);
+                    superseded = pu.executeUpdate();
+                }
+                ps.setString(1, studentId);
+                ps.setString(2, column);
+                ps.setString(3, newValue);
+                ps.setString(4, message);
+                ps.executeUpdate();
+                conn.commit();
+                filed = true;
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                if (ex.getMessage() != null && ex.getMessage().contains("UNIQUE constraint failed")) {
+                    throw new Exception("There is already an open request for " + column + "; wait until it has been reviewed.");
+                }
+                throw ex;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
         } catch (SQLException ex) {
             throw new Exception("Failed to create edit request: " + ex.getMessage(), ex);
+        } finally {
+            if (!filed) requestLimiter.refund(studentId); // refused or failed: not counted against the quota
         }
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, studentId);
+        return superseded > 0;
+    }
+
+    /**
+     * All edit requests, newest first.
+     */
+    public static List<EditRequest> fetchAllEditRequests(CancelToken token) throws Exception {
+        List<EditRequest> out = new ArrayList<>();
+        streamEditRequests(out::add, token);
+        return out;
     }
 
     /**
-     * Fetch all edit requests into a DefaultTableModel (for admin UI)
+     * Streams edit requests (newest first) to out as they are read.
      */
-    public static void fetchAllEditRequests(DefaultTableModel model) throws Exception {
+    public static void streamEditRequests(Consumer<EditRequest> out, CancelToken token) throws Exception {
         String sql = "SELECT id, student_id, field, new_value, message, status, created_at, handled_by, handled_at, handled_reason FROM edit_requests ORDER BY created_at DESC;";
-        model.setRowCount(0);
-        model.setColumnIdentifiers(new Object[] {"ID","Student ID","Field","New Value","Message","Status","Created At","Handled By","Handled At","Handled Reason"});
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                model.addRow(new Object[] {
-                    rs.getInt("id"),
-                    rs.getString("student_id"),
-                    rs.getString("field"),
-                    rs.getString("new_value"),
-                    rs.getString("message"),
-                    rs.getString("status"),
-                    rs.getString("created_at"),
-                    rs.getString("handled_by"),
-                    rs.getString("handled_at"),
-                    rs.getString("handled_reason")
-                });
+             PreparedStatement ps = prepare(conn, sql, READ_TIMEOUT_SEC)) {
+            token.attach(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (token.isCancelled()) throw new CancelledException();
+                    out.accept(new EditRequest(
+                        rs.getInt("id"),
+                        rs.getString("student_id"),
+                        rs.getString("field"),
+                        rs.getString("new_value"),
+                        rs.getString("message"),
+                        rs.getString("status"),
+                        rs.getString("created_at"),
+                        rs.getString("handled_by"),
+                        rs.getString("handled_at"),
+                        rs.getString("handled_reason")));
+                }
+            } finally {
+                token.detach();
             }
         } catch (SQLException ex) {
+            if (token.isCancelled()) throw new CancelledException();
             throw new Exception("Failed to fetch requests: " + ex.getMessage(), ex);
         }
     }
 
     /**
-     * Approve a request: apply change to students table and mark request APPROVED
+     * Approve a request: mark it APPROVED (only if still OPEN) and apply the change to the students
+     * table, in one transaction
      */
     public static void approveEditRequest(int requestId, String adminUsername) throws Exception {
         if (adminUsername == null || adminUsername.trim().isEmpty()) throw new Exception("Admin required.");
         String select = "SELECT student_id, field, new_value FROM edit_requests WHERE id = ? AND status = 'OPEN';";
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(select)) {
-            ps.setInt(1, requestId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) throw new Exception("Request not found or not open.");
-                String studentId = rs.getString("student_id");
-                String field = rs.getString("field");
-                String newValue = rs.getString("new_value");
-
-                // validate field is allowed
-                if (normalizeField(field) == null) throw new Exception("Invalid field in request.");
-
-                // Apply update to students table
-                if ("age".equalsIgnoreCase(field)) {
-                    String upd = "UPDATE students SET age = ? WHERE id = ?;";
-                    try (PreparedStatement u = conn.prepareStatement(upd)) {
-                        try {
-                            int age = Integer.parseInt(newValue);
-                            u.setInt(1, age);
-                        } catch (NumberFormatException nfe) {
-                            throw new Exception("Invalid age value: " + newValue);
-                        }
-                        u.setString(2, studentId);
-                        u.executeUpdate();
-                    }
-                } else if ("dob".equalsIgnoreCase(field)) {
-                    String upd = "UPDATE students SET dob = ?, age = ? WHERE id = ?;";
-                    try (PreparedStatement u = conn.prepareStatement(upd)) {
-                        u.setString(1, newValue);
-                        Integer age = computeAgeFromDob(newValue);
-                        if (age == null) u.setNull(2, Types.INTEGER); else u.setInt(2, age);
-                        u.setString(3, studentId);
-                        u.executeUpdate();
+        String studentId;
+        Set<String> appliedField;
+        Lock statsGate = enrollment.writeGate().readLock();
+        statsGate.lock();
+        try (Connection conn = getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            beginWrite(conn); // field write, new course/semester label and status change commit together
+            try (PreparedStatement ps = prepare(conn, select, WRITE_TIMEOUT_SEC)) {
+                ps.setInt(1, requestId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new Exception("Request not found or not open.");
+                    studentId = rs.getString("student_id");
+                    String field = rs.getString("field");
+                    String newValue = rs.getString("new_value");
+
+                    // validate field is allowed
+                    if (normalizeField(field) == null) throw new Exception("Invalid field in request.");
+                    appliedField = Collections.singleton(normalizeField(field));
+                    String oldName = "name".equals(field) ? currentName(conn, studentId) : null;
+                    EnrollmentStats.Key oldKey = enrollmentKey(conn, studentId);
+                    EnrollmentStats.Key newKey = oldKey; // with the written value in place, below
+
+                    // Claim the request first: only the approval that still finds it OPEN goes on to the
+                    // field write; one that lost to a concurrent approve/reject rolls back here
+                    String mark = "UPDATE edit_requests SET status = 'APPROVED', handled_by = ?, handled_at = datetime('now') "
+                            + "WHERE id = ? AND status = 'OPEN';";
+                    try (PreparedStatement m = prepare(conn, mark, WRITE_TIMEOUT_SEC)) {
+                        m.setString(1, adminUsername);
+                        m.setInt(2, requestId);
+                        if (m.executeUpdate() == 0) throw new Exception("Request not found or not open.");
                     }
-                } else {
-                    String upd = "UPDATE students SET " + field + " = ? WHERE id = ?;";
-                    try (PreparedStatement u = conn.prepareStatement(upd)) {
-                        u.setString(1, newValue);
-                        u.setString(2, studentId);
-                        u.executeUpdate();
+
+                    // Apply update to students table
+                    if ("age".equalsIgnoreCase(field)) {
+                        String upd = "UPDATE students SET age = ?, version = version + 1 WHERE id = ?;";
+                        try (PreparedStatement u = prepare(conn, upd, WRITE_TIMEOUT_SEC)) {
+                            try {
+                                int age = Integer.parseInt(newValue);
+                                u.setInt(1, age);
+                            } catch (NumberFormatException nfe) {
+                                throw new Exception("Invalid age value: " + newValue);
+                            }
+                            u.setString(2, studentId);
+                            u.executeUpdate();
+                        }
+                    } else if ("dob".equalsIgnoreCase(field)) {
+                        String upd = "UPDATE students SET dob = ?, age = ?, dob_day = ?, version = version + 1 WHERE id = ?;";
+                        try (PreparedStatement u = prepare(conn, upd, WRITE_TIMEOUT_SEC)) {
+                            u.setString(1, newValue);
+                            Integer age = computeAgeFromDob(newValue);
+                            if (age == null) u.setNull(2, Types.INTEGER); else u.setInt(2, age);
+                            Integer day = dobDay(newValue);
+                            setIntOrNull(u, 3, day);
+                            u.setString(4, studentId);
+                            u.executeUpdate();
+                            if (oldKey != null) newKey = new EnrollmentStats.Key(oldKey.courseId, oldKey.semesterId, oldKey.gender, day);
+                        }
+                    } else if ("course".equals(normalizeField(field)) || "semester".equals(normalizeField(field))) {
+                        boolean course = "course".equals(normalizeField(field));
+                        String upd = "UPDATE students SET " + (course ? "course_id" : "semester_id") + " = ?, version = version + 1 WHERE id = ?;";
+                        LookupTable lookup = course ? courses : semesters;
+                        try (PreparedStatement u = prepare(conn, upd, WRITE_TIMEOUT_SEC)) {
+                            Integer labelId = lookup.idFor(conn, newValue);
+                            setIntOrNull(u, 1, labelId);
+                            u.setString(2, studentId);
+                            u.executeUpdate();
+                            if (oldKey != null) {
+                                newKey = new EnrollmentStats.Key(course ? orZero(labelId) : oldKey.courseId,
+                                        course ? oldKey.semesterId : orZero(labelId), oldKey.gender, oldKey.dobDay);
+                            }
+                        }
+                    } else {
+                        String upd = "UPDATE students SET " + field + " = ?, version = version + 1 WHERE id = ?;";
+                        try (PreparedStatement u = prepare(conn, upd, WRITE_TIMEOUT_SEC)) {
+                            u.setString(1, newValue);
+                            u.setString(2, studentId);
+                            u.executeUpdate();
+                        }
+                        if ("gender".equals(field) && oldKey != null) {
+                            newKey = new EnrollmentStats.Key(oldKey.courseId, oldKey.semesterId, newValue, oldKey.dobDay);
+                        }
                     }
-                }
 
-                // mark request approved
-                String mark = "UPDATE edit_requests SET status = 'APPROVED', handled_by = ?, handled_at = datetime('now') WHERE id = ?;";
-                try (PreparedStatement m = conn.prepareStatement(mark)) {
-                    m.setString(1, adminUsername);
-                    m.setInt(2, requestId);
-                    m.executeUpdate();
+                    conn.commit();
+                    enrollment.remove(oldKey);
+                    enrollment.add(newKey);
+                    searchCache.invalidate();
+                    if ("name".equals(field) || "father_name".equals(field)) refreshNameIndex(conn, studentId);
+                    if ("name".equals(field)) {
+                        updateCompletions(c -> {
+                            c.names.remove(oldName, studentId);
+                            c.names.add(newValue, studentId);
+                        });
+                    }
                 }
+            } catch (Exception ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(auto);
             }
         } catch (SQLException ex) {
             throw new Exception("Failed to approve request: " + ex.getMessage(), ex);
+        } finally {
+            statsGate.unlock();
         }
+        fireChange(StudentChange.Kind.STUDENT_UPDATED, studentId, appliedField);
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, studentId);
     }
 
     /**
@@ -573,21 +2147,36 @@ public class Database {
      */
     public static void rejectEditRequest(int requestId, String adminUsername, String reason) throws Exception {
         if (adminUsername == null || adminUsername.trim().isEmpty()) throw new Exception("Admin required.");
-        String sql = "UPDATE edit_requests SET status = 'REJECTED', handled_by = ?, handled_at = datetime('now'), handled_reason = ? WHERE id = ? AND status = 'OPEN';";
+        String sql = "UPDATE edit_requests SET status = 'REJECTED', handled_by = ?, handled_at = datetime('now'), handled_reason = ? "
+                + "WHERE id = ? AND status = 'OPEN' RETURNING student_id;";
+        String studentId;
         try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = prepare(conn, sql, WRITE_TIMEOUT_SEC)) {
             ps.setString(1, adminUsername);
             ps.setString(2, reason);
             ps.setInt(3, requestId);
-            int updated = ps.executeUpdate();
-            if (updated == 0) throw new Exception("Request not found or not open.");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new Exception("Request not found or not open.");
+                studentId = rs.getString(1);
+            }
         } catch (SQLException ex) {
             throw new Exception("Failed to reject request: " + ex.getMessage(), ex);
         }
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, studentId);
+    }
+
+    // Re-reads one student's names into the trigram index (after a single-column update)
+    private static void refreshNameIndex(Connection conn, String studentId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT name, father_name FROM students WHERE id = ?;")) {
+            ps.setString(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) indexName(studentId, rs.getString("name"), rs.getString("father_name"));
+            }
+        }
     }
 
     // Helper: allowed fields mapping (returns actual column name or null)
-    private static String normalizeField(String field) {
+    static String normalizeField(String field) {
         if (field == null) return null;
         String f = field.trim().toLowerCase();
         switch (f) {
@@ -606,7 +2195,11 @@ public class Database {
     }
 
     // ------------------------- UTILITIES -------------------------
-    private static String joinCourseSemester(String course, String semester) {
+    private static void setIntOrNull(PreparedStatement ps, int index, Integer id) throws SQLException {
+        if (id == null) ps.setNull(index, Types.INTEGER); else ps.setInt(index, id);
+    }
+
+    static String joinCourseSemester(String course, String semester) {
         if (course == null) course = "";
         if (semester == null) semester = "";
         course = course.trim();
@@ -630,7 +2223,17 @@ public class Database {
         }
     }
 
-    private static Integer computeAgeFromDob(String dobStr) {
+    // yyyy-MM-dd -> days since 1970-01-01 (the indexed dob_day column), null if not a valid date
+    static Integer dobDay(String dobStr) {
+        if (dobStr == null || dobStr.trim().isEmpty()) return null;
+        try {
+            return Math.toIntExact(LocalDate.parse(dobStr.trim(), DOB_FMT).toEpochDay());
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    static Integer computeAgeFromDob(String dobStr) {
         if (dobStr == null) return null;
         String s = dobStr.trim();
         if (s.isEmpty()) return null;
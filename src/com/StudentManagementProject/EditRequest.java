@@ -0,0 +1,42 @@
+package com.StudentManagementProject;
+
+/**
+ * EditRequest.java
+ * A student's request to change one field of their record (see Database.createEditRequest).
+ *
+ * status is OPEN, APPROVED, REJECTED or SUPERSEDED (a newer request for the same field replaced it);
+ * the handled* fields are null while the request is open.
+ * Immutable and free of Swing types, like Student.
+ */
+public final class EditRequest {
+
+    public final int id;
+    public final String studentId;
+    public final String field;
+    public final String newValue;
+    public final String message;
+    public final String status;
+    public final String createdAt;
+    public final String handledBy;
+    public final String handledAt;
+    public final String handledReason;
+
+    public EditRequest(int id, String studentId, String field, String newValue, String message, String status,
+                       String createdAt, String handledBy, String handledAt, String handledReason) {
+        this.id = id;
+        this.studentId = studentId;
+        this.field = field;
+        this.newValue = newValue;
+        this.message = message;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.handledBy = handledBy;
+        this.handledAt = handledAt;
+        this.handledReason = handledReason;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + studentId + " " + field + " (" + status + ")";
+    }
+}
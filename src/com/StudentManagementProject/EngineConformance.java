@@ -0,0 +1,210 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * EngineConformance.java
+ * Runs the same checks against every local storage engine, so "sqlite" and "memory" keep
+ * answering alike (see the engine-conformance target in build.xml).
+ *
+ * Run: java -cp ... com.StudentManagementProject.EngineConformance [engine...]   (default: sqlite memory)
+ *
+ * - Students: insert, duplicate id, enroll with login, conditional update and its conflict,
+ *   no-op update, delete
+ * - Search: plain text, field:value prefix and age syntax, fuzzy names
+ * - Paging: pages of a name-sorted roster add up to the whole list, in order, without repeats
+ * - Auth: wrong and right passwords, session resume and logout, password change
+ * - Edit requests: supersede, approve (applied to the student, not twice), reject with reason
+ *
+ * Every id starts with a per-run prefix, so the sqlite engine can reuse ./student.db in the
+ * working directory. Prints one line per failed check; exits with status 1 if any failed.
+ */
+public final class EngineConformance {
+
+    private final String engine;
+    private final String p; // id prefix of this run
+    private int checks;
+    private int failed;
+
+    private EngineConformance(String engine, String prefix) {
+        this.engine = engine;
+        this.p = prefix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] engines = args.length > 0 ? args : new String[] {"sqlite", "memory"};
+        String prefix = "EC" + Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+        int failed = 0;
+        for (String engine : engines) {
+            EngineConformance run = new EngineConformance(engine, prefix);
+            StudentRepository repo = Repositories.create(engine);
+            repo.initAsync();
+            repo.awaitInit();
+            run.students(repo);
+            run.search(repo);
+            run.paging(repo);
+            run.auth(repo);
+            run.editRequests(repo);
+            System.out.println("[CONFORMANCE] " + engine + ": " + run.checks + " checks, " + run.failed + " failed");
+            failed += run.failed;
+        }
+        if (failed > 0) System.exit(1);
+    }
+
+    // ------------------------- CHECKS -------------------------
+
+    private void students(StudentRepository repo) throws Exception {
+        String a = p + "A";
+        repo.insertStudent(a, "Anita Rao", "Mohan Rao", "2004-05-06", null, "anita@example.com", "9000000001",
+                "Pune", "BCA", "Sem 2", "Female");
+        Student s = repo.findStudent(a);
+        check("insert: found", s != null);
+        check("insert: fields", s != null && "Anita Rao".equals(s.name) && "BCA".equals(s.course) && "Sem 2".equals(s.semester)
+                && "2004-05-06".equals(s.dob) && "Female".equals(s.gender));
+        check("insert: id taken", repo.isStudentIdTaken(a));
+        check("insert: duplicate id refused", fails(() -> repo.insertStudent(a, "Other", "X", "", 20, "", "", "", "BCA", "Sem 1", "Male")));
+
+        Database.EnrollResult e = repo.enrollStudent(p + "B", "Bala Iyer", "K Iyer", "2003-01-02", null, "bala@example.com",
+                "9000000002", "Chennai", "MCA", "Sem 1", "Male");
+        check("enroll: login created", e.userCreated && repo.userExists(p + "B"));
+
+        int v = repo.findStudent(a).version;
+        int v2 = repo.updateStudent(a, "Anita Rao", "Mohan Rao", "9000000009", "2004-05-06", "Female", "anita@example.com",
+                "Pune", "BCA", "Sem 2", null, v);
+        check("update: version bumped", v2 > v);
+        check("update: applied", "9000000009".equals(repo.findStudent(a).phone));
+        Database.ConflictException conflict = null;
+        try {
+            repo.updateStudent(a, "Anita Rao", "Mohan Rao", "9000000010", "2004-05-06", "Female", "anita@example.com",
+                    "Pune", "BCA", "Sem 2", null, v);
+        } catch (Database.ConflictException ex) {
+            conflict = ex;
+        }
+        check("update: stale version conflicts", conflict != null && "9000000009".equals(conflict.current.phone));
+        int v3 = repo.updateStudent(a, "Anita Rao", "Mohan Rao", "9000000009", "2004-05-06", "Female", "anita@example.com",
+                "Pune", "BCA", "Sem 2", null, v2);
+        check("update: no-op keeps version", v3 == v2);
+
+        repo.insertStudent(p + "D", "Gone Soon", "", "", 30, "", "", "", "BCA", "Sem 1", "Male");
+        repo.deleteStudent(p + "D");
+        check("delete: removed", repo.findStudent(p + "D") == null && !repo.isStudentIdTaken(p + "D"));
+    }
+
+    private void search(StudentRepository repo) throws Exception {
+        check("search: plain text", ids(repo, "Anita").contains(p + "A"));
+        check("search: id prefix", ids(repo, "id:" + p + "*").containsAll(List.of(p + "A", p + "B")));
+        check("search: name prefix, any case", ids(repo, "id:" + p + "* name:ANI*").equals(List.of(p + "A")));
+        check("search: course", ids(repo, "id:" + p + "* course:MCA").equals(List.of(p + "B")));
+        int age = repo.findStudent(p + "A").age;
+        check("search: age", ids(repo, "id:" + p + "* age:" + age).contains(p + "A")
+                && !ids(repo, "id:" + p + "* age:" + (age + 5)).contains(p + "A"));
+        check("search: bad syntax refused", fails(() -> repo.streamSearch("age:x", st -> {}, new Database.CancelToken())));
+        List<String> fuzzy = new ArrayList<>();
+        repo.streamFuzzySearch("Anitta Rao", st -> fuzzy.add(st.id), new Database.CancelToken());
+        check("search: fuzzy name", fuzzy.contains(p + "A"));
+    }
+
+    private void paging(StudentRepository repo) throws Exception {
+        for (int i = 0; i < 7; i++) {
+            repo.insertStudent(p + "P" + i, "Pager " + (char) ('G' - i), "", "", 20, "", "", "", "BBA", "Sem 3", "Male");
+        }
+        RosterQuery all = RosterQuery.all().withSearch("id:" + p + "P*");
+        check("paging: count", repo.countStudents(all, new Database.CancelToken()) == 7);
+        List<String> whole = page(repo, all.withLimit(100));
+        List<String> pages = new ArrayList<>();
+        for (int offset = 0; offset < 7; offset += 3) pages.addAll(page(repo, all.withLimit(3).withOffset(offset)));
+        check("paging: pages add up", pages.equals(whole) && whole.size() == 7 && new HashSet<>(pages).size() == 7);
+        check("paging: name order", whole.get(0).equals(p + "P6") && whole.get(6).equals(p + "P0"));
+        check("paging: past the end", page(repo, all.withLimit(3).withOffset(7)).isEmpty());
+    }
+
+    private void auth(StudentRepository repo) throws Exception {
+        String u = p.toLowerCase() + "user";
+        repo.createUser(u, "first-pass", "student", p + "A");
+        check("auth: wrong password", !repo.authenticateUser(u, "nope").ok);
+        Database.AuthResult r = repo.authenticateUser(u, "first-pass");
+        check("auth: right password", r.ok && "student".equals(r.role) && (p + "A").equals(r.studentId) && r.token != null);
+        Database.AuthResult resumed = repo.resumeSession(r.token);
+        check("auth: session resumes", resumed != null && u.equals(resumed.username));
+        repo.logout(r.token);
+        check("auth: logout ends session", repo.resumeSession(r.token) == null);
+        repo.changePassword(u, "first-pass", "second-pass");
+        check("auth: password changed", repo.authenticateUser(u, "second-pass").ok && !repo.authenticateUser(u, "first-pass").ok);
+        check("auth: duplicate user refused", fails(() -> repo.createUser(u, "x", "student", null)));
+    }
+
+    private void editRequests(StudentRepository repo) throws Exception {
+        String b = p + "B";
+        check("requests: first is new", !repo.createEditRequest(b, "phone", "9111111111", "new number"));
+        check("requests: second supersedes", repo.createEditRequest(b, "phone", "9222222222", "typo"));
+        check("requests: unknown field refused", fails(() -> repo.createEditRequest(b, "password", "x", "")));
+        List<EditRequest> mine = requests(repo, b);
+        EditRequest open = null;
+        int superseded = 0;
+        for (EditRequest r : mine) {
+            if ("OPEN".equals(r.status)) open = r;
+            if ("SUPERSEDED".equals(r.status)) superseded++;
+        }
+        check("requests: one open, one superseded", open != null && "9222222222".equals(open.newValue) && superseded == 1);
+        if (open != null) {
+            int id = open.id;
+            repo.approveEditRequest(id, "admin");
+            check("requests: approve applies", "9222222222".equals(repo.findStudent(b).phone));
+            check("requests: approve only once", fails(() -> repo.approveEditRequest(id, "admin")));
+        }
+
+        repo.createEditRequest(b, "address", "Madurai", "moved");
+        int reject = -1;
+        for (EditRequest r : requests(repo, b)) if ("OPEN".equals(r.status) && "address".equals(r.field)) reject = r.id;
+        repo.rejectEditRequest(reject, "admin", "needs proof");
+        boolean rejected = false;
+        for (EditRequest r : requests(repo, b)) {
+            if (r.id == reject) rejected = "REJECTED".equals(r.status) && "needs proof".equals(r.handledReason) && "admin".equals(r.handledBy);
+        }
+        check("requests: reject with reason", rejected && "Chennai".equals(repo.findStudent(b).address));
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private void check(String what, boolean ok) {
+        checks++;
+        if (ok) return;
+        failed++;
+        System.out.println("[CONFORMANCE] " + engine + ": FAILED " + what);
+    }
+
+    private static boolean fails(Action a) {
+        try {
+            a.run();
+            return false;
+        } catch (Exception ex) {
+            return true;
+        }
+    }
+
+    private static List<String> ids(StudentRepository repo, String q) throws Exception {
+        List<String> out = new ArrayList<>();
+        repo.streamSearch(q, s -> out.add(s.id), new Database.CancelToken());
+        return out;
+    }
+
+    private static List<String> page(StudentRepository repo, RosterQuery rq) throws Exception {
+        List<String> out = new ArrayList<>();
+        repo.streamStudentPage(rq, s -> out.add(s.id), new Database.CancelToken());
+        return out;
+    }
+
+    private static List<EditRequest> requests(StudentRepository repo, String studentId) throws Exception {
+        List<EditRequest> out = new ArrayList<>();
+        repo.streamEditRequests(r -> {
+            if (studentId.equals(r.studentId)) out.add(r);
+        }, new Database.CancelToken());
+        return out;
+    }
+}
@@ -0,0 +1,161 @@
+package com.StudentManagementProject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * EnrollmentStats.java
+ * In-memory headcounts, kept current by Database's write paths so the dashboard never scans students.
+ *
+ * - Counts per (course_id, semester_id) pair and per gender; course and semester totals are sums
+ *   over the (small) pair map
+ * - Ages: a Fenwick tree over dob_day, so "how many were born between X and Y" is O(log n); an
+ *   age band is such a range relative to today, so the bands never go stale
+ * - Rebuilds count into a detached instance and swap its counts in (replaceWith); deltas that
+ *   arrive during the scan are logged and replayed onto it first
+ * - Writers hold the shared side of writeGate() from SQL statement to delta; a rebuild takes the
+ *   exclusive side only while it pins the snapshot it scans and starts the log, so every logged
+ *   delta is one the snapshot does not contain
+ *
+ * Writes made by other processes are not seen until the next rebuild.
+ * Package-private: used by Database only.
+ */
+final class EnrollmentStats {
+
+    // dob_day range covered by the tree: 1900-01-01 .. 2099-12-31; anything else counts as "no DOB"
+    private static final int FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int DAYS = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - FIRST_DAY);
+
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+
+    private Counts counts = new Counts();
+    private List<Object[]> replay; // {Key, delta} received while a rebuild scans; null otherwise
+    private boolean ready;
+
+    // All counts; swapped as a whole by replaceWith
+    private static final class Counts {
+        final Map<Long, Integer> byCourseSemester = new HashMap<>(); // course_id << 32 | semester_id
+        final Map<String, Integer> byGender = new HashMap<>();       // folded gender text
+        final Map<String, String> genderLabels = new HashMap<>();    // folded -> first spelling seen
+        final int[] tree = new int[DAYS + 1];                        // Fenwick, 1-based
+        int total;
+    }
+
+    /** One student's contribution. */
+    static final class Key {
+        final int courseId;     // 0 = none
+        final int semesterId;   // 0 = none
+        final String gender;
+        final Integer dobDay;
+
+        Key(int courseId, int semesterId, String gender, Integer dobDay) {
+            this.courseId = courseId;
+            this.semesterId = semesterId;
+            this.gender = gender;
+            this.dobDay = dobDay;
+        }
+    }
+
+    ReadWriteLock writeGate() {
+        return gate;
+    }
+
+    synchronized void add(Key k) {
+        delta(k, 1);
+    }
+
+    synchronized void remove(Key k) {
+        delta(k, -1);
+    }
+
+    /** Starts logging deltas for a rebuild; caller holds writeGate().writeLock() while it pins its snapshot. */
+    synchronized void startRebuild() {
+        replay = new ArrayList<>();
+    }
+
+    /** Takes over fresh's counts (fresh holds the scanned snapshot) after replaying the logged deltas onto them. */
+    synchronized void replaceWith(EnrollmentStats fresh) {
+        Counts next;
+        synchronized (fresh) {
+            next = fresh.counts;
+        }
+        if (replay != null) for (Object[] d : replay) apply(next, (Key) d[0], (Integer) d[1]);
+        replay = null;
+        counts = next;
+        ready = true;
+    }
+
+    /** Stops logging after a failed rebuild; the current counts stay. */
+    synchronized void abortRebuild() {
+        replay = null;
+    }
+
+    synchronized boolean isReady() {
+        return ready;
+    }
+
+    synchronized int total() {
+        return counts.total;
+    }
+
+    /** Copy of the (course_id << 32 | semester_id) -> count map. */
+    synchronized Map<Long, Integer> courseSemesterCounts() {
+        return new HashMap<>(counts.byCourseSemester);
+    }
+
+    /** Gender (as first spelled) -> count. */
+    synchronized Map<String, Integer> genderCounts() {
+        Map<String, Integer> out = new HashMap<>();
+        for (Map.Entry<String, Integer> e : counts.byGender.entrySet()) out.put(counts.genderLabels.get(e.getKey()), e.getValue());
+        return out;
+    }
+
+    /** Students whose age today is between lo and hi (inclusive; hi null = no upper bound). */
+    synchronized int countAged(int lo, Integer hi, LocalDate today) {
+        int last = (int) today.minusYears(lo).toEpochDay();                                   // born on or before
+        int first = hi == null ? FIRST_DAY : (int) today.minusYears(hi + 1L).toEpochDay() + 1; // born after
+        return rangeSum(first, last);
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private void delta(Key k, int delta) {
+        if (k == null) return;
+        apply(counts, k, delta);
+        if (replay != null) replay.add(new Object[] {k, delta});
+    }
+
+    private static void apply(Counts c, Key k, int delta) {
+        c.total += delta;
+        long pair = ((long) k.courseId << 32) | (k.semesterId & 0xffffffffL);
+        c.byCourseSemester.merge(pair, delta, (a, b) -> a + b == 0 ? null : a + b);
+
+        String g = k.gender == null || k.gender.trim().isEmpty() ? "" : k.gender.trim();
+        String folded = g.toLowerCase();
+        c.genderLabels.putIfAbsent(folded, g.isEmpty() ? "Unspecified" : g);
+        c.byGender.merge(folded, delta, (a, b) -> a + b == 0 ? null : a + b);
+
+        // dates outside the tree only count towards total (the dashboard's "No DOB" is total minus the bands)
+        if (k.dobDay != null && k.dobDay >= FIRST_DAY && k.dobDay < FIRST_DAY + DAYS) {
+            for (int i = k.dobDay - FIRST_DAY + 1; i <= DAYS; i += i & -i) c.tree[i] += delta;
+        }
+    }
+
+    private int rangeSum(int firstDay, int lastDay) {
+        int a = Math.max(firstDay, FIRST_DAY) - FIRST_DAY;      // 0-based inclusive
+        int b = Math.min(lastDay, FIRST_DAY + DAYS - 1) - FIRST_DAY;
+        if (a > b) return 0;
+        return prefix(b + 1) - prefix(a);
+    }
+
+    private int prefix(int n) { // sum of the first n days
+        int s = 0;
+        for (int i = n; i > 0; i -= i & -i) s += counts.tree[i];
+        return s;
+    }
+}
@@ -0,0 +1,31 @@
+package com.StudentManagementProject;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * EnrollmentSummary.java
+ * Snapshot of headcounts for the dashboard (see Database.enrollmentSummary()).
+ *
+ * All maps are read-only and ordered for display: courses, semesters and genders by label,
+ * age bands youngest first. Missing course/semester/DOB values appear as "(none)" / "No DOB".
+ */
+public final class EnrollmentSummary {
+
+    public final int total;
+    public final Map<String, Integer> byCourse;
+    public final Map<String, Integer> bySemester;
+    public final Map<String, Integer> byGender;
+    public final Map<String, Integer> byAgeBand;
+    public final Map<String, Map<String, Integer>> byCourseSemester; // course -> semester -> count
+
+    EnrollmentSummary(int total, Map<String, Integer> byCourse, Map<String, Integer> bySemester, Map<String, Integer> byGender,
+                      Map<String, Integer> byAgeBand, Map<String, Map<String, Integer>> byCourseSemester) {
+        this.total = total;
+        this.byCourse = Collections.unmodifiableMap(byCourse);
+        this.bySemester = Collections.unmodifiableMap(bySemester);
+        this.byGender = Collections.unmodifiableMap(byGender);
+        this.byAgeBand = Collections.unmodifiableMap(byAgeBand);
+        this.byCourseSemester = Collections.unmodifiableMap(byCourseSemester);
+    }
+}
@@ -0,0 +1,221 @@
+package com.StudentManagementProject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Json.java
+ * Just enough JSON for ApiServer, without a library on the classpath.
+ *
+ * - Writer appends straight into one StringBuilder; commas are inserted from the previous
+ *   character, so there is no nesting stack to keep
+ * - parseObject() reads one flat object (string, number, true/false/null values), which is all
+ *   the API's request bodies use; anything else is an IllegalArgumentException
+ *
+ * Package-private: used by ApiServer and ApiLoadTest.
+ */
+final class Json {
+
+    private Json() {}
+
+    static final class Writer {
+        private final StringBuilder sb = new StringBuilder(256);
+
+        Writer beginObject() {
+            comma();
+            sb.append('{');
+            return this;
+        }
+
+        Writer endObject() {
+            sb.append('}');
+            return this;
+        }
+
+        Writer beginArray() {
+            comma();
+            sb.append('[');
+            return this;
+        }
+
+        Writer endArray() {
+            sb.append(']');
+            return this;
+        }
+
+        Writer name(String name) {
+            comma();
+            quote(sb, name);
+            sb.append(':');
+            return this;
+        }
+
+        Writer value(String v) {
+            comma();
+            if (v == null) sb.append("null");
+            else quote(sb, v);
+            return this;
+        }
+
+        Writer value(long v) {
+            comma();
+            sb.append(v);
+            return this;
+        }
+
+        Writer value(boolean v) {
+            comma();
+            sb.append(v);
+            return this;
+        }
+
+        Writer field(String name, String v) {
+            return name(name).value(v);
+        }
+
+        Writer field(String name, long v) {
+            return name(name).value(v);
+        }
+
+        Writer field(String name, boolean v) {
+            return name(name).value(v);
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+
+        private void comma() {
+            if (sb.length() == 0) return;
+            char last = sb.charAt(sb.length() - 1);
+            if (last != '{' && last != '[' && last != ':') sb.append(',');
+        }
+    }
+
+    static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    // ------------------------- PARSING -------------------------
+
+    /** Parses {"name": value, ...}; values are String, Long, Double, Boolean or null. */
+    static Map<String, Object> parseObject(String text) {
+        Parser p = new Parser(text == null ? "" : text);
+        Map<String, Object> out = new LinkedHashMap<>();
+        p.expect('{');
+        if (!p.tryConsume('}')) {
+            do {
+                String key = p.string();
+                p.expect(':');
+                out.put(key, p.scalar());
+            } while (p.tryConsume(','));
+            p.expect('}');
+        }
+        p.skipSpace();
+        if (p.pos != p.s.length()) throw p.error("trailing characters");
+        return out;
+    }
+
+    private static final class Parser {
+        final String s;
+        int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        boolean tryConsume(char c) {
+            skipSpace();
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!tryConsume(c)) throw error("expected '" + c + "'");
+        }
+
+        Object scalar() {
+            skipSpace();
+            if (pos >= s.length()) throw error("value expected");
+            char c = s.charAt(pos);
+            if (c == '"') return string();
+            if (s.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", pos)) { pos += 4; return null; }
+            if (c == '-' || (c >= '0' && c <= '9')) return number();
+            throw error(c == '{' || c == '[' ? "nested values are not supported" : "unexpected '" + c + "'");
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= s.length()) throw error("unterminated string");
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) throw error("unterminated string");
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw error("bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: throw error("bad escape");
+                }
+            }
+        }
+
+        Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            String n = s.substring(start, pos);
+            try {
+                if (n.indexOf('.') < 0 && n.indexOf('e') < 0 && n.indexOf('E') < 0) return Long.parseLong(n);
+                return Double.parseDouble(n);
+            } catch (NumberFormatException ex) {
+                throw error("bad number");
+            }
+        }
+
+        IllegalArgumentException error(String what) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + what);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.StudentManagementProject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoginThrottle.java
+ * Throttles password checks before they reach the database and the password hasher.
+ *
+ * - Per username: the first FREE_FAILURES failures are free; each one after that blocks the
+ *   name for an exponentially growing delay (1 s, 2 s, 4 s ... up to -Dstudent.login.max.backoff.minutes,
+ *   default 15). The count is forgotten after -Dstudent.login.window.minutes (default 15) without
+ *   a failure, and cleared by a successful check. Unknown usernames are counted the same way.
+ * - Global: at most -Dstudent.login.max.per.sec (default 200) checks per second, as a sliding
+ *   window (this second's count plus the previous second's, weighted by how much of it still
+ *   overlaps), kept lock-free in one immutable Window swapped by CAS
+ * - Per-username counters live in STRIPES hash maps, each behind its own lock, so concurrent
+ *   logins for different names rarely contend; stale entries are swept when a stripe grows
+ * - A throttled check throws Rejected (with the wait) without touching the database
+ * - Counters for metrics: attempts, failures, lockouts, rejections per cause (stats())
+ *
+ * Package-private: held by the storage engines (Database, MemoryRepository).
+ */
+final class LoginThrottle {
+
+    /** A check refused by the throttle; retryAfterMillis is how long until it would be allowed. */
+    static final class Rejected extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final long retryAfterMillis;
+
+        Rejected(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    private static final int STRIPES = 64; // power of two
+    private static final int SWEEP_AT = 256; // entries per stripe
+    private static final int FREE_FAILURES = 5;
+    private static final long BASE_BACKOFF_NS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NS = TimeUnit.MINUTES.toNanos(Long.getLong("student.login.max.backoff.minutes", 15));
+    private static final long WINDOW_NS = TimeUnit.MINUTES.toNanos(Long.getLong("student.login.window.minutes", 15));
+    private static final int GLOBAL_PER_SEC = Integer.getInteger("student.login.max.per.sec", 200);
+    private static final long SECOND_NS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Failures of one username; guarded by its stripe's lock. */
+    private static final class Failures {
+        int count;
+        long lastNs;
+        long blockedUntilNs;
+    }
+
+    /** Global sliding window: counts for the current and the previous second. Immutable. */
+    private static final class Window {
+        final long startNs;
+        final int previous, current;
+
+        Window(long startNs, int previous, int current) {
+            this.startNs = startNs;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        Window at(long now) {
+            long elapsed = now - startNs;
+            if (elapsed < SECOND_NS) return this;
+            if (elapsed < 2 * SECOND_NS) return new Window(startNs + SECOND_NS, current, 0);
+            return new Window(now, 0, 0);
+        }
+
+        double estimate(long now) {
+            double overlap = 1.0 - (double) (now - startNs) / SECOND_NS;
+            return previous * overlap + current;
+        }
+    }
+
+    /** One stripe of the per-name failure records; the stripe is also their lock. */
+    private static final class Stripe {
+        final Map<String, Failures> failures = new HashMap<>();
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(System.nanoTime(), 0, 0));
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+    private final LongAdder rejectedAccount = new LongAdder();
+    private final LongAdder rejectedGlobal = new LongAdder();
+
+    LoginThrottle() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    /**
+     * Call before checking a password for username; throws Rejected if the name is in backoff or
+     * the global rate is used up.
+     */
+    void check(String username) throws Rejected {
+        String key = key(username);
+        int s = stripe(key);
+        long now = System.nanoTime();
+        long wait = 0;
+        synchronized (stripes[s]) {
+            Failures f = stripes[s].failures.get(key);
+            if (f != null && f.blockedUntilNs > now) wait = f.blockedUntilNs - now;
+        }
+        if (wait > 0) {
+            rejectedAccount.increment();
+            throw new Rejected("Too many failed logins for this account; try again in " + seconds(wait) + " s.", millis(wait));
+        }
+        if (!tryAcquireGlobal(now)) {
+            rejectedGlobal.increment();
+            throw new Rejected("Too many login attempts right now; try again in a moment.", 1000);
+        }
+        attempts.increment();
+    }
+
+    /** Call with the outcome of a check that passed check(username). */
+    void record(String username, boolean success) {
+        String key = key(username);
+        int s = stripe(key);
+        long now = System.nanoTime();
+        synchronized (stripes[s]) {
+            Map<String, Failures> m = stripes[s].failures;
+            if (success) {
+                m.remove(key);
+                return;
+            }
+            failures.increment();
+            Failures f = m.get(key);
+            if (f == null || now - f.lastNs > WINDOW_NS) {
+                if (f == null && m.size() >= SWEEP_AT) sweep(m, now);
+                f = new Failures();
+                m.put(key, f);
+            }
+            f.count++;
+            f.lastNs = now;
+            int over = f.count - FREE_FAILURES;
+            if (over > 0) {
+                long backoff = over > 30 ? MAX_BACKOFF_NS : Math.min(MAX_BACKOFF_NS, BASE_BACKOFF_NS << (over - 1));
+                f.blockedUntilNs = now + backoff;
+                lockouts.increment();
+            }
+        }
+    }
+
+    /** Usernames with failures on record. */
+    int tracked() {
+        int n = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (stripes[i]) {
+                n += stripes[i].failures.size();
+            }
+        }
+        return n;
+    }
+
+    String stats() {
+        return String.format(Locale.ROOT, "attempts=%d failures=%d lockouts=%d rejectedAccount=%d rejectedGlobal=%d tracked=%d",
+                attempts.sum(), failures.sum(), lockouts.sum(), rejectedAccount.sum(), rejectedGlobal.sum(), tracked());
+    }
+
+    // ------------------------- INTERNALS -------------------------
+
+    private boolean tryAcquireGlobal(long now) {
+        while (true) {
+            Window w = window.get();
+            Window rolled = w.at(now);
+            if (rolled.estimate(now) >= GLOBAL_PER_SEC) {
+                if (rolled != w) window.compareAndSet(w, rolled);
+                return false;
+            }
+            if (window.compareAndSet(w, new Window(rolled.startNs, rolled.previous, rolled.current + 1))) return true;
+        }
+    }
+
+    // Drops entries whose window has passed and that are not blocked; caller holds the stripe lock
+    private static void sweep(Map<String, Failures> m, long now) {
+        for (Iterator<Failures> it = m.values().iterator(); it.hasNext(); ) {
+            Failures f = it.next();
+            if (now - f.lastNs > WINDOW_NS && f.blockedUntilNs <= now) it.remove();
+        }
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username;
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + SECOND_NS - 1) / SECOND_NS);
+    }
+
+    private static long millis(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+}
@@ -0,0 +1,120 @@
+package com.StudentManagementProject;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LookupTable.java
+ * In-memory cache over a small (id INTEGER PRIMARY KEY, label TEXT UNIQUE COLLATE NOCASE)
+ * lookup table: courses and semesters.
+ *
+ * - label(): id -> text for reads, so rows carry one shared String per course/semester
+ * - find(): text -> id without creating (filters); idFor(): creates missing labels (writes)
+ * - Labels are never deleted or renamed, so a cache miss just means "ask the database"
+ * - idFor() inserts on the caller's connection, so inside a transaction the new label commits or
+ *   rolls back with the row that uses it; the cache only learns ids read outside a transaction
+ *   (committed), so a rollback never leaves a stale id behind
+ *
+ * Package-private: only Database talks to it.
+ */
+final class LookupTable {
+
+    private final String table;
+    private final Map<Integer, String> labelById = new HashMap<>();
+    private final Map<String, Integer> idByKey = new HashMap<>(); // label folded like NOCASE
+
+    LookupTable(String table) {
+        this.table = table;
+    }
+
+    /** Text for id, or null for a null/unknown id. */
+    synchronized String label(Connection conn, int id) throws SQLException {
+        if (id <= 0) return null;
+        String label = labelById.get(id);
+        if (label != null) return label;
+        if (inTransaction(conn)) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT label FROM " + table + " WHERE id = ?;")) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        }
+        load(conn); // written by another connection/process since we last looked
+        return labelById.get(id);
+    }
+
+    /** Existing id for label (case-insensitive), or null if blank or unknown. */
+    synchronized Integer find(Connection conn, String label) throws SQLException {
+        String text = clean(label);
+        if (text == null) return null;
+        Integer id = idByKey.get(key(text));
+        if (id != null) return id;
+        if (inTransaction(conn)) return select(conn, text);
+        load(conn);
+        return idByKey.get(key(text));
+    }
+
+    /** Id for label, inserting it if needed; null for a blank label. */
+    synchronized Integer idFor(Connection conn, String label) throws SQLException {
+        String text = clean(label);
+        if (text == null) return null;
+        Integer id = find(conn, text);
+        if (id != null) return id;
+        try (PreparedStatement ps = conn.prepareStatement("INSERT OR IGNORE INTO " + table + " (label) VALUES (?);")) {
+            ps.setString(1, text);
+            ps.executeUpdate();
+        }
+        if (inTransaction(conn)) return select(conn, text); // not cached until committed
+        load(conn);
+        return idByKey.get(key(text));
+    }
+
+    synchronized void clear() {
+        labelById.clear();
+        idByKey.clear();
+    }
+
+    // Uncached lookup by label (the column is NOCASE)
+    private Integer select(Connection conn, String text) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM " + table + " WHERE label = ?;")) {
+            ps.setString(1, text);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private static boolean inTransaction(Connection conn) throws SQLException {
+        return !conn.getAutoCommit();
+    }
+
+    private void load(Connection conn) throws SQLException {
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT id, label FROM " + table + ";")) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                String label = rs.getString(2);
+                labelById.put(id, label);
+                idByKey.put(key(label), id);
+            }
+        }
+    }
+
+    private static String clean(String label) {
+        if (label == null) return null;
+        String t = label.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    // ASCII-only folding, same as SQLite's NOCASE
+    private static String key(String label) {
+        StringBuilder sb = new StringBuilder(label.length());
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            sb.append(c >= 'A' && c <= 'Z' ? (char) (c + 32) : c);
+        }
+        return sb.toString();
+    }
+}
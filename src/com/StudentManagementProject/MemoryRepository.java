@@ -0,0 +1,915 @@
+package com.StudentManagementProject;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * MemoryRepository.java
+ * Pure-Java storage engine: everything lives in concurrent in-process indexes, nothing is persisted.
+ *
+ * - Students: skip-list map by id; secondary indexes on name (sorted, for the default page order
+ *   and autocomplete), course, semester, gender (hash sets of ids) and dob_day (sorted, for ages)
+ * - Writers are serialized on one lock; readers take no locks and re-check every candidate
+ *   against the record, so an index entry that is briefly stale never leaks a wrong row
+ * - Search accepts the same text as the SQLite engine (StudentQuery syntax or plain text);
+ *   free terms are substring matches instead of FTS tokens
+ * - Same records, error messages and default admin/admin account as Database; like its partial
+ *   unique index, openRequests keeps one OPEN edit request per student and field
+ *
+ * Package-private: obtain it through Repositories.
+ */
+final class MemoryRepository implements StudentRepository {
+
+    private static final DateTimeFormatter TIMESTAMP_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** One student as stored (keeps dob_day and the raw age); replaced, never mutated. */
+    private static final class StoredStudent {
+        final String id, name, father, dob, gender, phone, email, address, course, semester;
+        final Integer age;    // stored age, used only when dob does not parse
+        final Integer dobDay;
+        final int version;    // like students.version: 1 when inserted, +1 per replace
+
+        StoredStudent(String id, String name, String father, String dob, String gender, String phone, String email,
+                String address, String course, String semester, Integer age, int version) {
+            this.id = id;
+            this.name = name;
+            this.father = father;
+            this.dob = dob;
+            this.gender = gender;
+            this.phone = phone;
+            this.email = email;
+            this.address = address;
+            this.course = course;
+            this.semester = semester;
+            this.age = age;
+            this.dobDay = Database.dobDay(dob);
+            this.version = version;
+        }
+
+        StoredStudent atVersion(int v) {
+            return new StoredStudent(id, name, father, dob, gender, phone, email, address, course, semester, age, v);
+        }
+    }
+
+    private static final class User {
+        final String username, passwordHash, role, studentId;
+
+        User(String username, String passwordHash, String role, String studentId) {
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.role = role;
+            this.studentId = studentId;
+        }
+    }
+
+    private final Object writeLock = new Object();
+
+    private final ConcurrentSkipListMap<String, StoredStudent> students = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<String> byName = new ConcurrentSkipListSet<>();   // fold(name) + '\0' + id
+    private final ConcurrentSkipListSet<String> byIdKey = new ConcurrentSkipListSet<>();  // fold(id) + '\0' + id
+    private final Map<String, Set<String>> byCourse = new ConcurrentHashMap<>();          // fold(label) -> ids
+    private final Map<String, Set<String>> bySemester = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byGender = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Set<String>> byDobDay = new ConcurrentSkipListMap<>();
+    private final Set<String> undated = ConcurrentHashMap.newKeySet();  // ids without a valid dob (age filters use the stored age)
+    private final TrigramIndex nameIndex = new TrigramIndex();
+    private final Map<String, String> courseLabels = new ConcurrentHashMap<>();   // fold(label) -> first spelling
+    private final Map<String, String> semesterLabels = new ConcurrentHashMap<>();
+
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Sessions sessions = new Sessions(Sessions.DEFAULT_IDLE_MS);
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+    private final RequestLimiter requestLimiter = new RequestLimiter();
+    private final ConcurrentSkipListMap<Integer, EditRequest> requests = new ConcurrentSkipListMap<>();
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private final Map<String, Integer> openRequests = new HashMap<>(); // studentId + '\0' + field -> OPEN request id; guarded by writeLock
+
+    private final List<Consumer<StudentChange>> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile CompletableFuture<Void> init;
+
+    @Override
+    public String engine() {
+        return "memory";
+    }
+
+    // ------------------------- LIFECYCLE -------------------------
+
+    @Override
+    public CompletableFuture<Void> initAsync() {
+        synchronized (writeLock) {
+            if (init == null) {
+                PasswordHasher.calibrateInBackground();
+                try {
+                    if (users.isEmpty()) users.put("admin", new User("admin", PasswordHasher.hash("admin"), "admin", null));
+                    init = CompletableFuture.completedFuture(null);
+                } catch (Exception ex) {
+                    init = CompletableFuture.failedFuture(ex);
+                }
+            }
+            return init;
+        }
+    }
+
+    @Override
+    public void awaitInit() throws Exception {
+        try {
+            initAsync().get();
+        } catch (ExecutionException ex) {
+            throw (Exception) ex.getCause();
+        }
+    }
+
+    // ------------------------- STUDENTS -------------------------
+
+    @Override
+    public void insertStudent(String id, String name, String fatherName, String dob, Integer age, String email, String phone,
+                              String address, String course, String semester, String gender) throws Exception {
+        if (id == null) throw new Exception("Insert failed: NOT NULL constraint failed: students.id");
+        synchronized (writeLock) {
+            if (students.containsKey(id)) throw new Exception("Insert failed: UNIQUE constraint failed: students.id");
+            StoredStudent s = student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age);
+            index(s);
+            students.put(id, s);
+        }
+        fireChange(StudentChange.Kind.STUDENT_ADDED, id);
+    }
+
+    @Override
+    public Database.EnrollResult enrollStudent(String id, String name, String fatherName, String dob, Integer age, String email,
+                                               String phone, String address, String course, String semester, String gender) throws Exception {
+        Student s = new Student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age == null ? 0 : age);
+        return enrollStudents(List.of(s)).get(0);
+    }
+
+    @Override
+    public List<Database.EnrollResult> enrollStudents(List<Student> batch) throws Exception {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Student s : batch) {
+            if (s.id == null || s.id.trim().isEmpty()) throw new Exception("Student ID required.");
+            ids.add(s.id);
+        }
+        List<String> hashes = PasswordHasher.hashAll(ids);
+        List<Database.EnrollResult> out = new ArrayList<>(batch.size());
+        synchronized (writeLock) {
+            // check the whole batch first: all or nothing
+            Set<String> seen = new LinkedHashSet<>();
+            for (String id : ids) {
+                if (students.containsKey(id) || !seen.add(id)) throw new Exception("Insert failed: UNIQUE constraint failed: students.id");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Student s = batch.get(i);
+                Integer age = Database.computeAgeFromDob(s.dob);
+                if (age == null && s.age > 0) age = s.age;
+                boolean created = users.putIfAbsent(s.id, new User(s.id, hashes.get(i), "student", s.id)) == null;
+                StoredStudent st = student(s.id, s.name, s.fatherName, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester, age);
+                index(st);
+                students.put(s.id, st);
+                out.add(new Database.EnrollResult(s.id, s.id, created));
+            }
+        }
+        for (String id : ids) fireChange(StudentChange.Kind.STUDENT_ADDED, id);
+        return out;
+    }
+
+    @Override
+    public void updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                              String email, String address, String course, String semester, Integer age) throws Exception {
+        update(id, name, fatherName, phone, dob, gender, email, address, course, semester, age, null);
+    }
+
+    @Override
+    public int updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                             String email, String address, String course, String semester, Integer age, int expectedVersion) throws Exception {
+        return update(id, name, fatherName, phone, dob, gender, email, address, course, semester, age, expectedVersion);
+    }
+
+    // Same rules as Database.updateStudent: only changed fields are taken over, a no-op stores nothing
+    private int update(String id, String name, String fatherName, String phone, String dob, String gender,
+                       String email, String address, String course, String semester, Integer age, Integer expectedVersion) throws Exception {
+        Set<String> changed;
+        int version;
+        synchronized (writeLock) {
+            StoredStudent old = id == null ? null : students.get(id);
+            if (old == null) throw new Exception("No student with id '" + id + "' found to update.");
+            Student current = view(old, LocalDate.now());
+            Student wanted = new Student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age == null ? 0 : age);
+            changed = StudentDiff.changed(current, wanted);
+            if (!changed.contains("dob") && Database.dobDay(dob) == null && age != null && age != current.age) changed.add("age");
+            if (changed.isEmpty()) return old.version;
+            if (expectedVersion != null && old.version != expectedVersion) {
+                throw new Database.ConflictException("Student " + id + " was changed by someone else (now version "
+                        + old.version + ", you edited version " + expectedVersion + ").", current);
+            }
+            Student next = StudentDiff.with(current, wanted, changed);
+            Integer nextAge = changed.contains("dob") || changed.contains("age") ? age : old.age;
+            replace(old, student(id, next.name, next.fatherName, next.dob, next.gender, next.phone, next.email, next.address,
+                    next.course, next.semester, nextAge));
+            version = old.version + 1;
+        }
+        fireChange(StudentChange.Kind.STUDENT_UPDATED, id, changed);
+        return version;
+    }
+
+    @Override
+    public void deleteStudent(String id) throws Exception {
+        synchronized (writeLock) {
+            StoredStudent old = id == null ? null : students.remove(id);
+            if (old == null) throw new Exception("No student with id '" + id + "' found to delete.");
+            unindex(old);
+        }
+        fireChange(StudentChange.Kind.STUDENT_DELETED, id);
+    }
+
+    @Override
+    public boolean isStudentIdTaken(String id) {
+        return id != null && !id.trim().isEmpty() && students.containsKey(id.trim());
+    }
+
+    @Override
+    public Boolean studentIdTakenIfKnown(String id) {
+        return isStudentIdTaken(id);
+    }
+
+    @Override
+    public Student findStudent(String id) {
+        StoredStudent s = id == null || id.trim().isEmpty() ? null : students.get(id.trim());
+        return s == null ? null : view(s, LocalDate.now());
+    }
+
+    @Override
+    public void streamSearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        Predicate<StoredStudent> match = searchMatcher(q, LocalDate.now());
+        LocalDate today = LocalDate.now();
+        for (String key : byName) {
+            if (token.isCancelled()) throw new Database.CancelledException();
+            StoredStudent s = students.get(idOf(key));
+            if (s != null && key.equals(nameKey(s)) && match.test(s)) out.accept(view(s, today));
+        }
+    }
+
+    @Override
+    public void streamFuzzySearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        LocalDate today = LocalDate.now();
+        for (TrigramIndex.Match m : nameIndex.search(q, 50, 0.3)) {
+            if (token.isCancelled()) throw new Database.CancelledException();
+            StoredStudent s = students.get(m.studentId);
+            if (s != null) out.accept(view(s, today));
+        }
+    }
+
+    @Override
+    public int countStudents(RosterQuery rq, Database.CancelToken token) throws Exception {
+        LocalDate today = LocalDate.now();
+        Predicate<StoredStudent> match = rosterMatcher(rq, today);
+        int n = 0;
+        for (StoredStudent s : candidates(rq, today)) {
+            if (token.isCancelled()) throw new Database.CancelledException();
+            if (match.test(s)) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public void streamStudentPage(RosterQuery rq, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        LocalDate today = LocalDate.now();
+        Predicate<StoredStudent> match = rosterMatcher(rq, today);
+
+        if (rq.sortColumn == StudentTableModel.COL_NAME) {
+            // name order is the index order: walk it and stop once the page is full
+            NavigableSet<String> order = rq.ascending ? byName : byName.descendingSet();
+            int skip = rq.offset, left = rq.limit;
+            for (String key : order) {
+                if (left == 0) return;
+                if (token.isCancelled()) throw new Database.CancelledException();
+                StoredStudent s = students.get(idOf(key));
+                if (s == null || !key.equals(nameKey(s)) || !match.test(s)) continue; // stale key of a renamed student
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                out.accept(view(s, today));
+                left--;
+            }
+            return;
+        }
+
+        List<StoredStudent> hits = new ArrayList<>();
+        for (StoredStudent s : candidates(rq, today)) {
+            if (token.isCancelled()) throw new Database.CancelledException();
+            if (match.test(s)) hits.add(s);
+        }
+        hits.sort(order(rq));
+        int end = (int) Math.min(hits.size(), (long) rq.offset + rq.limit); // offset + limit may overflow an int
+        for (int i = rq.offset; i < end; i++) out.accept(view(hits.get(i), today));
+    }
+
+    @Override
+    public String explainSearch(String q) throws Exception {
+        boolean structured = StudentQuery.isStructured(q);
+        if (structured) StudentQuery.parse(q); // same validation errors as the SQLite engine
+        return "Engine: memory\nSearch: " + (structured ? "field predicates + substring free terms" : "substring match on all text fields")
+                + "\nScan: name index in order (" + byName.size() + " entries)\n";
+    }
+
+    @Override
+    public String explainRosterPage(RosterQuery rq) throws Exception {
+        LocalDate today = LocalDate.now();
+        String source = candidateSource(rq, today);
+        return "  candidates: " + source + "\n"
+                + "  order: " + (rq.sortColumn == StudentTableModel.COL_NAME ? "name index walk, stops after the page" : "collect + sort") + "\n";
+    }
+
+    @Override
+    public List<String> completeStudentNames(String prefix, int limit) {
+        return complete(byName, prefix, limit, s -> s.name);
+    }
+
+    @Override
+    public List<String> completeStudentIds(String prefix, int limit) {
+        return complete(byIdKey, prefix, limit, s -> s.id);
+    }
+
+    @Override
+    public EnrollmentSummary enrollmentSummary() {
+        Map<String, Integer> byCourseCount = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Integer> bySemesterCount = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Integer> byGenderCount = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Map<String, Integer>> pairs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Integer> bands = new LinkedHashMap<>();
+        for (String b : new String[] {"Under 18", "18-20", "21-23", "24-26", "27-29", "30+", "No DOB"}) bands.put(b, 0);
+
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (StoredStudent s : students.values()) {
+            total++;
+            String course = s.course == null ? "(none)" : s.course;
+            String semester = s.semester == null ? "(none)" : s.semester;
+            String gender = s.gender == null || s.gender.trim().isEmpty() ? "Unspecified" : s.gender.trim();
+            byCourseCount.merge(course, 1, Integer::sum);
+            bySemesterCount.merge(semester, 1, Integer::sum);
+            byGenderCount.merge(gender, 1, Integer::sum);
+            pairs.computeIfAbsent(course, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER)).merge(semester, 1, Integer::sum);
+            bands.merge(ageBand(s, today), 1, Integer::sum);
+        }
+        return new EnrollmentSummary(total, byCourseCount, bySemesterCount, byGenderCount, bands, pairs);
+    }
+
+    @Override
+    public void rebuildEnrollmentStats() {
+        // counted on demand from the live map; nothing to rebuild
+    }
+
+    // ------------------------- USERS -------------------------
+
+    @Override
+    public void createUser(String username, String passwordPlain, String role, String studentId) throws Exception {
+        if (username == null) throw new Exception("Failed to create user: NOT NULL constraint failed: users.username");
+        User u = new User(username, PasswordHasher.hash(passwordPlain), role, studentId);
+        if (users.putIfAbsent(username, u) != null) {
+            throw new Exception("Failed to create user: UNIQUE constraint failed: users.username");
+        }
+    }
+
+    @Override
+    public boolean userExists(String username) {
+        return username != null && users.containsKey(username);
+    }
+
+    @Override
+    public Database.AuthResult authenticateUser(String username, String passwordPlain) throws Exception {
+        User u = verifyPassword(username, passwordPlain);
+        if (u == null) return new Database.AuthResult(false, username, null, null);
+        if (PasswordHasher.needsRehash(u.passwordHash)) {
+            // only replaces the hash that was verified, so a password change in between wins
+            PasswordHasher.rehashLater(passwordPlain, h -> users.computeIfPresent(username,
+                    (k, cur) -> cur.passwordHash.equals(u.passwordHash) ? new User(cur.username, h, cur.role, cur.studentId) : cur));
+        }
+        return sessions.create(username, u.role, u.studentId).toAuthResult();
+    }
+
+    @Override
+    public Database.AuthResult resumeSession(String token) {
+        Sessions.Session s = sessions.touch(token);
+        return s == null ? null : s.toAuthResult();
+    }
+
+    @Override
+    public void logout(String token) {
+        sessions.remove(token);
+    }
+
+    @Override
+    public void changePassword(String username, String oldPassword, String newPassword) throws Exception {
+        if (username == null || username.trim().isEmpty()) throw new Exception("Username required.");
+        if (oldPassword == null || newPassword == null) throw new Exception("Passwords cannot be null.");
+        if (verifyPassword(username, oldPassword) == null) throw new Exception("Current password is incorrect.");
+        setPassword(username, newPassword, "Failed to update password (user not found).");
+        sessions.removeUser(username, null);
+    }
+
+    @Override
+    public void changePassword(Database.AuthResult session, String newPassword) throws Exception {
+        if (newPassword == null) throw new Exception("Passwords cannot be null.");
+        Sessions.Session s = requireSession(session);
+        setPassword(s.username, newPassword, "Failed to update password (user not found).");
+        sessions.removeUser(s.username, s.token);
+    }
+
+    @Override
+    public void resetPassword(String adminUsername, String adminPassword, String targetUsername, String newPassword) throws Exception {
+        if (adminUsername == null || adminPassword == null) throw new Exception("Admin credentials required.");
+        if (targetUsername == null || targetUsername.trim().isEmpty()) throw new Exception("Target username required.");
+        User admin = verifyPassword(adminUsername, adminPassword);
+        if (admin == null || admin.role == null || !admin.role.equalsIgnoreCase("admin")) {
+            throw new Exception("Admin authentication failed or not authorized.");
+        }
+        setPassword(targetUsername, newPassword, "Target user not found: " + targetUsername);
+        sessions.removeUser(targetUsername, null);
+    }
+
+    @Override
+    public void resetPassword(Database.AuthResult adminSession, String targetUsername, String newPassword) throws Exception {
+        if (targetUsername == null || targetUsername.trim().isEmpty()) throw new Exception("Target username required.");
+        if (!requireSession(adminSession).isAdmin()) throw new Exception("Admin authentication failed or not authorized.");
+        setPassword(targetUsername, newPassword, "Target user not found: " + targetUsername);
+        sessions.removeUser(targetUsername, null);
+    }
+
+    private User verifyPassword(String username, String plain) throws Exception {
+        loginThrottle.check(username);
+        User u = username == null ? null : users.get(username);
+        boolean ok = u != null && PasswordHasher.verify(plain, u.passwordHash);
+        loginThrottle.record(username, ok);
+        return ok ? u : null;
+    }
+
+    private Sessions.Session requireSession(Database.AuthResult session) throws Exception {
+        Sessions.Session s = sessions.touch(session == null ? null : session.token);
+        if (s == null) throw new Exception("Session expired; please log in again.");
+        return s;
+    }
+
+    private void setPassword(String username, String newPassword, String notFound) throws Exception {
+        String hash = PasswordHasher.hash(newPassword);
+        User updated = users.computeIfPresent(username, (k, u) -> new User(u.username, hash, u.role, u.studentId));
+        if (updated == null) throw new Exception(notFound);
+    }
+
+    // ------------------------- EDIT REQUESTS -------------------------
+
+    @Override
+    public boolean createEditRequest(String studentId, String field, String newValue, String message) throws Exception {
+        if (studentId == null || studentId.trim().isEmpty()) throw new Exception("Student ID required.");
+        if (field == null || field.trim().isEmpty()) throw new Exception("Field required.");
+        String column = Database.normalizeField(field);
+        if (column == null) throw new Exception("Field not allowed: " + field);
+        requestLimiter.take(studentId);
+        EditRequest old = null;
+        synchronized (writeLock) {
+            Integer openId = openRequests.get(openKey(studentId, column));
+            if (openId != null) {
+                if (!Database.SUPERSEDE_REQUESTS) {
+                    requestLimiter.refund(studentId); // refused: not counted against the quota
+                    throw new Exception("There is already an open request for " + column + "; wait until it has been reviewed.");
+                }
+                old = requests.get(openId);
+                requests.put(openId, new EditRequest(old.id, old.studentId, old.field, old.newValue, old.message, "SUPERSEDED",
+                        old.createdAt, null, now(), Database.SUPERSEDED_REASON));
+            }
+            int id = requestIds.incrementAndGet();
+            requests.put(id, new EditRequest(id, studentId, column, newValue, message, "OPEN", now(), null, null, null));
+            openRequests.put(openKey(studentId, column), id);
+        }
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, studentId);
+        return old != null;
+    }
+
+    private static String openKey(String studentId, String field) {
+        return studentId + '\0' + field;
+    }
+
+    @Override
+    public void streamEditRequests(Consumer<EditRequest> out, Database.CancelToken token) throws Exception {
+        for (EditRequest r : requests.descendingMap().values()) { // ids grow with created_at
+            if (token.isCancelled()) throw new Database.CancelledException();
+            out.accept(r);
+        }
+    }
+
+    @Override
+    public void approveEditRequest(int requestId, String adminUsername) throws Exception {
+        if (adminUsername == null || adminUsername.trim().isEmpty()) throw new Exception("Admin required.");
+        EditRequest r;
+        synchronized (writeLock) {
+            r = requests.get(requestId);
+            if (r == null || !"OPEN".equals(r.status)) throw new Exception("Request not found or not open.");
+            String field = Database.normalizeField(r.field);
+            if (field == null) throw new Exception("Invalid field in request.");
+
+            StoredStudent s = students.get(r.studentId);
+            if (s != null) replace(s, withField(s, field, r.newValue));
+            openRequests.remove(openKey(r.studentId, r.field));
+            requests.put(requestId, new EditRequest(r.id, r.studentId, r.field, r.newValue, r.message, "APPROVED",
+                    r.createdAt, adminUsername, now(), r.handledReason));
+        }
+        fireChange(StudentChange.Kind.STUDENT_UPDATED, r.studentId, Collections.singleton(Database.normalizeField(r.field)));
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, r.studentId);
+    }
+
+    @Override
+    public void rejectEditRequest(int requestId, String adminUsername, String reason) throws Exception {
+        if (adminUsername == null || adminUsername.trim().isEmpty()) throw new Exception("Admin required.");
+        EditRequest r;
+        synchronized (writeLock) {
+            r = requests.get(requestId);
+            if (r == null || !"OPEN".equals(r.status)) throw new Exception("Request not found or not open.");
+            openRequests.remove(openKey(r.studentId, r.field));
+            requests.put(requestId, new EditRequest(r.id, r.studentId, r.field, r.newValue, r.message, "REJECTED",
+                    r.createdAt, adminUsername, now(), reason));
+        }
+        fireChange(StudentChange.Kind.REQUESTS_CHANGED, r.studentId);
+    }
+
+    // ------------------------- CHANGES -------------------------
+
+    @Override
+    public void addChangeListener(Consumer<StudentChange> l) {
+        changeListeners.add(l);
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<StudentChange> l) {
+        changeListeners.remove(l);
+    }
+
+    private void fireChange(StudentChange.Kind kind, String studentId) {
+        fireChange(kind, studentId, Collections.emptySet());
+    }
+
+    private void fireChange(StudentChange.Kind kind, String studentId, Set<String> fields) {
+        StudentChange change = new StudentChange(kind, studentId, fields);
+        for (Consumer<StudentChange> l : changeListeners) {
+            try {
+                l.accept(change);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // Copy of s with one edit-request field applied (same rules as Database.approveEditRequest)
+    private StoredStudent withField(StoredStudent s, String field, String v) throws Exception {
+        switch (field) {
+            case "name": return student(s.id, v, s.father, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester, s.age);
+            case "father_name": return student(s.id, s.name, v, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester, s.age);
+            case "gender": return student(s.id, s.name, s.father, s.dob, v, s.phone, s.email, s.address, s.course, s.semester, s.age);
+            case "dob": return student(s.id, s.name, s.father, v, s.gender, s.phone, s.email, s.address, s.course, s.semester, Database.computeAgeFromDob(v));
+            case "email": return student(s.id, s.name, s.father, s.dob, s.gender, s.phone, v, s.address, s.course, s.semester, s.age);
+            case "phone": return student(s.id, s.name, s.father, s.dob, s.gender, v, s.email, s.address, s.course, s.semester, s.age);
+            case "address": return student(s.id, s.name, s.father, s.dob, s.gender, s.phone, s.email, v, s.course, s.semester, s.age);
+            case "course": return student(s.id, s.name, s.father, s.dob, s.gender, s.phone, s.email, s.address, v, s.semester, s.age);
+            case "semester": return student(s.id, s.name, s.father, s.dob, s.gender, s.phone, s.email, s.address, s.course, v, s.age);
+            case "age":
+                try {
+                    int age = Integer.parseInt(v);
+                    return student(s.id, s.name, s.father, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester, age);
+                } catch (NumberFormatException nfe) {
+                    throw new Exception("Invalid age value: " + v);
+                }
+            default: throw new Exception("Invalid field in request.");
+        }
+    }
+
+    // New record; course / semester spelled as first stored, like the lookup tables
+    private StoredStudent student(String id, String name, String father, String dob, String gender, String phone, String email,
+                            String address, String course, String semester, Integer age) {
+        return new StoredStudent(id, name, father, dob, gender, phone, email, address,
+                canonical(courseLabels, course), canonical(semesterLabels, semester), age, 1);
+    }
+
+    // Trimmed label, blank = none (LookupTable.idFor)
+    private static String canonical(Map<String, String> labels, String text) {
+        if (text == null || text.trim().isEmpty()) return null;
+        String t = text.trim();
+        return labels.computeIfAbsent(fold(t), k -> t);
+    }
+
+    // ------------------------- INDEXES -------------------------
+    // Callers hold writeLock. A new student is indexed before the record is published and dropped
+    // after it is withdrawn; readers re-check records, so either order is safe to observe.
+
+    // now gets the next version after old. Entries only old has go first: if both the old and the
+    // new name key were visible at once, a reader walking byName would emit the student twice.
+    private void replace(StoredStudent old, StoredStudent next) {
+        StoredStudent now = next.atVersion(old.version + 1);
+        unindexStale(old, now);
+        students.put(now.id, now);
+        index(now);
+    }
+
+    private void index(StoredStudent s) {
+        byName.add(nameKey(s));
+        byIdKey.add(fold(s.id) + '\0' + s.id);
+        add(byCourse, fold(s.course), s.id);
+        add(bySemester, fold(s.semester), s.id);
+        add(byGender, fold(s.gender), s.id);
+        if (s.dobDay != null) byDobDay.computeIfAbsent(s.dobDay, k -> ConcurrentHashMap.newKeySet()).add(s.id);
+        else undated.add(s.id);
+        nameIndex.put(s.id, s.name, s.father);
+    }
+
+    private void unindex(StoredStudent s) {
+        byName.remove(nameKey(s));
+        byIdKey.remove(fold(s.id) + '\0' + s.id);
+        remove(byCourse, fold(s.course), s.id);
+        remove(bySemester, fold(s.semester), s.id);
+        remove(byGender, fold(s.gender), s.id);
+        if (s.dobDay != null) remove(byDobDay, s.dobDay, s.id);
+        else undated.remove(s.id);
+        nameIndex.remove(s.id);
+    }
+
+    // Removes old's entries that now (same id) no longer has
+    private void unindexStale(StoredStudent old, StoredStudent now) {
+        if (!nameKey(old).equals(nameKey(now))) byName.remove(nameKey(old));
+        if (!fold(old.course).equals(fold(now.course))) remove(byCourse, fold(old.course), old.id);
+        if (!fold(old.semester).equals(fold(now.semester))) remove(bySemester, fold(old.semester), old.id);
+        if (!fold(old.gender).equals(fold(now.gender))) remove(byGender, fold(old.gender), old.id);
+        if (old.dobDay != null && !old.dobDay.equals(now.dobDay)) remove(byDobDay, old.dobDay, old.id);
+        if (old.dobDay == null && now.dobDay != null) undated.remove(old.id);
+    }
+
+    private static <K> void add(Map<K, Set<String>> index, K key, String id) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // ------------------------- QUERY EVALUATION -------------------------
+
+    // Smallest index slice that covers every row rq can match (the matcher still checks them all)
+    private Collection<StoredStudent> candidates(RosterQuery rq, LocalDate today) {
+        Collection<String> ids = null;
+        if (rq.course != null) ids = smaller(ids, byCourse.get(fold(rq.course)));
+        if (rq.semester != null) ids = smaller(ids, bySemester.get(fold(semesterLabel(rq.semester))));
+        if (rq.gender != null) ids = smaller(ids, byGender.get(fold(rq.gender)));
+        if (ids == null && (rq.ageMin != null || rq.ageMax != null)) {
+            int lo = rq.ageMax == null ? Integer.MIN_VALUE : StudentQuery.bornAfter(rq.ageMax, today);
+            int hi = rq.ageMin == null ? Integer.MAX_VALUE : StudentQuery.bornOnOrBefore(rq.ageMin, today);
+            Set<String> inRange = new HashSet<>(); // a student moving between two days in range is in both sets briefly
+            if (lo <= hi) for (Set<String> day : byDobDay.subMap(lo, true, hi, true).values()) inRange.addAll(day);
+            inRange.addAll(undated); // matched on the stored age
+            ids = inRange;
+        }
+        if (ids == null) return students.values();
+        List<StoredStudent> out = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            StoredStudent s = students.get(id);
+            if (s != null) out.add(s);
+        }
+        return out;
+    }
+
+    private String candidateSource(RosterQuery rq, LocalDate today) {
+        if (rq.course != null || rq.semester != null || rq.gender != null) return "smallest of the course / semester / gender id sets";
+        if (rq.ageMin != null || rq.ageMax != null) return "dob_day index range + " + undated.size() + " students without a dob";
+        return "all " + students.size() + " students";
+    }
+
+    private static Collection<String> smaller(Collection<String> a, Set<String> b) {
+        if (b == null) return new ArrayList<>(); // no student has that value
+        return a == null || b.size() < a.size() ? b : a;
+    }
+
+    private static Predicate<StoredStudent> rosterMatcher(RosterQuery rq, LocalDate today) throws Exception {
+        Predicate<StoredStudent> p = s -> true;
+        if (rq.course != null) p = p.and(s -> fold(s.course).equals(fold(rq.course)));
+        if (rq.semester != null) {
+            String sem = fold(semesterLabel(rq.semester));
+            p = p.and(s -> fold(s.semester).equals(sem));
+        }
+        if (rq.gender != null) p = p.and(s -> fold(s.gender).equals(fold(rq.gender)));
+        if (rq.ageMin != null || rq.ageMax != null) p = p.and(ageBetween(rq.ageMin, rq.ageMax, today));
+        if (rq.search != null) p = p.and(searchMatcher(rq.search, today));
+        return p;
+    }
+
+    // Same language as StudentQuery.parse, evaluated against a record instead of compiled to SQL
+    private static Predicate<StoredStudent> searchMatcher(String q, LocalDate today) throws Exception {
+        if (!StudentQuery.isStructured(q)) return anyField(q);
+        StudentQuery.parse(q); // reject what the SQLite engine rejects, with the same message
+
+        Predicate<StoredStudent> p = s -> true;
+        for (String tok : StudentQuery.tokenize(q)) {
+            int c = tok.indexOf(':');
+            String col = c > 0 ? StudentQuery.column(tok.substring(0, c)) : null;
+            if (col == null) {
+                String term = StudentQuery.unquote(tok);
+                if (!term.isEmpty()) p = p.and(anyField(term));
+                continue;
+            }
+            String raw = tok.substring(c + 1);
+            boolean prefix = !raw.startsWith("\"") && raw.endsWith("*");
+            String value = StudentQuery.unquote(raw);
+            if (prefix) value = value.substring(0, value.length() - 1);
+
+            switch (col) {
+                case "age": p = p.and(ageFilter(value, today)); break;
+                case "birthday": p = p.and(birthdayWindow(Integer.parseInt(value.trim()), today)); break;
+                case "id":
+                    String id = value;
+                    p = p.and(prefix ? s -> fold(s.id).startsWith(fold(id)) : s -> id.equals(s.id));
+                    break;
+                default:
+                    if ("semester".equals(col) && !prefix) value = semesterLabel(value);
+                    Function<StoredStudent, String> f = field(col);
+                    String v = fold(value);
+                    p = p.and(prefix ? s -> f.apply(s) != null && fold(f.apply(s)).startsWith(v) : s -> fold(f.apply(s)).equals(v) && f.apply(s) != null);
+            }
+        }
+        return p;
+    }
+
+    private static Function<StoredStudent, String> field(String col) {
+        switch (col) {
+            case "name": return s -> s.name;
+            case "father_name": return s -> s.father;
+            case "course": return s -> s.course;
+            case "semester": return s -> s.semester;
+            case "gender": return s -> s.gender;
+            case "email": return s -> s.email;
+            default: return s -> s.phone;
+        }
+    }
+
+    // Plain search text: case-insensitive substring of any text field (Database's LIKE '%q%')
+    private static Predicate<StoredStudent> anyField(String q) {
+        String t = fold(q);
+        return s -> contains(s.id, t) || contains(s.name, t) || contains(s.father, t) || contains(s.course, t)
+                || contains(s.semester, t) || contains(s.phone, t) || contains(s.email, t) || contains(s.address, t);
+    }
+
+    private static boolean contains(String field, String foldedTerm) {
+        return field != null && fold(field).contains(foldedTerm);
+    }
+
+    private static Predicate<StoredStudent> ageFilter(String value, LocalDate today) {
+        int dots = value.indexOf("..");
+        if (dots < 0) {
+            int age = Integer.parseInt(value.trim());
+            return ageBetween(age, age, today);
+        }
+        String lo = value.substring(0, dots).trim();
+        String hi = value.substring(dots + 2).trim();
+        return ageBetween(lo.isEmpty() ? null : Integer.valueOf(lo), hi.isEmpty() ? null : Integer.valueOf(hi), today);
+    }
+
+    private static Predicate<StoredStudent> ageBetween(Integer lo, Integer hi, LocalDate today) {
+        int first = hi == null ? Integer.MIN_VALUE : StudentQuery.bornAfter(hi, today);
+        int last = lo == null ? Integer.MAX_VALUE : StudentQuery.bornOnOrBefore(lo, today);
+        return s -> s.dobDay != null ? s.dobDay >= first && s.dobDay <= last
+                : s.age != null && (lo == null || s.age >= lo) && (hi == null || s.age <= hi);
+    }
+
+    // The window shifted back k years for every age k, like StudentQuery.appendBirthdayWindow
+    private static Predicate<StoredStudent> birthdayWindow(int days, LocalDate today) {
+        LocalDate last = today.plusDays(days - 1);
+        int[] from = new int[StudentQuery.MAX_AGE + 1], to = new int[StudentQuery.MAX_AGE + 1];
+        for (int k = 0; k <= StudentQuery.MAX_AGE; k++) {
+            from[k] = Math.toIntExact(today.minusYears(k).toEpochDay());
+            to[k] = Math.toIntExact(last.minusYears(k).toEpochDay());
+        }
+        return s -> {
+            if (s.dobDay == null) return false;
+            for (int k = 0; k < from.length; k++) if (s.dobDay >= from[k] && s.dobDay <= to[k]) return true;
+            return false;
+        };
+    }
+
+    // Sort order of Database.rosterOrder, with id standing in for rowid
+    private static Comparator<StoredStudent> order(RosterQuery rq) {
+        Comparator<StoredStudent> name = text(s -> s.name);
+        Comparator<StoredStudent> c;
+        switch (rq.sortColumn) {
+            case StudentTableModel.COL_ID: c = Comparator.comparing(s -> s.id); break;
+            case StudentTableModel.COL_FATHER: c = text(s -> s.father); break;
+            case StudentTableModel.COL_DOB:
+            case StudentTableModel.COL_AGE: c = Comparator.comparing(s -> s.dobDay, Comparator.nullsFirst(Comparator.naturalOrder())); break;
+            case StudentTableModel.COL_GENDER: c = text((StoredStudent s) -> s.gender).thenComparing(name); break;
+            case StudentTableModel.COL_PHONE: c = Comparator.comparing(s -> s.phone, Comparator.nullsFirst(Comparator.naturalOrder())); break;
+            case StudentTableModel.COL_COURSE_SEM:
+            case StudentTableModel.COL_COURSE: c = text((StoredStudent s) -> s.course).thenComparing(text(s -> s.semester)).thenComparing(name); break;
+            case StudentTableModel.COL_EMAIL: c = text(s -> s.email); break;
+            case StudentTableModel.COL_ADDRESS: c = text(s -> s.address); break;
+            case StudentTableModel.COL_SEMESTER: c = text((StoredStudent s) -> s.semester).thenComparing(name); break;
+            default: c = name;
+        }
+        c = c.thenComparing(s -> s.id);
+        boolean ascending = rq.sortColumn == StudentTableModel.COL_AGE ? !rq.ascending : rq.ascending; // younger = later dob
+        return ascending ? c : c.reversed();
+    }
+
+    // NOCASE text order, NULLs first (SQLite's ascending order)
+    private static Comparator<StoredStudent> text(Function<StoredStudent, String> f) {
+        return Comparator.comparing(s -> f.apply(s) == null ? null : fold(f.apply(s)), Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private List<String> complete(NavigableSet<String> index, String prefix, int limit, Function<StoredStudent, String> display) {
+        List<String> out = new ArrayList<>();
+        if (prefix == null || prefix.trim().isEmpty() || limit <= 0) return out;
+        String p = fold(prefix.trim());
+        Set<String> seen = new LinkedHashSet<>();
+        for (String key : index.tailSet(p)) {
+            if (!key.startsWith(p) || seen.size() >= limit) break;
+            StoredStudent s = students.get(idOf(key));
+            String text = s == null ? null : display.apply(s);
+            if (text != null && !text.trim().isEmpty()) seen.add(text.trim());
+        }
+        out.addAll(seen);
+        return out;
+    }
+
+    private static Student view(StoredStudent s, LocalDate today) {
+        return new Student(s.id, s.name, s.father, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester,
+                Database.joinCourseSemester(s.course, s.semester), currentAge(s, today), s.version);
+    }
+
+    private static int currentAge(StoredStudent s, LocalDate today) {
+        if (s.dobDay == null) return s.age == null ? 0 : s.age;
+        LocalDate dob = LocalDate.ofEpochDay(s.dobDay);
+        return dob.isAfter(today) ? 0 : Period.between(dob, today).getYears();
+    }
+
+    private static String ageBand(StoredStudent s, LocalDate today) {
+        if (s.dobDay == null || LocalDate.ofEpochDay(s.dobDay).isAfter(today)) return "No DOB";
+        int age = Period.between(LocalDate.ofEpochDay(s.dobDay), today).getYears();
+        if (age < 18) return "Under 18";
+        if (age >= 30) return "30+";
+        int lo = 18 + (age - 18) / 3 * 3;
+        return lo + "-" + (lo + 2);
+    }
+
+    private static String nameKey(StoredStudent s) {
+        return fold(s.name) + '\0' + s.id;
+    }
+
+    private static String idOf(String key) {
+        return key.substring(key.indexOf('\0') + 1);
+    }
+
+    private static String semesterLabel(String semester) {
+        return StudentQuery.isInt(semester.trim()) ? "Sem " + semester.trim() : semester;
+    }
+
+    // ASCII-only case folding, same as SQLite's NOCASE; null folds to ""
+    private static String fold(String text) {
+        if (text == null) return "";
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (sb == null) sb = new StringBuilder(text);
+                sb.setCharAt(i, (char) (c + 32));
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    private static String now() {
+        return LocalDateTime.now(ZoneOffset.UTC).format(TIMESTAMP_FMT); // datetime('now')
+    }
+}
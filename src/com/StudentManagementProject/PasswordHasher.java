@@ -0,0 +1,315 @@
+package com.StudentManagementProject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PasswordHasher.java
+ * Salted, iterated password hashes (PBKDF2-HMAC-SHA256 from the JDK) stored in users.password_hash.
+ *
+ * - Records are versioned: "pbkdf2-sha256$<iterations>$<salt>$<hash>" (unpadded Base64, 16-byte salt,
+ *   32-byte hash); a bare 64-char hex string is the old unsalted SHA-256 and still verifies
+ * - The iteration count is calibrated once per process so one hash takes about
+ *   -Dstudent.kdf.target.ms (default 50); -Dstudent.kdf.iterations pins it instead
+ * - needsRehash: legacy records, and records well below the current cost, are upgraded by the
+ *   engine after a successful login (rehashLater), so no one has to reset a password
+ * - Hashing runs on a small bounded pool (-Dstudent.kdf.threads, default half the cores), so a
+ *   login storm queues here instead of taking every CPU from the UI and the database; when the
+ *   queue is full the login is refused with "Too many logins at once"
+ * - Batch hashing (hashAll, bulk enrollment) keeps at most one task per worker queued or running,
+ *   so a large batch never fills the queue and logins wait behind it for one hash at most
+ *
+ * Package-private: used by the storage engines (Database, MemoryRepository).
+ */
+final class PasswordHasher {
+
+    static final String SCHEME = "pbkdf2-sha256";
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MIN_ITERATIONS = 10_000;
+    private static final int PROBE_ITERATIONS = 5_000;
+    // The HMAC loop only runs at full speed once JIT-compiled, which takes about a second of probing;
+    // the last probes in the budget stand for the steady state
+    private static final long PROBE_BUDGET_NS = 1_500_000_000L;
+    private static final long TARGET_MS = Long.getLong("student.kdf.target.ms", 50);
+    private static final int QUEUE = Integer.getInteger("student.kdf.queue", 64);
+
+    // Records at less than this share of the current cost get rehashed; calibration noise alone never does
+    private static final double REHASH_BELOW = 0.75;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2 = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK 8+ ships it
+        }
+    });
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final ThreadPoolExecutor workers;
+    private static final Semaphore batchSlots; // hashAll tasks queued or running
+
+    static {
+        int threads = Integer.getInteger("student.kdf.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        batchSlots = new Semaphore(Math.max(1, Math.min(threads, QUEUE / 2)));
+        AtomicInteger n = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE), r -> {
+            Thread t = new Thread(r, "kdf-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static volatile int iterations; // 0 until calibrated
+
+    private PasswordHasher() {}
+
+    // ------------------------- COST -------------------------
+
+    /** Starts calibration on a worker so the first login does not pay for it. */
+    static void calibrateInBackground() {
+        if (iterations != 0) return;
+        try {
+            workers.execute(PasswordHasher::iterations);
+        } catch (RejectedExecutionException ignored) {
+            // busy already; the first hash calibrates instead
+        }
+    }
+
+    /** Iterations for new hashes; calibrates on first use. */
+    static int iterations() {
+        int it = iterations;
+        if (it != 0) return it;
+        synchronized (PasswordHasher.class) {
+            if (iterations == 0) iterations = calibrate();
+            return iterations;
+        }
+    }
+
+    // Median of the last few timed probes in the budget, scaled to the target and rounded to a thousand;
+    // then one hash at the chosen count is timed for the log, since rounding, MIN_ITERATIONS or a
+    // pinned count can land away from the target
+    private static int calibrate() {
+        Integer pinned = Integer.getInteger("student.kdf.iterations");
+        byte[] salt = new byte[SALT_BYTES];
+        char[] probe = "calibration".toCharArray();
+        int it;
+        if (pinned != null) {
+            for (int i = 0; i < 20; i++) derive(probe, salt, PROBE_ITERATIONS); // warm up, so the timing below is not the JIT's
+            it = Math.max(1, pinned);
+        } else {
+            it = fitToTarget(probe, salt);
+        }
+        long t0 = System.nanoTime();
+        derive(probe, salt, it);
+        double ms = (System.nanoTime() - t0) / 1e6;
+        System.out.println(String.format(Locale.ROOT, "[STARTUP] password hashing: %s, %d iterations%s, one hash %.1f ms (target %d ms)",
+                SCHEME, it, pinned != null ? " (pinned)" : "", ms, TARGET_MS));
+        return it;
+    }
+
+    private static int fitToTarget(char[] probe, byte[] salt) {
+        long[] recent = new long[5];
+        int probes = 0;
+        long start = System.nanoTime();
+        while (probes < recent.length || System.nanoTime() - start < PROBE_BUDGET_NS) {
+            long t0 = System.nanoTime();
+            derive(probe, salt, PROBE_ITERATIONS);
+            recent[probes++ % recent.length] = System.nanoTime() - t0;
+        }
+        Arrays.sort(recent);
+        double perIteration = (double) recent[recent.length / 2] / PROBE_ITERATIONS;
+        long scaled = Math.round(TARGET_MS * 1_000_000L / perIteration / 1000.0) * 1000;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_ITERATIONS, scaled));
+    }
+
+    // ------------------------- HASH / VERIFY -------------------------
+
+    /** A new record for plain at the current cost, computed on the worker pool. */
+    static String hash(String plain) throws Exception {
+        return onWorker(() -> hashNow(plain));
+    }
+
+    /**
+     * hash() for each of plains, in order, spread over the worker pool. Only batchSlots of them are
+     * queued or running at a time, so the rest of the queue stays free for logins however large the batch.
+     */
+    static List<String> hashAll(List<String> plains) throws Exception {
+        List<Future<String>> pending = new ArrayList<>(plains.size());
+        for (String plain : plains) {
+            try {
+                batchSlots.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new Exception("Password hashing interrupted.", ex);
+            }
+            FutureTask<String> task = new FutureTask<>(() -> hashNow(plain)) {
+                @Override
+                protected void done() {
+                    batchSlots.release(); // however the task ends, cancelled included
+                }
+            };
+            while (true) {
+                try {
+                    workers.execute(task);
+                    break;
+                } catch (RejectedExecutionException ex) {
+                    try {
+                        Thread.sleep(10); // logins have the queue full for now
+                    } catch (InterruptedException ie) {
+                        task.cancel(false);
+                        Thread.currentThread().interrupt();
+                        throw new Exception("Password hashing interrupted.", ie);
+                    }
+                }
+            }
+            pending.add(task);
+        }
+        List<String> out = new ArrayList<>(pending.size());
+        for (Future<String> f : pending) out.add(await(f));
+        return out;
+    }
+
+    /** True if plain matches record (either format); PBKDF2 records are checked on the worker pool. */
+    static boolean verify(String plain, String record) throws Exception {
+        if (record == null) return false;
+        String p = plain == null ? "" : plain;
+        if (isLegacy(record)) return MessageDigest.isEqual(legacySha256Hex(p).getBytes(StandardCharsets.US_ASCII),
+                record.getBytes(StandardCharsets.US_ASCII));
+        String[] parts = record.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) return false;
+        int it;
+        byte[] salt, expected;
+        try {
+            it = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException ex) {
+            return false; // damaged record: no password matches it
+        }
+        if (it <= 0) return false;
+        return onWorker(() -> MessageDigest.isEqual(derive(p.toCharArray(), salt, it), expected));
+    }
+
+    /** True for legacy records and for records hashed at well under the current cost. */
+    static boolean needsRehash(String record) {
+        if (record == null) return false;
+        if (isLegacy(record)) return true;
+        String[] parts = record.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) return false;
+        try {
+            return Integer.parseInt(parts[1]) < iterations() * REHASH_BELOW;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Hashes plain again at the current cost and hands the record to store, on a worker. Skipped
+     * when the pool is busy; the next login tries again.
+     */
+    static void rehashLater(String plain, Consumer<String> store) {
+        try {
+            workers.execute(() -> store.accept(hashNow(plain)));
+        } catch (RejectedExecutionException ignored) {
+            // logins come first
+        }
+    }
+
+    private static String hashNow(String plain) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int it = iterations();
+        byte[] h = derive((plain == null ? "" : plain).toCharArray(), salt, it);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return SCHEME + "$" + it + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(h);
+    }
+
+    private static byte[] derive(char[] plain, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(plain, salt, iterations, HASH_BITS);
+        try {
+            return PBKDF2.get().generateSecret(spec).getEncoded();
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private interface Work<T> {
+        T run() throws Exception;
+    }
+
+    private static <T> T onWorker(Work<T> work) throws Exception {
+        Future<T> f;
+        try {
+            f = workers.submit(work::run);
+        } catch (RejectedExecutionException ex) {
+            throw new Exception("Too many logins at once; please try again.");
+        }
+        return await(f);
+    }
+
+    private static <T> T await(Future<T> f) throws Exception {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Exception("Password check interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw new Exception("Password hashing failed: " + cause, cause);
+        }
+    }
+
+    // ------------------------- LEGACY -------------------------
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static boolean isLegacy(String record) {
+        return record.length() == 64 && record.indexOf('$') < 0;
+    }
+
+    // The pre-PBKDF2 format: unsalted SHA-256, lower-case hex
+    private static String legacySha256Hex(String plain) {
+        byte[] b = SHA_256.get().digest(plain.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[b.length * 2];
+        for (int i = 0; i < b.length; i++) {
+            hex[2 * i] = HEX[(b[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[b[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,105 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PrefixIndex.java
+ * Compact sorted index for prefix autocomplete (student names and ids).
+ *
+ * - Two parallel arrays: keys (lower-cased text + '\0' + student id, sorted) and display text
+ * - complete(): binary search to the first key >= prefix, then walk forward; O(log n + k)
+ * - add/remove: binary search + arraycopy, so single writes stay cheap without tree nodes
+ *
+ * Not thread-safe on its own; Database guards it.
+ * Package-private: used by Database only.
+ */
+final class PrefixIndex {
+
+    private String[] keys = new String[0];
+    private String[] values = new String[0];
+    private int size;
+
+    /** Replaces the content in one go (sorts once instead of n inserts). */
+    void load(List<String[]> entries) {
+        List<String[]> valid = new ArrayList<>(entries.size());
+        for (String[] e : entries) { // {text, studentId}
+            if (e[0] != null && !e[0].trim().isEmpty()) valid.add(new String[] { key(e[0], e[1]), e[0].trim() });
+        }
+        String[][] pairs = valid.toArray(new String[0][]);
+        Arrays.sort(pairs, (a, b) -> a[0].compareTo(b[0]));
+        keys = new String[Math.max(16, pairs.length + (pairs.length >> 3))]; // slack for incremental adds
+        values = new String[keys.length];
+        for (int i = 0; i < pairs.length; i++) {
+            keys[i] = pairs[i][0];
+            values[i] = pairs[i][1];
+        }
+        size = pairs.length;
+    }
+
+    void add(String text, String studentId) {
+        if (text == null || text.trim().isEmpty()) return;
+        String k = key(text, studentId);
+        int pos = Arrays.binarySearch(keys, 0, size, k);
+        if (pos >= 0) {
+            values[pos] = text.trim();
+            return;
+        }
+        pos = -pos - 1;
+        if (size == keys.length) {
+            int cap = Math.max(16, size + (size >> 1));
+            keys = Arrays.copyOf(keys, cap);
+            values = Arrays.copyOf(values, cap);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        keys[pos] = k;
+        values[pos] = text.trim();
+        size++;
+    }
+
+    void remove(String text, String studentId) {
+        if (text == null || text.trim().isEmpty()) return;
+        int pos = Arrays.binarySearch(keys, 0, size, key(text, studentId));
+        if (pos < 0) return;
+        System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    /** Exact (case-sensitive) lookup of text, e.g. an id that is already taken. */
+    boolean contains(String text) {
+        if (text == null) return false;
+        String lower = text.trim().toLowerCase();
+        int pos = Arrays.binarySearch(keys, 0, size, lower + '\0');
+        if (pos < 0) pos = -pos - 1;
+        for (int i = pos; i < size && keys[i].startsWith(lower + '\0'); i++) {
+            if (values[i].equals(text.trim())) return true;
+        }
+        return false;
+    }
+
+    /** Up to limit distinct display values starting with prefix (case-insensitive), in sorted order. */
+    List<String> complete(String prefix, int limit) {
+        List<String> out = new ArrayList<>();
+        if (prefix == null) return out;
+        String p = prefix.trim().toLowerCase();
+        if (p.isEmpty()) return out;
+        int pos = Arrays.binarySearch(keys, 0, size, p);
+        if (pos < 0) pos = -pos - 1;
+        String last = null;
+        for (int i = pos; i < size && out.size() < limit && keys[i].startsWith(p); i++) {
+            if (values[i].equals(last)) continue; // same name for several students
+            last = values[i];
+            out.add(last);
+        }
+        return out;
+    }
+
+    private static String key(String text, String studentId) {
+        return text.trim().toLowerCase() + '\0' + (studentId == null ? "" : studentId);
+    }
+}
@@ -0,0 +1,477 @@
+package com.StudentManagementProject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * RemoteRepository.java
+ * StudentRepository engine that forwards every call to a StudentServer (the "remote" engine).
+ *
+ * - One TCP connection, shared by all threads: each call gets its own reqId and waits only for its
+ *   own response frames, so calls from the EDT helpers, ChunkedLoader and the dashboard overlap on
+ *   the wire (pipelining) instead of queueing behind each other
+ * - A reader thread routes frames to the waiting call by reqId, and EVENT frames to the change
+ *   listeners
+ * - Streams arrive in batches and are handed to the consumer on the calling thread; cancelling the
+ *   CancelToken sends CANCEL and ends the call at once with CancelledException
+ * - If the connection drops, waiting calls fail with "Connection to server lost." and the next
+ *   call reconnects, resuming the last login's session token (no password is kept)
+ *
+ * Server address: -Dstudent.server=host:port (default localhost:7070).
+ * Package-private: created through Repositories.create("remote").
+ */
+final class RemoteRepository implements StudentRepository {
+
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final long POLL_MS = 50; // how often a waiting call looks at its CancelToken
+    private static final Wire.In LOST = new Wire.In(new byte[0]); // queued to waiting calls when the socket dies
+
+    private final String host;
+    private final int port;
+    private final AtomicInteger nextReqId = new AtomicInteger();
+    private final List<Consumer<StudentChange>> changeListeners = new CopyOnWriteArrayList<>();
+    private final Object connectLock = new Object();
+
+    private volatile Link link;
+    private volatile CompletableFuture<Void> init;
+    private volatile String sessionToken; // last login, resumed on reconnect
+
+    RemoteRepository(String address) {
+        int colon = address.lastIndexOf(':');
+        this.host = colon < 0 ? address : address.substring(0, colon);
+        this.port = colon < 0 ? 7070 : Integer.parseInt(address.substring(colon + 1));
+    }
+
+    @Override
+    public String engine() {
+        return "remote";
+    }
+
+    // ------------------------- LIFECYCLE -------------------------
+
+    @Override
+    public synchronized CompletableFuture<Void> initAsync() {
+        if (init == null) {
+            init = CompletableFuture.runAsync(() -> {
+                try {
+                    link();
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex.getMessage(), ex);
+                }
+            });
+        }
+        return init;
+    }
+
+    @Override
+    public void awaitInit() throws Exception {
+        try {
+            initAsync().join();
+        } catch (RuntimeException ex) {
+            Throwable cause = ex.getCause() != null && ex.getCause().getCause() != null ? ex.getCause().getCause() : ex;
+            throw new Exception(cause.getMessage(), cause);
+        }
+    }
+
+    // ------------------------- STUDENTS -------------------------
+
+    @Override
+    public void insertStudent(String id, String name, String fatherName, String dob, Integer age, String email, String phone,
+                              String address, String course, String semester, String gender) throws Exception {
+        call(Wire.INSERT_STUDENT, null, null, a -> a.str(id).str(name).str(fatherName).str(dob).integer(age).str(email)
+                .str(phone).str(address).str(course).str(semester).str(gender));
+    }
+
+    @Override
+    public Database.EnrollResult enrollStudent(String id, String name, String fatherName, String dob, Integer age, String email,
+                                               String phone, String address, String course, String semester, String gender) throws Exception {
+        Student s = new Student(id, name, fatherName, dob, gender, phone, email, address, course, semester, age == null ? 0 : age);
+        return enrollStudents(List.of(s)).get(0);
+    }
+
+    @Override
+    public List<Database.EnrollResult> enrollStudents(List<Student> students) throws Exception {
+        return call(Wire.ENROLL_STUDENTS, null, null, a -> a.students(students)).enrollResults();
+    }
+
+    @Override
+    public void updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                              String email, String address, String course, String semester, Integer age) throws Exception {
+        call(Wire.UPDATE_STUDENT, null, null, a -> a.str(id).str(name).str(fatherName).str(phone).str(dob).str(gender)
+                .str(email).str(address).str(course).str(semester).integer(age));
+    }
+
+    @Override
+    public int updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                             String email, String address, String course, String semester, Integer age, int expectedVersion) throws Exception {
+        return call(Wire.UPDATE_STUDENT_IF_VERSION, null, null, a -> a.str(id).str(name).str(fatherName).str(phone).str(dob)
+                .str(gender).str(email).str(address).str(course).str(semester).integer(age).i32(expectedVersion)).i32();
+    }
+
+    @Override
+    public void deleteStudent(String id) throws Exception {
+        call(Wire.DELETE_STUDENT, null, null, a -> a.str(id));
+    }
+
+    @Override
+    public boolean isStudentIdTaken(String id) throws Exception {
+        return call(Wire.ID_TAKEN, null, null, a -> a.str(id)).bool();
+    }
+
+    @Override
+    public Boolean studentIdTakenIfKnown(String id) {
+        try {
+            return isStudentIdTaken(id);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Student findStudent(String id) throws Exception {
+        Wire.In in = call(Wire.FIND_STUDENT, null, null, a -> a.str(id));
+        return in.bool() ? in.student() : null;
+    }
+
+    @Override
+    public void streamSearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        call(Wire.STREAM_SEARCH, token, items -> out.accept(items.student()), a -> a.str(q));
+    }
+
+    @Override
+    public void streamFuzzySearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        call(Wire.STREAM_FUZZY, token, items -> out.accept(items.student()), a -> a.str(q));
+    }
+
+    @Override
+    public int countStudents(RosterQuery rq, Database.CancelToken token) throws Exception {
+        return call(Wire.COUNT_STUDENTS, token, null, a -> a.rosterQuery(rq)).i32();
+    }
+
+    @Override
+    public void streamStudentPage(RosterQuery rq, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        call(Wire.STREAM_PAGE, token, items -> out.accept(items.student()), a -> a.rosterQuery(rq));
+    }
+
+    @Override
+    public String explainSearch(String q) throws Exception {
+        return call(Wire.EXPLAIN_SEARCH, null, null, a -> a.str(q)).str();
+    }
+
+    @Override
+    public String explainRosterPage(RosterQuery rq) throws Exception {
+        return "-- via " + host + ":" + port + " --\n" + call(Wire.EXPLAIN_PAGE, null, null, a -> a.rosterQuery(rq)).str();
+    }
+
+    @Override
+    public List<String> completeStudentNames(String prefix, int limit) {
+        try {
+            return call(Wire.COMPLETE_NAMES, null, null, a -> a.str(prefix).i32(limit)).strings();
+        } catch (Exception ex) {
+            return List.of(); // completion is best effort
+        }
+    }
+
+    @Override
+    public List<String> completeStudentIds(String prefix, int limit) {
+        try {
+            return call(Wire.COMPLETE_IDS, null, null, a -> a.str(prefix).i32(limit)).strings();
+        } catch (Exception ex) {
+            return List.of();
+        }
+    }
+
+    @Override
+    public EnrollmentSummary enrollmentSummary() throws Exception {
+        return call(Wire.ENROLLMENT_SUMMARY, null, null, a -> {}).summary();
+    }
+
+    @Override
+    public void rebuildEnrollmentStats() throws Exception {
+        call(Wire.REBUILD_STATS, null, null, a -> {});
+    }
+
+    // ------------------------- USERS -------------------------
+
+    @Override
+    public void createUser(String username, String passwordPlain, String role, String studentId) throws Exception {
+        call(Wire.CREATE_USER, null, null, a -> a.str(username).str(passwordPlain).str(role).str(studentId));
+    }
+
+    @Override
+    public boolean userExists(String username) throws Exception {
+        return call(Wire.USER_EXISTS, null, null, a -> a.str(username)).bool();
+    }
+
+    @Override
+    public Database.AuthResult authenticateUser(String username, String passwordPlain) throws Exception {
+        Database.AuthResult r = call(Wire.AUTHENTICATE, null, null, a -> a.str(username).str(passwordPlain)).auth();
+        if (r != null && r.ok) sessionToken = r.token;
+        return r;
+    }
+
+    @Override
+    public Database.AuthResult resumeSession(String token) {
+        try {
+            Database.AuthResult r = call(Wire.RESUME_SESSION, null, null, a -> a.str(token)).auth();
+            if (r != null) sessionToken = r.token;
+            return r;
+        } catch (Exception ex) {
+            return null; // server unreachable: the session cannot be confirmed
+        }
+    }
+
+    @Override
+    public void logout(String token) {
+        sessionToken = null;
+        try {
+            call(Wire.LOGOUT, null, null, a -> {});
+        } catch (Exception ignored) {
+            // the server drops the connection's login with the connection anyway
+        }
+    }
+
+    @Override
+    public void changePassword(String username, String oldPassword, String newPassword) throws Exception {
+        call(Wire.CHANGE_PASSWORD, null, null, a -> a.str(username).str(oldPassword).str(newPassword));
+    }
+
+    @Override
+    public void changePassword(Database.AuthResult session, String newPassword) throws Exception {
+        call(Wire.CHANGE_OWN_PASSWORD, null, null, a -> a.str(newPassword));
+    }
+
+    @Override
+    public void resetPassword(String adminUsername, String adminPassword, String targetUsername, String newPassword) throws Exception {
+        call(Wire.RESET_PASSWORD, null, null, a -> a.str(adminUsername).str(adminPassword).str(targetUsername).str(newPassword));
+    }
+
+    @Override
+    public void resetPassword(Database.AuthResult adminSession, String targetUsername, String newPassword) throws Exception {
+        call(Wire.RESET_PASSWORD_AS_ADMIN, null, null, a -> a.str(targetUsername).str(newPassword));
+    }
+
+    // ------------------------- EDIT REQUESTS -------------------------
+
+    @Override
+    public boolean createEditRequest(String studentId, String field, String newValue, String message) throws Exception {
+        return call(Wire.CREATE_REQUEST, null, null, a -> a.str(studentId).str(field).str(newValue).str(message)).bool();
+    }
+
+    @Override
+    public void streamEditRequests(Consumer<EditRequest> out, Database.CancelToken token) throws Exception {
+        call(Wire.STREAM_REQUESTS, token, items -> out.accept(items.editRequest()), a -> {});
+    }
+
+    // adminUsername is not sent: the server records the user logged in on this connection
+
+    @Override
+    public void approveEditRequest(int requestId, String adminUsername) throws Exception {
+        call(Wire.APPROVE_REQUEST, null, null, a -> a.i32(requestId));
+    }
+
+    @Override
+    public void rejectEditRequest(int requestId, String adminUsername, String reason) throws Exception {
+        call(Wire.REJECT_REQUEST, null, null, a -> a.i32(requestId).str(reason));
+    }
+
+    // ------------------------- CHANGES -------------------------
+
+    @Override
+    public void addChangeListener(Consumer<StudentChange> l) {
+        changeListeners.add(l);
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<StudentChange> l) {
+        changeListeners.remove(l);
+    }
+
+    // ------------------------- CALLS -------------------------
+
+    /**
+     * Sends one request and waits for its final frame. ITEMS frames on the way are decoded
+     * by items (null for calls that do not stream); the OK frame is returned positioned at the result.
+     */
+    private Wire.In call(byte op, Database.CancelToken token, Consumer<Wire.In> items, Consumer<Wire.Out> args) throws Exception {
+        if (token != null && token.isCancelled()) throw new Database.CancelledException();
+        return call(link(), op, token, items, args);
+    }
+
+    // The same on a given connection
+    private Wire.In call(Link l, byte op, Database.CancelToken token, Consumer<Wire.In> items, Consumer<Wire.Out> args) throws Exception {
+        int reqId = nextReqId.updateAndGet(i -> i == Integer.MAX_VALUE ? 1 : i + 1); // 0 is for events
+        Wire.Out frame = Wire.Out.request(reqId, op);
+        args.accept(frame);
+
+        BlockingQueue<Wire.In> replies = new LinkedBlockingQueue<>();
+        l.pending.put(reqId, replies);
+        try {
+            l.send(frame);
+            while (true) {
+                Wire.In in = replies.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (token != null && token.isCancelled()) {
+                    l.sendQuietly(Wire.Out.request(reqId, Wire.CANCEL));
+                    throw new Database.CancelledException();
+                }
+                if (in == null) {
+                    if (l.closed) throw new Exception("Connection to server lost.");
+                    continue;
+                }
+                if (in == LOST) throw new Exception("Connection to server lost.");
+                switch (in.i8()) {
+                    case Wire.OK:
+                        return in;
+                    case Wire.ITEMS:
+                        for (int n = in.i32(); n > 0; n--) items.accept(in);
+                        break;
+                    case Wire.ERROR:
+                        if (in.bool()) throw new Database.CancelledException();
+                        throw new Exception(in.str());
+                    case Wire.CONFLICT: {
+                        String message = in.str();
+                        throw new Database.ConflictException(message, in.student());
+                    }
+                    case Wire.LIMITED: {
+                        String message = in.str();
+                        throw new RequestLimiter.Rejected(message, in.i32());
+                    }
+                    default:
+                        throw new Exception("Unexpected reply from server.");
+                }
+            }
+        } catch (BufferUnderflowException ex) {
+            throw new Exception("Malformed reply from server.", ex);
+        } finally {
+            l.pending.remove(reqId);
+        }
+    }
+
+    // The live connection, (re)connecting if there is none
+    private Link link() throws Exception {
+        Link l = link;
+        if (l != null && !l.closed) return l;
+        synchronized (connectLock) {
+            l = link;
+            if (l != null && !l.closed) return l;
+            try {
+                l = new Link(host, port);
+            } catch (IOException ex) {
+                throw new Exception("Cannot reach student server at " + host + ":" + port + ": " + ex.getMessage(), ex);
+            }
+            // resumed before it is published, so no other call can go out on it before the login is back
+            String token = sessionToken;
+            try {
+                if (token != null && call(l, Wire.RESUME_SESSION, null, null, a -> a.str(token)).auth() == null) {
+                    sessionToken = null; // expired while disconnected: calls now need a fresh login
+                }
+            } catch (Exception ex) {
+                l.close();
+                throw ex;
+            }
+            link = l;
+            return l;
+        }
+    }
+
+    // ------------------------- CONNECTION -------------------------
+
+    /** One socket plus its reader thread; closed for good once the socket fails. */
+    private final class Link {
+        final Socket socket;
+        final DataOutputStream out;
+        final DataInputStream in;
+        final Map<Integer, BlockingQueue<Wire.In>> pending = new ConcurrentHashMap<>();
+        volatile boolean closed;
+
+        Link(String host, int port) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            out.writeInt(Wire.MAGIC);
+            out.writeInt(Wire.VERSION);
+            out.flush();
+            socket.setSoTimeout(CONNECT_TIMEOUT_MS);
+            if (in.readInt() != Wire.MAGIC || in.readInt() != Wire.VERSION) {
+                socket.close();
+                throw new IOException("not a student server (protocol mismatch)");
+            }
+            socket.setSoTimeout(0);
+            Thread t = new Thread(this::readLoop, "remote-reader");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        void send(Wire.Out frame) throws Exception {
+            synchronized (out) {
+                try {
+                    Wire.writeFrame(out, frame);
+                } catch (IOException ex) {
+                    close();
+                    throw new Exception("Connection to server lost.", ex);
+                }
+            }
+        }
+
+        void sendQuietly(Wire.Out frame) {
+            try { send(frame); } catch (Exception ignored) {}
+        }
+
+        private void readLoop() {
+            try {
+                Wire.In frame;
+                while ((frame = Wire.readFrame(in)) != null) {
+                    int reqId = frame.i32();
+                    if (reqId == 0) {
+                        event(frame);
+                        continue;
+                    }
+                    BlockingQueue<Wire.In> q = pending.get(reqId);
+                    if (q != null) q.add(frame); // else: a call that was cancelled or gave up
+                }
+            } catch (IOException | BufferUnderflowException ignored) {
+                // fall through: the connection is unusable
+            } finally {
+                close();
+            }
+        }
+
+        private void event(Wire.In frame) {
+            if (frame.i8() != Wire.EVENT) return;
+            StudentChange change = new StudentChange(StudentChange.Kind.values()[frame.i8()], frame.str(),
+                    new LinkedHashSet<>(frame.strings()));
+            for (Consumer<StudentChange> l : changeListeners) {
+                try {
+                    l.accept(change);
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            try { socket.close(); } catch (IOException ignored) {}
+            for (BlockingQueue<Wire.In> q : pending.values()) q.add(LOST);
+        }
+    }
+}
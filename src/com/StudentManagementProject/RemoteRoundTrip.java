@@ -0,0 +1,172 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RemoteRoundTrip.java
+ * Starts a StudentServer on a free localhost port over an in-memory engine and checks that calls
+ * made through RemoteRepository come back as the engine answered them (see the remote-roundtrip
+ * target in build.xml).
+ *
+ * Run: java -cp ... com.StudentManagementProject.RemoteRoundTrip
+ *
+ * - Login: calls before login are refused; admin and student logins
+ * - Students: insert, find (every field), id taken, conditional update conflict, completions
+ * - Search and paging over the wire
+ * - Edit requests: a student files one; only an admin may approve or reject, and the handler
+ *   recorded is the admin logged in on the connection, whatever name the caller passes
+ * - Timing: average round trip of findStudent
+ *
+ * Touches no files. Prints one line per failed check; exits with status 1 if any failed.
+ */
+public final class RemoteRoundTrip {
+
+    private static final int TIMED_CALLS = 2000;
+
+    private int checks;
+    private int failed;
+
+    public static void main(String[] args) throws Exception {
+        StudentRepository engine = Repositories.create("memory");
+        engine.initAsync();
+        engine.awaitInit();
+        StudentServer server = new StudentServer(engine, 0, 8);
+        server.start();
+        RemoteRoundTrip run = new RemoteRoundTrip();
+        try {
+            String address = "localhost:" + server.port();
+            RemoteRepository admin = new RemoteRepository(address);
+            admin.awaitInit();
+            run.login(admin);
+            run.students(engine, admin);
+            run.search(admin);
+            RemoteRepository student = new RemoteRepository(address);
+            student.awaitInit();
+            run.editRequests(admin, student);
+            run.timing(admin);
+        } finally {
+            server.stop();
+        }
+        System.out.println("[ROUNDTRIP] " + run.checks + " checks, " + run.failed + " failed");
+        if (run.failed > 0) System.exit(1);
+    }
+
+    // ------------------------- CHECKS -------------------------
+
+    private void login(RemoteRepository admin) throws Exception {
+        check("login: calls before login refused", fails(() -> admin.findStudent("RT1")));
+        check("login: wrong password", !admin.authenticateUser("admin", "nope").ok);
+        check("login: admin", admin.authenticateUser("admin", "admin").isAdmin());
+    }
+
+    private void students(StudentRepository engine, RemoteRepository admin) throws Exception {
+        admin.insertStudent("RT1", "Ravi Teja", "Suresh Teja", "2003-04-05", null, "ravi@example.com", "9000000101",
+                "Hyderabad", "BCA", "Sem 3", "Male");
+        Student local = engine.findStudent("RT1");
+        Student remote = admin.findStudent("RT1");
+        check("students: insert reached the engine", local != null);
+        check("students: find returns every field", local != null && remote != null && StudentDiff.changed(local, remote).isEmpty()
+                && local.age == remote.age && local.version == remote.version && local.courseSemester.equals(remote.courseSemester));
+        check("students: missing is null", admin.findStudent("RT-none") == null);
+        check("students: id taken", admin.isStudentIdTaken("RT1") && Boolean.TRUE.equals(admin.studentIdTakenIfKnown("RT1")));
+        check("students: duplicate id refused", fails(() -> admin.insertStudent("RT1", "Other", "", "", 20, "", "", "", "BCA", "Sem 1", "Male")));
+        check("students: id completions", admin.completeStudentIds("RT", 5).contains("RT1"));
+
+        int v = remote == null ? 0 : remote.version;
+        admin.updateStudent("RT1", "Ravi Teja", "Suresh Teja", "9000000102", "2003-04-05", "Male", "ravi@example.com",
+                "Hyderabad", "BCA", "Sem 3", null, v);
+        Database.ConflictException conflict = null;
+        try {
+            admin.updateStudent("RT1", "Ravi Teja", "Suresh Teja", "9000000103", "2003-04-05", "Male", "ravi@example.com",
+                    "Hyderabad", "BCA", "Sem 3", null, v);
+        } catch (Database.ConflictException ex) {
+            conflict = ex;
+        }
+        check("students: stale update conflicts with the current row", conflict != null && "9000000102".equals(conflict.current.phone));
+    }
+
+    private void search(RemoteRepository admin) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            admin.insertStudent("RTP" + i, "Roundtrip " + (char) ('E' - i), "", "", 20, "", "", "", "MCA", "Sem 1", "Female");
+        }
+        List<String> found = new ArrayList<>();
+        admin.streamSearch("id:RTP* course:MCA", s -> found.add(s.id), new Database.CancelToken());
+        check("search: structured", found.size() == 5);
+        RosterQuery rq = RosterQuery.all().withSearch("id:RTP*").withLimit(2).withOffset(2);
+        List<String> page = new ArrayList<>();
+        admin.streamStudentPage(rq, s -> page.add(s.id), new Database.CancelToken());
+        check("search: page", page.equals(List.of("RTP2", "RTP1")));
+        check("search: count", admin.countStudents(rq, new Database.CancelToken()) == 5);
+    }
+
+    private void editRequests(RemoteRepository admin, RemoteRepository student) throws Exception {
+        admin.createUser("rt1", "rt1-pass", "student", "RT1");
+        check("requests: student login", student.authenticateUser("rt1", "rt1-pass").ok);
+        check("requests: student sees only their row", student.findStudent("RT1") != null && fails(() -> student.findStudent("RTP0")));
+        student.createEditRequest("RT1", "address", "Warangal", "moved");
+        student.createEditRequest("RT1", "email", "ravi.t@example.com", "new mail");
+        int address = openRequest(admin, "address");
+        int email = openRequest(admin, "email");
+        check("requests: student may not approve", fails(() -> student.approveEditRequest(address, "admin")));
+
+        admin.approveEditRequest(address, "someone-else");
+        EditRequest approved = request(admin, address);
+        check("requests: approve applies", "Warangal".equals(admin.findStudent("RT1").address));
+        check("requests: approver is the session's admin", approved != null && "admin".equals(approved.handledBy));
+
+        admin.rejectEditRequest(email, "someone-else", "use the college address");
+        EditRequest rejected = request(admin, email);
+        check("requests: reject keeps the row", "ravi@example.com".equals(admin.findStudent("RT1").email));
+        check("requests: rejecter is the session's admin", rejected != null && "REJECTED".equals(rejected.status)
+                && "admin".equals(rejected.handledBy) && "use the college address".equals(rejected.handledReason));
+    }
+
+    private void timing(RemoteRepository admin) throws Exception {
+        for (int i = 0; i < 100; i++) admin.findStudent("RT1"); // warm-up
+        long t0 = System.nanoTime();
+        for (int i = 0; i < TIMED_CALLS; i++) admin.findStudent("RT1");
+        long ns = System.nanoTime() - t0;
+        System.out.println(String.format(Locale.ROOT, "[ROUNDTRIP] findStudent: %d calls, %.1f us per round trip",
+                TIMED_CALLS, ns / 1000.0 / TIMED_CALLS));
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private void check(String what, boolean ok) {
+        checks++;
+        if (ok) return;
+        failed++;
+        System.out.println("[ROUNDTRIP] FAILED " + what);
+    }
+
+    private static boolean fails(Action a) {
+        try {
+            a.run();
+            return false;
+        } catch (Exception ex) {
+            return true;
+        }
+    }
+
+    private static int openRequest(StudentRepository repo, String field) throws Exception {
+        int[] id = {-1};
+        repo.streamEditRequests(r -> {
+            if ("RT1".equals(r.studentId) && "OPEN".equals(r.status) && field.equals(r.field)) id[0] = r.id;
+        }, new Database.CancelToken());
+        return id[0];
+    }
+
+    private static EditRequest request(StudentRepository repo, int id) throws Exception {
+        EditRequest[] out = {null};
+        repo.streamEditRequests(r -> {
+            if (r.id == id) out[0] = r;
+        }, new Database.CancelToken());
+        return out[0];
+    }
+}
@@ -0,0 +1,42 @@
+package com.StudentManagementProject;
+
+/**
+ * Repositories.java
+ * Chooses the storage engine the UI runs on.
+ *
+ * - Default: the engine named by -Dstudent.engine=sqlite|memory|remote (sqlite if unset); remote
+ *   talks to a StudentServer at -Dstudent.server=host:port
+ * - use() swaps it, e.g. to run the same workload against both engines
+ */
+public final class Repositories {
+
+    private static volatile StudentRepository current;
+
+    private Repositories() {}
+
+    /** The engine in use; created on first call. */
+    public static StudentRepository current() {
+        StudentRepository r = current;
+        if (r == null) {
+            synchronized (Repositories.class) {
+                if (current == null) current = create(System.getProperty("student.engine", "sqlite"));
+                r = current;
+            }
+        }
+        return r;
+    }
+
+    public static void use(StudentRepository repository) {
+        current = repository;
+    }
+
+    /** New engine by name: "sqlite", "memory" or "remote". */
+    public static StudentRepository create(String engine) {
+        switch (engine.trim().toLowerCase()) {
+            case "sqlite": return new SqliteRepository();
+            case "memory": return new MemoryRepository();
+            case "remote": return new RemoteRepository(System.getProperty("student.server", "localhost:7070"));
+            default: throw new IllegalArgumentException("Unknown storage engine: " + engine);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.StudentManagementProject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestLimiter.java
+ * Per-student quota on new edit requests, checked before anything touches the database.
+ *
+ * - A token bucket per student id: up to -Dstudent.requests.burst requests at once (default 5),
+ *   refilled at -Dstudent.requests.per.hour (default 10); every createEditRequest takes one token,
+ *   and gives it back (refund) if the request is then refused or fails, so only filed requests count
+ * - Buckets are immutable and swapped with ConcurrentHashMap.compute, so takes for one student are
+ *   atomic and different students never contend; a full bucket is the same as no bucket, so full
+ *   ones are swept when the map grows
+ * - An empty bucket throws Rejected (with the wait until the next token) without touching the database
+ * - Counters for metrics: granted, rejected, refunded (stats())
+ *
+ * Package-private: held by the storage engines (Database, MemoryRepository).
+ */
+final class RequestLimiter {
+
+    /** A request refused by the quota; retryAfterMillis is how long until the next one is allowed. */
+    static final class Rejected extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final long retryAfterMillis;
+
+        Rejected(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    private static final int BURST = Math.max(1, Integer.getInteger("student.requests.burst", 5));
+    private static final int PER_HOUR = Math.max(1, Integer.getInteger("student.requests.per.hour", 10));
+    private static final double TOKENS_PER_NS = PER_HOUR / (double) TimeUnit.HOURS.toNanos(1);
+    private static final int SWEEP_AT = 10_000; // buckets
+
+    /** Tokens left as of atNs. Immutable. */
+    private static final class Bucket {
+        final double tokens;
+        final long atNs;
+
+        Bucket(double tokens, long atNs) {
+            this.tokens = tokens;
+            this.atNs = atNs;
+        }
+
+        double tokensAt(long now) {
+            return Math.min(BURST, tokens + (now - atNs) * TOKENS_PER_NS);
+        }
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder refunded = new LongAdder();
+
+    /** Takes one token for studentId, or throws Rejected if the quota is used up. */
+    void take(String studentId) throws Rejected {
+        String key = key(studentId);
+        long now = System.nanoTime();
+        if (buckets.size() >= SWEEP_AT) sweep(now);
+        long[] waitNs = {0};
+        buckets.compute(key, (k, b) -> {
+            double tokens = b == null ? BURST : b.tokensAt(now);
+            if (tokens >= 1) return new Bucket(tokens - 1, now);
+            waitNs[0] = (long) Math.ceil((1 - tokens) / TOKENS_PER_NS);
+            return b;
+        });
+        if (waitNs[0] > 0) {
+            rejected.increment();
+            throw new Rejected("Too many edit requests; you can file another one in " + describe(waitNs[0]) + ".",
+                    Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNs[0])));
+        }
+        granted.increment();
+    }
+
+    /** Gives back the token a take() granted for a request that was then refused or failed. */
+    void refund(String studentId) {
+        long now = System.nanoTime();
+        buckets.computeIfPresent(key(studentId), (k, b) -> new Bucket(Math.min(BURST, b.tokensAt(now) + 1), now));
+        refunded.increment();
+    }
+
+    String stats() {
+        return String.format(Locale.ROOT, "granted=%d rejected=%d refunded=%d tracked=%d",
+                granted.sum(), rejected.sum(), refunded.sum(), buckets.size());
+    }
+
+    // ------------------------- INTERNALS -------------------------
+
+    private static String key(String studentId) {
+        return studentId == null ? "" : studentId.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Drops buckets that have refilled completely
+    private void sweep(long now) {
+        buckets.entrySet().removeIf(e -> e.getValue().tokensAt(now) >= BURST);
+    }
+
+    private static String describe(long nanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        if (seconds < 120) return seconds + " s";
+        return (seconds + 59) / 60 + " min";
+    }
+}
@@ -3,6 +3,7 @@ package com.StudentManagementProject;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.function.Consumer;
 
 /**
  * RequestsDialog — admin UI to review & process edit requests
@@ -12,10 +13,15 @@ import java.awt.*;
  */
 public class RequestsDialog extends JDialog {
 
+    private static final long serialVersionUID = 1L;
+
     private final JFrame parent;
     private final String adminUsername;
+    private final StudentRepository repo = Repositories.current();
     private DefaultTableModel model;
     private JTable table;
+    private Database.CancelToken loadToken; // in-flight load, cancelled on refresh/close
+    private Consumer<StudentChange> changeListener; // remote engine: requests filed or handled elsewhere
 
     public RequestsDialog(JFrame parent, String adminUsername) {
         super(parent, "Edit Requests — Admin", true);
@@ -54,16 +60,41 @@ public class RequestsDialog extends JDialog {
         approveBtn.addActionListener(e -> doApprove());
         rejectBtn.addActionListener(e -> doReject());
         closeBtn.addActionListener(e -> dispose());
+
+        if ("remote".equals(repo.engine())) {
+            Timer refresh = new Timer(300, e -> loadRequests());
+            refresh.setRepeats(false);
+            changeListener = change -> {
+                if (change.kind == StudentChange.Kind.REQUESTS_CHANGED) SwingUtilities.invokeLater(refresh::restart);
+            };
+            repo.addChangeListener(changeListener);
+        }
     }
 
+    /** Streams requests in on a worker (ChunkedLoader); a newer load or closing the dialog cancels the running query. */
     private void loadRequests() {
-        try {
-            Database.fetchAllEditRequests(model);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to load requests: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        cancelLoad();
+        Database.CancelToken token = new Database.CancelToken();
+        loadToken = token;
+        new ChunkedLoader<EditRequest>(token, out -> repo.streamEditRequests(out, token),
+                ChunkedLoader.into(model, TableAdapters.editRequestColumns(), TableAdapters::row), null,
+                ex -> JOptionPane.showMessageDialog(this, "Failed to load requests: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)).execute();
+    }
+
+    private void cancelLoad() {
+        if (loadToken != null) {
+            loadToken.cancel();
+            loadToken = null;
         }
     }
 
+    @Override
+    public void dispose() {
+        cancelLoad();
+        if (changeListener != null) repo.removeChangeListener(changeListener);
+        super.dispose();
+    }
+
     private void doApprove() {
         int r = table.getSelectedRow();
         if (r == -1) {
@@ -81,7 +112,7 @@ public class RequestsDialog extends JDialog {
         if (conf != JOptionPane.YES_OPTION) return;
 
         try {
-            Database.approveEditRequest(id, adminUsername);
+            repo.approveEditRequest(id, adminUsername);
             JOptionPane.showMessageDialog(this, "Request approved and applied.", "Approved", JOptionPane.INFORMATION_MESSAGE);
             loadRequests();
         } catch (Exception ex) {
@@ -108,7 +139,7 @@ public class RequestsDialog extends JDialog {
         if (conf != JOptionPane.YES_OPTION) return;
 
         try {
-            Database.rejectEditRequest(id, adminUsername, reason);
+            repo.rejectEditRequest(id, adminUsername, reason);
             JOptionPane.showMessageDialog(this, "Request rejected.", "Rejected", JOptionPane.INFORMATION_MESSAGE);
             loadRequests();
         } catch (Exception ex) {
@@ -0,0 +1,90 @@
+package com.StudentManagementProject;
+
+/**
+ * RosterQuery.java
+ * One page of the admin roster: optional search text, column filters, sort order and page window.
+ *
+ * - Immutable; the with* methods return a modified copy
+ * - sortColumn uses StudentTableModel column indexes; rowid breaks ties so pages never overlap
+ * - Filters are exact (case-insensitive) matches; semester accepts "3" for "Sem 3"
+ *
+ * Evaluated by Database.countStudents / Database.streamStudentPage.
+ */
+public final class RosterQuery {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    public final String search;     // search box text (free text or field syntax), null for none
+    public final String course;     // null = any
+    public final String semester;   // null = any
+    public final String gender;     // null = any
+    public final Integer ageMin;    // inclusive, null = open
+    public final Integer ageMax;    // inclusive, null = open
+    public final int sortColumn;
+    public final boolean ascending;
+    public final int offset;
+    public final int limit;
+
+    private RosterQuery(String search, String course, String semester, String gender, Integer ageMin, Integer ageMax,
+                        int sortColumn, boolean ascending, int offset, int limit) {
+        this.search = blankToNull(search);
+        this.course = blankToNull(course);
+        this.semester = blankToNull(semester);
+        this.gender = blankToNull(gender);
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+        this.sortColumn = sortColumn;
+        this.ascending = ascending;
+        this.offset = Math.max(0, offset);
+        this.limit = limit;
+    }
+
+    /** First page of all students, by name. */
+    public static RosterQuery all() {
+        return new RosterQuery(null, null, null, null, null, null, StudentTableModel.COL_NAME, true, 0, DEFAULT_PAGE_SIZE);
+    }
+
+    public RosterQuery withSearch(String search) {
+        return new RosterQuery(search, course, semester, gender, ageMin, ageMax, sortColumn, ascending, 0, limit);
+    }
+
+    public RosterQuery withFilters(String course, String semester, String gender, Integer ageMin, Integer ageMax) {
+        return new RosterQuery(search, course, semester, gender, ageMin, ageMax, sortColumn, ascending, 0, limit);
+    }
+
+    public RosterQuery withSort(int sortColumn, boolean ascending) {
+        return new RosterQuery(search, course, semester, gender, ageMin, ageMax, sortColumn, ascending, 0, limit);
+    }
+
+    public RosterQuery withOffset(int offset) {
+        return new RosterQuery(search, course, semester, gender, ageMin, ageMax, sortColumn, ascending, offset, limit);
+    }
+
+    public RosterQuery withLimit(int limit) {
+        return new RosterQuery(search, course, semester, gender, ageMin, ageMax, sortColumn, ascending, offset, limit);
+    }
+
+    public boolean hasFilters() {
+        return course != null || semester != null || gender != null || ageMin != null || ageMax != null;
+    }
+
+    /** Same rows regardless of sort/page (i.e. the total count is still valid). */
+    public boolean sameRows(RosterQuery other) {
+        return other != null && eq(search, other.search) && eq(course, other.course) && eq(semester, other.semester)
+                && eq(gender, other.gender) && eq(ageMin, other.ageMin) && eq(ageMax, other.ageMax);
+    }
+
+    /** Stable text form, used as the search cache key. */
+    String key() {
+        return "page:" + search + '|' + course + '|' + semester + '|' + gender + '|' + ageMin + '|' + ageMax
+                + '|' + sortColumn + (ascending ? "+" : "-") + '|' + offset + '|' + limit;
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.trim().isEmpty() ? null : s.trim();
+    }
+}
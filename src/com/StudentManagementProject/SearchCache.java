@@ -0,0 +1,154 @@
+package com.StudentManagementProject;
+
+import java.sql.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SearchCache.java
+ * LRU cache of searchStudents results (immutable Student records, safe to share), keyed by
+ * normalized query text.
+ *
+ * - Bounded by entry count, rows per entry and approximate heap bytes
+ * - Invalidated explicitly by Database write paths (invalidate())
+ * - Invalidated when another process commits, detected via PRAGMA data_version
+ *   on a long-lived monitor connection
+ * - Hit/miss counters for metrics (stats())
+ *
+ * Package-private: only Database talks to it.
+ */
+final class SearchCache {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final int MAX_ROWS_PER_ENTRY = 2000;
+    private static final long MAX_BYTES = 8L * 1024 * 1024;
+
+    private final String dbUrl;
+    private final LinkedHashMap<String, Entry> map = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long generation;
+
+    // metrics
+    private long hits, misses, invalidations;
+
+    // PRAGMA data_version is only comparable on the same connection, so keep one open
+    private Connection versionConn;
+    private long lastDataVersion = -1;
+
+    private static final class Entry {
+        final List<Student> rows;
+        final long size;
+
+        Entry(List<Student> rows, long size) {
+            this.rows = rows;
+            this.size = size;
+        }
+    }
+
+    SearchCache(String dbUrl) {
+        this.dbUrl = dbUrl;
+    }
+
+    /**
+     * Cache key for a query. SQLite LIKE is case-insensitive for ASCII only,
+     * so non-ASCII queries keep their case to stay result-equivalent.
+     */
+    static String normalize(String q) {
+        if (q == null) return "";
+        String s = q.trim();
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 127) return s;
+        }
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the current generation after checking for external changes.
+     * Callers pass it back to put() so results computed before a write are dropped.
+     */
+    synchronized long begin() {
+        checkDataVersion();
+        return generation;
+    }
+
+    synchronized List<Student> get(String key) {
+        Entry e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.rows;
+    }
+
+    synchronized void put(String key, List<Student> rows, long gen) {
+        if (gen != generation) return; // data changed while the query ran
+        if (rows.size() > MAX_ROWS_PER_ENTRY) return;
+        long size = estimate(key, rows);
+        if (size > MAX_BYTES / 4) return;
+
+        Entry old = map.put(key, new Entry(rows, size));
+        if (old != null) bytes -= old.size;
+        bytes += size;
+
+        Iterator<Map.Entry<String, Entry>> it = map.entrySet().iterator();
+        while ((map.size() > MAX_ENTRIES || bytes > MAX_BYTES) && it.hasNext()) {
+            bytes -= it.next().getValue().size;
+            it.remove();
+        }
+    }
+
+    /** Drop everything; called after every write that touches students. */
+    synchronized void invalidate() {
+        generation++;
+        invalidations++;
+        map.clear();
+        bytes = 0;
+    }
+
+    synchronized String stats() {
+        long total = hits + misses;
+        double ratio = total == 0 ? 0.0 : (double) hits / total;
+        return String.format(Locale.ROOT, "entries=%d bytes=%d hits=%d misses=%d hitRatio=%.2f invalidations=%d",
+                map.size(), bytes, hits, misses, ratio, invalidations);
+    }
+
+    private void checkDataVersion() {
+        try {
+            if (versionConn == null || versionConn.isClosed()) {
+                versionConn = DriverManager.getConnection(dbUrl);
+                lastDataVersion = -1;
+            }
+            try (Statement s = versionConn.createStatement();
+                 ResultSet rs = s.executeQuery("PRAGMA data_version;")) {
+                long v = rs.next() ? rs.getLong(1) : -1;
+                if (lastDataVersion != -1 && v != lastDataVersion) invalidate();
+                lastDataVersion = v;
+            }
+        } catch (SQLException ex) {
+            // can't tell whether the file changed, so don't trust cached rows
+            invalidate();
+            try { if (versionConn != null) versionConn.close(); } catch (SQLException ignored) {}
+            versionConn = null;
+        }
+    }
+
+    // Rough heap size: one Student (header + 12 refs) plus its strings (2 bytes per char plus
+    // headers); course, semester and Course/Sem are shared per pair, so they are not counted
+    private static long estimate(String key, List<Student> rows) {
+        long size = 64 + key.length() * 2L;
+        for (Student st : rows) {
+            size += 16 + 12 * 8L + 8;
+            size += str(st.id) + str(st.name) + str(st.fatherName) + str(st.dob) + str(st.gender)
+                    + str(st.phone) + str(st.email) + str(st.address);
+        }
+        return size;
+    }
+
+    private static long str(String v) {
+        return v == null ? 0 : 40 + v.length() * 2L;
+    }
+}
@@ -0,0 +1,102 @@
+package com.StudentManagementProject;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions.java
+ * Login sessions issued by authenticateUser: one password check, then the token stands in for it.
+ *
+ * - Tokens are 32 random bytes (URL-safe Base64); the map lookup is the whole per-request auth cost
+ * - Sliding expiry: each use pushes the deadline out by the idle timeout
+ *   (-Dstudent.session.idle.minutes, default 30)
+ * - Expired sessions are dropped when touched, and swept when the map grows past SWEEP_AT
+ * - A password change ends the user's other sessions (removeUser)
+ *
+ * Package-private: held by the storage engines (Database, MemoryRepository).
+ */
+final class Sessions {
+
+    static final long DEFAULT_IDLE_MS = Long.getLong("student.session.idle.minutes", 30) * 60_000L;
+
+    private static final int SWEEP_AT = 10_000;
+
+    static final class Session {
+        final String token;
+        final String username;
+        final String role;
+        final String studentId;
+        volatile long expiresAt; // System.nanoTime() deadline
+
+        Session(String token, String username, String role, String studentId, long expiresAt) {
+            this.token = token;
+            this.username = username;
+            this.role = role;
+            this.studentId = studentId;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isAdmin() {
+            return "admin".equalsIgnoreCase(role);
+        }
+
+        Database.AuthResult toAuthResult() {
+            return new Database.AuthResult(true, username, role, studentId, token);
+        }
+    }
+
+    private final long idleNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    Sessions(long idleMillis) {
+        this.idleNanos = idleMillis * 1_000_000L;
+    }
+
+    Session create(String username, String role, String studentId) {
+        if (sessions.size() >= SWEEP_AT) sweep();
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session s = new Session(token, username, role, studentId, System.nanoTime() + idleNanos);
+        sessions.put(token, s);
+        return s;
+    }
+
+    /** The live session for token (extending it), or null if unknown or expired. */
+    Session touch(String token) {
+        if (token == null) return null;
+        Session s = sessions.get(token);
+        if (s == null) return null;
+        long now = System.nanoTime();
+        if (now - s.expiresAt > 0) {
+            sessions.remove(token, s);
+            return null;
+        }
+        s.expiresAt = now + idleNanos;
+        return s;
+    }
+
+    void remove(String token) {
+        if (token != null) sessions.remove(token);
+    }
+
+    /** Ends every session of username except keepToken (may be null). */
+    void removeUser(String username, String keepToken) {
+        sessions.values().removeIf(s -> s.username.equals(username) && !s.token.equals(keepToken));
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        for (Iterator<Session> it = sessions.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().expiresAt > 0) it.remove();
+        }
+    }
+}
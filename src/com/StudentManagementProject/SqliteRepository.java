@@ -0,0 +1,215 @@
+package com.StudentManagementProject;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * SqliteRepository.java
+ * The student.db engine: every call goes to the static Database methods, so behaviour
+ * (search cache, FTS, lookup tables, enrollment stats) is exactly the pre-repository one.
+ *
+ * Package-private: obtain it through Repositories.
+ */
+final class SqliteRepository implements StudentRepository {
+
+    @Override
+    public String engine() {
+        return "sqlite";
+    }
+
+    private CompletableFuture<Void> init;
+
+    @Override
+    public synchronized CompletableFuture<Void> initAsync() {
+        if (init == null) init = Database.dbInitAsync();
+        return init;
+    }
+
+    @Override
+    public void awaitInit() throws Exception {
+        Database.awaitInit();
+    }
+
+    // ------------------------- STUDENTS -------------------------
+
+    @Override
+    public void insertStudent(String id, String name, String fatherName, String dob, Integer age, String email, String phone,
+                              String address, String course, String semester, String gender) throws Exception {
+        Database.insertStudent(id, name, fatherName, dob, age, email, phone, address, course, semester, gender);
+    }
+
+    @Override
+    public Database.EnrollResult enrollStudent(String id, String name, String fatherName, String dob, Integer age, String email,
+                                               String phone, String address, String course, String semester, String gender) throws Exception {
+        return Database.enrollStudent(id, name, fatherName, dob, age, email, phone, address, course, semester, gender);
+    }
+
+    @Override
+    public List<Database.EnrollResult> enrollStudents(List<Student> students) throws Exception {
+        return Database.enrollStudents(students);
+    }
+
+    @Override
+    public void updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                              String email, String address, String course, String semester, Integer age) throws Exception {
+        Database.updateStudent(id, name, fatherName, phone, dob, gender, email, address, course, semester, age);
+    }
+
+    @Override
+    public int updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                             String email, String address, String course, String semester, Integer age, int expectedVersion) throws Exception {
+        return Database.updateStudent(id, name, fatherName, phone, dob, gender, email, address, course, semester, age, expectedVersion);
+    }
+
+    @Override
+    public void deleteStudent(String id) throws Exception {
+        Database.deleteStudent(id);
+    }
+
+    @Override
+    public boolean isStudentIdTaken(String id) throws Exception {
+        return Database.isStudentIdTaken(id);
+    }
+
+    @Override
+    public Boolean studentIdTakenIfKnown(String id) {
+        return Database.studentIdTakenIfKnown(id);
+    }
+
+    @Override
+    public Student findStudent(String id) throws Exception {
+        return Database.findStudent(id);
+    }
+
+    @Override
+    public void streamSearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        Database.streamSearch(q, out, token);
+    }
+
+    @Override
+    public void streamFuzzySearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        Database.streamFuzzySearch(q, out, token);
+    }
+
+    @Override
+    public int countStudents(RosterQuery rq, Database.CancelToken token) throws Exception {
+        return Database.countStudents(rq, token);
+    }
+
+    @Override
+    public void streamStudentPage(RosterQuery rq, Consumer<Student> out, Database.CancelToken token) throws Exception {
+        Database.streamStudentPage(rq, out, token);
+    }
+
+    @Override
+    public String explainSearch(String q) throws Exception {
+        return Database.explainSearch(q);
+    }
+
+    @Override
+    public String explainRosterPage(RosterQuery rq) throws Exception {
+        return Database.explainRosterPage(rq);
+    }
+
+    @Override
+    public List<String> completeStudentNames(String prefix, int limit) {
+        return Database.completeStudentNames(prefix, limit);
+    }
+
+    @Override
+    public List<String> completeStudentIds(String prefix, int limit) {
+        return Database.completeStudentIds(prefix, limit);
+    }
+
+    @Override
+    public EnrollmentSummary enrollmentSummary() throws Exception {
+        return Database.enrollmentSummary();
+    }
+
+    @Override
+    public void rebuildEnrollmentStats() throws Exception {
+        Database.rebuildEnrollmentStats();
+    }
+
+    // ------------------------- USERS -------------------------
+
+    @Override
+    public void createUser(String username, String passwordPlain, String role, String studentId) throws Exception {
+        Database.createUser(username, passwordPlain, role, studentId);
+    }
+
+    @Override
+    public boolean userExists(String username) throws Exception {
+        return Database.userExists(username);
+    }
+
+    @Override
+    public Database.AuthResult authenticateUser(String username, String passwordPlain) throws Exception {
+        return Database.authenticateUser(username, passwordPlain);
+    }
+
+    @Override
+    public void changePassword(String username, String oldPassword, String newPassword) throws Exception {
+        Database.changePassword(username, oldPassword, newPassword);
+    }
+
+    @Override
+    public void resetPassword(String adminUsername, String adminPassword, String targetUsername, String newPassword) throws Exception {
+        Database.resetPassword(adminUsername, adminPassword, targetUsername, newPassword);
+    }
+
+    @Override
+    public void resetPassword(Database.AuthResult adminSession, String targetUsername, String newPassword) throws Exception {
+        Database.resetPassword(adminSession, targetUsername, newPassword);
+    }
+
+    @Override
+    public Database.AuthResult resumeSession(String token) {
+        return Database.resumeSession(token);
+    }
+
+    @Override
+    public void logout(String token) {
+        Database.logout(token);
+    }
+
+    @Override
+    public void changePassword(Database.AuthResult session, String newPassword) throws Exception {
+        Database.changePassword(session, newPassword);
+    }
+
+    // ------------------------- EDIT REQUESTS -------------------------
+
+    @Override
+    public boolean createEditRequest(String studentId, String field, String newValue, String message) throws Exception {
+        return Database.createEditRequest(studentId, field, newValue, message);
+    }
+
+    @Override
+    public void streamEditRequests(Consumer<EditRequest> out, Database.CancelToken token) throws Exception {
+        Database.streamEditRequests(out, token);
+    }
+
+    @Override
+    public void approveEditRequest(int requestId, String adminUsername) throws Exception {
+        Database.approveEditRequest(requestId, adminUsername);
+    }
+
+    @Override
+    public void rejectEditRequest(int requestId, String adminUsername, String reason) throws Exception {
+        Database.rejectEditRequest(requestId, adminUsername, reason);
+    }
+
+    // ------------------------- CHANGES -------------------------
+
+    @Override
+    public void addChangeListener(Consumer<StudentChange> l) {
+        Database.addChangeListener(l);
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<StudentChange> l) {
+        Database.removeChangeListener(l);
+    }
+}
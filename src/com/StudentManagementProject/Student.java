@@ -0,0 +1,58 @@
+package com.StudentManagementProject;
+
+/**
+ * Student.java
+ * One student as read from a StudentRepository (see Database.streamSearch and friends).
+ *
+ * - Immutable, so rows can be cached, shared between threads and handed to several consumers
+ * - age is the age today (from dob) or, for students without a valid dob, the stored age
+ * - courseSemester is the joined "Course - Sem" display text, shared per course/semester pair
+ * - version is the row version it was read at (bumped by every write to the row); pass it back to
+ *   the conditional updateStudent to detect concurrent edits. 0 for records not read from an engine
+ *
+ * Plain data with no Swing types; tables are filled from it by StudentTableModel and TableAdapters.
+ */
+public final class Student {
+
+    public final String id;
+    public final String name;
+    public final String fatherName;
+    public final String dob;        // yyyy-MM-dd, or null
+    public final String gender;
+    public final String phone;
+    public final String email;
+    public final String address;
+    public final String course;
+    public final String semester;
+    public final String courseSemester;
+    public final int age;
+    public final int version;
+
+    public Student(String id, String name, String fatherName, String dob, String gender, String phone,
+                   String email, String address, String course, String semester, int age) {
+        this(id, name, fatherName, dob, gender, phone, email, address, course, semester,
+                Database.joinCourseSemester(course, semester), age, 0);
+    }
+
+    Student(String id, String name, String fatherName, String dob, String gender, String phone, String email,
+            String address, String course, String semester, String courseSemester, int age, int version) {
+        this.id = id;
+        this.name = name;
+        this.fatherName = fatherName;
+        this.dob = dob;
+        this.gender = gender;
+        this.phone = phone;
+        this.email = email;
+        this.address = address;
+        this.course = course;
+        this.semester = semester;
+        this.courseSemester = courseSemester;
+        this.age = age;
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + name;
+    }
+}
@@ -0,0 +1,37 @@
+package com.StudentManagementProject;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * StudentChange.java
+ * Notification that a write went through, for screens that show data they did not write themselves
+ * (see StudentRepository.addChangeListener).
+ *
+ * Only says what changed, not the new values; listeners re-read what they display. For
+ * STUDENT_UPDATED, fields names the columns that changed (edit-request field names: name,
+ * father_name, dob, ...), so a screen can skip refreshes that do not touch what it shows.
+ */
+public final class StudentChange {
+
+    public enum Kind { STUDENT_ADDED, STUDENT_UPDATED, STUDENT_DELETED, REQUESTS_CHANGED }
+
+    public final Kind kind;
+    public final String studentId; // null when not known (e.g. a rejected request)
+    public final Set<String> fields; // STUDENT_UPDATED: the fields that changed; empty otherwise
+
+    public StudentChange(Kind kind, String studentId) {
+        this(kind, studentId, Collections.emptySet());
+    }
+
+    public StudentChange(Kind kind, String studentId, Set<String> fields) {
+        this.kind = kind;
+        this.studentId = studentId;
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    @Override
+    public String toString() {
+        return fields.isEmpty() ? kind + " " + studentId : kind + " " + studentId + " " + fields;
+    }
+}
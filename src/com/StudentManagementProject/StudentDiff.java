@@ -0,0 +1,77 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * StudentDiff.java
+ * Field-by-field comparison of Student records: narrow updates and resolving concurrent edits.
+ *
+ * - Fields are named like edit request fields / students columns (name, father_name, dob, ...);
+ *   age is derived from dob and not compared on its own
+ * - Values compare trimmed, with null and blank equal (what the form can express)
+ * - with(): one record with some fields taken from another, for merging an edit onto a row
+ *   someone else changed meanwhile (keeps the row's id and version)
+ *
+ * Package-private: used by the storage engines (updateStudent) and the admin form (StudentManagement).
+ */
+final class StudentDiff {
+
+    static final String[] FIELDS = {"name", "father_name", "dob", "gender", "phone", "email", "address", "course", "semester"};
+    private static final String[] LABELS = {"Name", "Father's name", "DOB", "Gender", "Phone", "E-mail", "Address", "Course", "Semester"};
+
+    private StudentDiff() {}
+
+    static String value(Student s, String field) {
+        switch (field) {
+            case "name": return s.name;
+            case "father_name": return s.fatherName;
+            case "dob": return s.dob;
+            case "gender": return s.gender;
+            case "phone": return s.phone;
+            case "email": return s.email;
+            case "address": return s.address;
+            case "course": return s.course;
+            case "semester": return s.semester;
+            default: throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    static String label(String field) {
+        for (int i = 0; i < FIELDS.length; i++) if (FIELDS[i].equals(field)) return LABELS[i];
+        return field;
+    }
+
+    /** Fields whose values differ between a and b, in FIELDS order. */
+    static Set<String> changed(Student a, Student b) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String f : FIELDS) if (!same(value(a, f), value(b, f))) out.add(f);
+        return out;
+    }
+
+    /** Those of fields whose values differ between a and b. */
+    static List<String> differing(Collection<String> fields, Student a, Student b) {
+        List<String> out = new ArrayList<>();
+        for (String f : fields) if (!same(value(a, f), value(b, f))) out.add(f);
+        return out;
+    }
+
+    /** onto with the given fields taken from from; keeps onto's id and version. */
+    static Student with(Student onto, Student from, Collection<String> fields) {
+        String[] v = new String[FIELDS.length];
+        for (int i = 0; i < FIELDS.length; i++) v[i] = value(fields.contains(FIELDS[i]) ? from : onto, FIELDS[i]);
+        return new Student(onto.id, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8],
+                Database.joinCourseSemester(v[7], v[8]), onto.age, onto.version);
+    }
+
+    private static boolean same(String a, String b) {
+        return norm(a).equals(norm(b));
+    }
+
+    private static String norm(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
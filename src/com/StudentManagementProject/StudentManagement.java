@@ -6,9 +6,17 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import javax.swing.*;
 import javax.swing.event.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 
 /**
  * StudentManagement.java
@@ -21,14 +29,36 @@ public class StudentManagement {
     JFrame frame;
     private JTextField idField, nameField, dobField, ageField, emailField, phoneField, fatherField, searchField;
     private JTextArea addressArea;
+    private JLabel idWarning; // shown when the typed id already exists
+    private final AtomicInteger idCheck = new AtomicInteger(); // bumped per keystroke; older answers are dropped
     private JComboBox<String> genderCombo, courseCombo, semesterCombo;
     private JTable table;
-    private DefaultTableModel model;
+    private StudentTableModel model;
+    private final StudentRepository repo = Repositories.current(); // storage engine (sqlite unless -Dstudent.engine=memory|remote)
     private Database.AuthResult auth; // logged-in user
+    private Database.CancelToken tableToken; // in-flight search/load, cancelled when superseded
+    private RosterQuery roster = RosterQuery.all(); // search, filters, sort and page currently shown
+    private RosterQuery countedQuery; // query rosterTotal was counted for (null = recount)
+    private int rosterTotal;
+    private JTextField courseFilter, semesterFilter, ageMinFilter, ageMaxFilter;
+    private JComboBox<String> genderFilter;
+    private JLabel pageLabel;
+    private JButton prevPageBtn, nextPageBtn;
+    private DashboardPanel dashboard; // enrollment headcounts tab
+    private Student editBase; // row the form was filled from, at the version read (null = typed in)
+    private Student editLoaded; // the form as filled from editBase, to tell which fields the admin edited
     private static final DateTimeFormatter DOB_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int CHANGE_REFRESH_MS = 300;
 
     public static void main(String[] args) {
+        final long t0 = System.nanoTime();
+
+        // Initialize DB (creates tables, migrations, default admin) on its own thread,
+        // overlapping with Swing/Nimbus class loading and login dialog construction
+        Repositories.current().initAsync();
+
         EventQueue.invokeLater(() -> {
+            logPhase("EDT start", t0);
             try {
                 // Nimbus L&F for modern look
                 for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
@@ -38,27 +68,28 @@ public class StudentManagement {
                     }
                 }
             } catch (Exception ignored) {}
+            logPhase("look and feel", t0);
 
             try {
-                // Initialize DB (creates tables, migrations, default admin)
-                Database.dbInit();
-
-                // Show login dialog
-                Database.AuthResult ar = LoginDialog.showLogin(null);
+                // Show login dialog (login waits for DB init only when credentials are submitted)
+                Database.AuthResult ar = login.showLogin(null, () -> logPhase("login dialog shown", t0));
                 if (ar == null || !ar.ok) {
                     System.out.println("Login cancelled or failed. Exiting.");
                     System.exit(0);
                 }
 
                 // If admin -> open admin UI, else open student view
+                long t1 = System.nanoTime();
                 if ("admin".equalsIgnoreCase(ar.role)) {
                     StudentManagement win = new StudentManagement(ar);
-                    win.frame.setVisible(true);
-                    win.loadAllStudents();
+                    win.frame.setVisible(true); // visible before the roster arrives
+                    logPhase("admin window shown", t1);
+                    win.loadAllStudents(() -> logPhase("students loaded", t1));
                 } else {
                     // open StudentView for student
                     StudentView sv = new StudentView(ar);
                     sv.setVisible(true);
+                    logPhase("student view shown", t1);
                 }
 
             } catch (Exception e) {
@@ -69,6 +100,10 @@ public class StudentManagement {
         });
     }
 
+    private static void logPhase(String phase, long startNanos) {
+        System.out.println("[STARTUP] " + phase + ": " + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+    }
+
     public StudentManagement(Database.AuthResult auth) {
         this.auth = auth;
         initialize();
@@ -85,7 +120,25 @@ public class StudentManagement {
         frame.getContentPane().add(split, BorderLayout.CENTER);
 
         split.setLeftComponent(buildFormPanel());
-        split.setRightComponent(buildTablePanel());
+        // Students table and the enrollment dashboard share the right side
+        dashboard = new DashboardPanel(repo);
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Students", buildTablePanel());
+        tabs.addTab("Dashboard", dashboard);
+        tabs.addChangeListener(e -> {
+            if (tabs.getSelectedComponent() == dashboard) dashboard.refresh();
+        });
+        split.setRightComponent(tabs);
+
+        // On the remote engine other clients write too; refresh the visible page when they do.
+        // Local engines only see this window's own writes, which already reload.
+        if ("remote".equals(repo.engine())) {
+            Timer refresh = new Timer(CHANGE_REFRESH_MS, e -> reloadAfterChange());
+            refresh.setRepeats(false); // a burst of changes is one reload
+            repo.addChangeListener(change -> {
+                if (change.kind != StudentChange.Kind.REQUESTS_CHANGED) SwingUtilities.invokeLater(refresh::restart);
+            });
+        }
     }
 
     private JPanel buildFormPanel() {
@@ -104,6 +157,12 @@ public class StudentManagement {
         idField = new JTextField();
         gbc.gridx = 1; gbc.gridy = y++; gbc.weightx = 1.0;
         p.add(idField, gbc);
+        idWarning = new JLabel(" ");
+        idWarning.setForeground(new Color(180, 40, 40));
+        gbc.gridx = 1; gbc.gridy = y++;
+        p.add(idWarning, gbc);
+        new AutoComplete(idField, prefix -> repo.completeStudentIds(prefix, 10));
+        idField.getDocument().addDocumentListener(new SimpleDocListener(this::checkIdTaken));
 
         // Name
         gbc.gridx = 0; gbc.gridy = y; gbc.weightx = 0.0;
@@ -199,7 +258,7 @@ public class StudentManagement {
         clearBtn.addActionListener(e -> clearForm());
         changePwdBtn.addActionListener(e -> {
             // open change password dialog as admin
-            if (auth != null) ChangePasswordDialog.showDialog(frame, auth.username, true);
+            if (auth != null) login.showChangePassword(frame, auth);
             else JOptionPane.showMessageDialog(frame, "Admin context not available.", "Error", JOptionPane.ERROR_MESSAGE);
         });
 
@@ -213,6 +272,7 @@ public class StudentManagement {
                 Class<?> cls = Class.forName("com.StudentManagementProject.RequestsDialog");
                 java.lang.reflect.Method m = cls.getMethod("showForAdmin", javax.swing.JFrame.class, String.class);
                 m.invoke(null, frame, auth.username);
+                if (dashboard.isShowing()) dashboard.refresh(); // approvals may have changed the counts
             } catch (ClassNotFoundException cnf) {
                 JOptionPane.showMessageDialog(frame, "RequestsDialog class not found.\nPlease add RequestsDialog.java to the project to use Manage Requests.", "Not found", JOptionPane.ERROR_MESSAGE);
             } catch (Exception ex) {
@@ -242,31 +302,69 @@ public class StudentManagement {
         toolbar.setLayout(new BoxLayout(toolbar, BoxLayout.X_AXIS));
         toolbar.add(new JLabel(" Search: "));
         searchField = new JTextField();
+        searchField.setToolTipText("Free text, or fields: course:\"B.Tech\" sem:3 name:ra* age:18..21");
+        new AutoComplete(searchField, prefix -> prefix.indexOf(':') >= 0 ? List.of() : repo.completeStudentNames(prefix, 10));
         toolbar.add(searchField);
         toolbar.add(Box.createRigidArea(new Dimension(8,0)));
+        JButton explainBtn = styledButton("Explain");
+        toolbar.add(explainBtn);
+        toolbar.add(Box.createRigidArea(new Dimension(4,0)));
         JButton showAll = styledButton("Show All");
         toolbar.add(showAll);
-        p.add(toolbar, BorderLayout.NORTH);
-
-        model = new DefaultTableModel();
-        model.addColumn("Id");
-        model.addColumn("Name");
-        model.addColumn("Father");
-        model.addColumn("DOB");
-        model.addColumn("Gender");
-        model.addColumn("Phone");
-        model.addColumn("Course/Sem");
-        model.addColumn("E-mail");
-        model.addColumn("Address");
-        model.addColumn("Age");
-        model.addColumn("Course");
-        model.addColumn("Semester");
+
+        // Column filters, applied in SQL together with the search text
+        JPanel filterBar = new JPanel();
+        filterBar.setLayout(new BoxLayout(filterBar, BoxLayout.X_AXIS));
+        courseFilter = new JTextField(8);
+        semesterFilter = new JTextField(4);
+        genderFilter = new JComboBox<>(new String[] {"Any", "Male", "Female", "Other"});
+        ageMinFilter = new JTextField(3);
+        ageMaxFilter = new JTextField(3);
+        filterBar.add(new JLabel(" Course: "));
+        filterBar.add(courseFilter);
+        filterBar.add(new JLabel("  Sem: "));
+        filterBar.add(semesterFilter);
+        filterBar.add(new JLabel("  Gender: "));
+        filterBar.add(genderFilter);
+        filterBar.add(new JLabel("  Age: "));
+        filterBar.add(ageMinFilter);
+        filterBar.add(new JLabel(" to "));
+        filterBar.add(ageMaxFilter);
+        filterBar.add(Box.createRigidArea(new Dimension(8,0)));
+        JButton applyFilters = styledButton("Filter");
+        filterBar.add(applyFilters);
+        filterBar.add(Box.createRigidArea(new Dimension(4,0)));
+        JButton clearFilters = styledButton("Clear");
+        filterBar.add(clearFilters);
+
+        JPanel north = new JPanel(new GridLayout(2, 1, 0, 6));
+        north.add(toolbar);
+        north.add(filterBar);
+        p.add(north, BorderLayout.NORTH);
+
+        model = new StudentTableModel();
 
         table = new JTable(model);
         table.setFillsViewportHeight(true);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Header clicks sort in SQL (and reload page 1) instead of sorting the loaded page
+        table.setRowSorter(new ServerSorter(model, (column, ascending) -> {
+            roster = roster.withSort(column, ascending);
+            reloadRoster(null);
+        }));
         p.add(new JScrollPane(table), BorderLayout.CENTER);
 
+        JPanel pager = new JPanel(new FlowLayout(FlowLayout.RIGHT, 6, 0));
+        prevPageBtn = styledButton("< Prev");
+        nextPageBtn = styledButton("Next >");
+        pageLabel = new JLabel(" ");
+        pager.add(pageLabel);
+        pager.add(prevPageBtn);
+        pager.add(nextPageBtn);
+        p.add(pager, BorderLayout.SOUTH);
+        prevPageBtn.setEnabled(false);
+        nextPageBtn.setEnabled(false);
+
         // Selection -> populate form
         table.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && table.getSelectedRow() != -1) {
@@ -277,22 +375,135 @@ public class StudentManagement {
         // Search live
         searchField.getDocument().addDocumentListener(new SimpleDocListener(() -> {
             String q = searchField.getText().trim();
-            try {
-                if (q.isEmpty()) {
-                    // do nothing, user can press show all
-                } else {
-                    Database.searchStudents(model, q);
-                }
-            } catch (Exception ex) {
-                showError("Search failed: " + ex.getMessage());
-            }
+            runSearch(q.isEmpty() ? null : q); // cleared box: back to the first page of the filtered roster
         }));
 
-        showAll.addActionListener(e -> loadAllStudents());
+        showAll.addActionListener(e -> {
+            setFilterFields(null, null, null, null, null);
+            roster = roster.withFilters(null, null, null, null, null);
+            loadAllStudents();
+        });
+        explainBtn.addActionListener(e -> onExplain());
+        applyFilters.addActionListener(e -> applyFilters());
+        for (JTextField f : new JTextField[] {courseFilter, semesterFilter, ageMinFilter, ageMaxFilter}) {
+            f.addActionListener(e -> applyFilters());
+        }
+        clearFilters.addActionListener(e -> {
+            setFilterFields(null, null, null, null, null);
+            applyFilters();
+        });
+        prevPageBtn.addActionListener(e -> {
+            roster = roster.withOffset(roster.offset - roster.limit);
+            reloadRoster(null);
+        });
+        nextPageBtn.addActionListener(e -> {
+            roster = roster.withOffset(roster.offset + roster.limit);
+            reloadRoster(null);
+        });
 
         return p;
     }
 
+    /**
+     * Streams the first page of search results (or of the plain roster when q is null) into the
+     * table off the EDT (ChunkedLoader). Each keystroke cancels the previous query so only the
+     * latest result reaches the table.
+     */
+    private void runSearch(String q) {
+        roster = roster.withSearch(q);
+        reloadRoster(null);
+    }
+
+    private void applyFilters() {
+        Integer ageMin, ageMax;
+        try {
+            ageMin = ageMinFilter.getText().trim().isEmpty() ? null : Integer.valueOf(ageMinFilter.getText().trim());
+            ageMax = ageMaxFilter.getText().trim().isEmpty() ? null : Integer.valueOf(ageMaxFilter.getText().trim());
+        } catch (NumberFormatException ex) {
+            showError("Age filter must be a whole number.");
+            return;
+        }
+        String gender = "Any".equals(genderFilter.getSelectedItem()) ? null : (String) genderFilter.getSelectedItem();
+        roster = roster.withFilters(courseFilter.getText(), semesterFilter.getText(), gender, ageMin, ageMax);
+        reloadRoster(null);
+    }
+
+    private void setFilterFields(String course, String semester, String gender, Integer ageMin, Integer ageMax) {
+        courseFilter.setText(course == null ? "" : course);
+        semesterFilter.setText(semester == null ? "" : semester);
+        genderFilter.setSelectedItem(gender == null ? "Any" : gender);
+        ageMinFilter.setText(ageMin == null ? "" : ageMin.toString());
+        ageMaxFilter.setText(ageMax == null ? "" : ageMax.toString());
+    }
+
+    /**
+     * Streams the page described by roster into the table. The total is only recounted when
+     * the search/filters changed (not for sort or page changes). A search with no literal match
+     * and no filters falls back to fuzzy name search.
+     */
+    private void reloadRoster(Runnable onLoaded) {
+        cancelTableLoad(); // a late result must not overwrite the newer one
+        Database.CancelToken token = new Database.CancelToken();
+        tableToken = token;
+        RosterQuery rq = roster;
+        boolean recount = !rq.sameRows(countedQuery);
+        int[] total = {rosterTotal};
+        boolean[] fuzzy = {false};
+        new ChunkedLoader<Student>(token, out -> {
+            int[] n = {0};
+            repo.streamStudentPage(rq, st -> { n[0]++; out.accept(st); }, token);
+            if (recount) {
+                // a short first page already is the count
+                total[0] = rq.offset == 0 && n[0] < rq.limit ? n[0] : repo.countStudents(rq, token);
+            }
+            if (total[0] == 0 && rq.search != null && rq.search.indexOf(':') < 0 && !rq.hasFilters()) {
+                // nothing matched literally: try typo-tolerant name search
+                fuzzy[0] = true;
+                repo.streamFuzzySearch(rq.search, out, token);
+            }
+        }, ChunkedLoader.into(model), () -> {
+            countedQuery = rq;
+            rosterTotal = total[0];
+            updatePager(rq, fuzzy[0]);
+            if (onLoaded != null) onLoaded.run();
+        }, ex -> showError((rq.search != null ? "Search failed: " : "Failed loading students: ") + ex.getMessage())).execute();
+    }
+
+    private void updatePager(RosterQuery rq, boolean fuzzy) {
+        if (fuzzy) {
+            pageLabel.setText("No exact match; closest names: " + model.getRowCount());
+            prevPageBtn.setEnabled(false);
+            nextPageBtn.setEnabled(false);
+            return;
+        }
+        int to = rq.offset + model.getRowCount();
+        pageLabel.setText(rosterTotal == 0 ? "No students" : "Rows " + (rq.offset + 1) + "-" + to + " of " + rosterTotal);
+        prevPageBtn.setEnabled(rq.offset > 0);
+        nextPageBtn.setEnabled(to < rosterTotal);
+    }
+
+    /** Shows how the current search text is parsed and which query plans SQLite picks. */
+    private void onExplain() {
+        String q = searchField.getText().trim();
+        try {
+            String text = (q.isEmpty() ? "" : repo.explainSearch(q) + "\n")
+                    + "-- current page (filters + sort) --\n" + repo.explainRosterPage(roster);
+            JTextArea out = new JTextArea(text, 14, 70);
+            out.setEditable(false);
+            out.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            JOptionPane.showMessageDialog(frame, new JScrollPane(out), "Search plan", JOptionPane.PLAIN_MESSAGE);
+        } catch (Exception ex) {
+            showError(ex.getMessage());
+        }
+    }
+
+    private void cancelTableLoad() {
+        if (tableToken != null) {
+            tableToken.cancel();
+            tableToken = null;
+        }
+    }
+
     private JButton styledButton(String text) {
         JButton b = new JButton(text);
         b.setFocusPainted(false);
@@ -303,23 +514,40 @@ public class StudentManagement {
     private void populateFormFromTable() {
         int r = table.getSelectedRow();
         if (r < 0) return;
-        idField.setText(stringAt(r,0));
-        nameField.setText(stringAt(r,1));
-        fatherField.setText(stringAt(r,2));
-        dobField.setText(stringAt(r,3));
+        fillForm(model.studentAt(r));
+    }
+
+    // Shows s in the form and remembers it as the base for a conditional update
+    private void fillForm(Student s) {
+        idField.setText(nz(s.id));
+        nameField.setText(nz(s.name));
+        fatherField.setText(nz(s.fatherName));
+        dobField.setText(nz(s.dob));
         computeAndSetAge();
-        genderCombo.setSelectedItem(stringAt(r,4).isEmpty() ? "Male" : stringAt(r,4));
-        phoneField.setText(stringAt(r,5));
-        String cs = stringAt(r,6);
-        if (!cs.isEmpty()) courseCombo.setSelectedItem(cs);
-        emailField.setText(stringAt(r,7));
-        addressArea.setText(stringAt(r,8));
-        // set course/semester if detailed columns exist
-        String course = "";
-        String sem = "";
-        try { course = stringAt(r,10); sem = stringAt(r,11); } catch (Exception ignored){}
-        if (!course.isEmpty()) courseCombo.setSelectedItem(course);
-        if (!sem.isEmpty()) semesterCombo.setSelectedItem(sem);
+        genderCombo.setSelectedItem(nz(s.gender).isEmpty() ? "Male" : s.gender);
+        phoneField.setText(nz(s.phone));
+        if (!nz(s.courseSemester).isEmpty()) courseCombo.setSelectedItem(s.courseSemester);
+        emailField.setText(nz(s.email));
+        addressArea.setText(nz(s.address));
+        if (!nz(s.course).isEmpty()) courseCombo.setSelectedItem(s.course);
+        if (!nz(s.semester).isEmpty()) semesterCombo.setSelectedItem(s.semester);
+        editBase = s;
+        editLoaded = formStudent();
+    }
+
+    // The form's current values as a Student (version of the row it was filled from)
+    private Student formStudent() {
+        String dob = dobField.getText().trim();
+        Integer age = ageFromDob(dob);
+        return new Student(idField.getText().trim(), nameField.getText().trim(), fatherField.getText().trim(), dob,
+                (String) genderCombo.getSelectedItem(), phoneField.getText().trim(), emailField.getText().trim(),
+                addressArea.getText().trim(), (String) courseCombo.getSelectedItem(), (String) semesterCombo.getSelectedItem(),
+                Database.joinCourseSemester((String) courseCombo.getSelectedItem(), (String) semesterCombo.getSelectedItem()),
+                age == null ? 0 : age, editBase == null ? 0 : editBase.version);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
     }
 
     private String stringAt(int row, int col) {
@@ -329,17 +557,43 @@ public class StudentManagement {
         return v == null ? "" : v.toString();
     }
 
+    // Warn while typing if the id exists, so Insert doesn't fail on the primary key (no warning while unknown).
+    // Asked on the lookup thread (the remote engine answers over the network); only the latest id's answer is shown.
+    private void checkIdTaken() {
+        String id = idField.getText().trim();
+        int check = idCheck.incrementAndGet();
+        LOOKUPS.execute(() -> {
+            if (check != idCheck.get()) return; // typed on since
+            Boolean taken = repo.studentIdTakenIfKnown(id);
+            SwingUtilities.invokeLater(() -> {
+                if (check != idCheck.get()) return;
+                idWarning.setText(Boolean.TRUE.equals(taken) ? "ID already exists (Insert will fail; use Update)" : " ");
+            });
+        });
+    }
+
+    // Lookups made while typing (id check, completions), one at a time off the EDT
+    private static final ExecutorService LOOKUPS = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "typing-lookups");
+        t.setDaemon(true);
+        return t;
+    });
+
     private void computeAndSetAge() {
-        String dobText = dobField.getText().trim();
-        if (dobText.isEmpty()) { ageField.setText(""); return; }
+        Integer age = ageFromDob(dobField.getText().trim());
+        ageField.setText(age == null ? "" : String.valueOf(age));
+    }
+
+    // Age today for a yyyy-MM-dd date; null if blank, unparseable or in the future
+    private static Integer ageFromDob(String dobText) {
+        if (dobText.isEmpty()) return null;
         try {
             LocalDate dob = LocalDate.parse(dobText, DOB_FMT);
             LocalDate now = LocalDate.now();
-            if (dob.isAfter(now)) { ageField.setText(""); return; }
-            int age = Period.between(dob, now).getYears();
-            ageField.setText(String.valueOf(age));
+            if (dob.isAfter(now)) return null;
+            return Period.between(dob, now).getYears();
         } catch (DateTimeParseException ex) {
-            ageField.setText("");
+            return null;
         }
     }
 
@@ -348,37 +602,23 @@ public class StudentManagement {
         try {
             String sid = idField.getText().trim();
             if (sid.isEmpty()) { showError("Student ID is required."); return; }
+            if (repo.isStudentIdTaken(sid)) { showError("A student with ID '" + sid + "' already exists."); return; }
             String name = nameField.getText().trim();
             String father = fatherField.getText().trim();
             String dob = dobField.getText().trim();
             String gender = (String) genderCombo.getSelectedItem();
             String phone = phoneField.getText().trim();
-            String courseSem = courseCombo.getSelectedItem() + " - " + semesterCombo.getSelectedItem();
+            String course = (String) courseCombo.getSelectedItem();
+            String semester = (String) semesterCombo.getSelectedItem();
             String email = emailField.getText().trim();
             String address = addressArea.getText().trim();
 
-            Database.insertStudent(sid, name, father, dob, gender, phone, courseSem, email, address);
-
-            // Try to auto-create user with username = student id and password = student id
-            try {
-                if (sid != null && !sid.isEmpty()) {
-                    if (!Database.userExists(sid)) {
-                        Database.createUser(sid, sid, "student", sid);
-                        loadAllStudents();
-                        showInfo("Student added and user created.\nUsername & password: " + sid);
-                    } else {
-                        loadAllStudents();
-                        showInfo("Student added. User already exists for ID: " + sid);
-                    }
-                } else {
-                    loadAllStudents();
-                    showInfo("Student added.");
-                }
-            } catch (Exception userEx) {
-                // Don't fail the insert if user creation fails; just warn
-                loadAllStudents();
-                showInfo("Student added. (But auto-create user failed: " + userEx.getMessage() + ")");
-            }
+            // student row and login in one transaction
+            Database.EnrollResult r = repo.enrollStudent(sid, name, father, dob, ageFromDob(dob), email, phone, address,
+                    course, semester, gender);
+            loadAllStudents();
+            if (r.userCreated) showInfo("Student added and user created.\nUsername & password: " + r.username);
+            else showInfo("Student added. User already exists for ID: " + sid);
 
             clearForm();
         } catch (Exception ex) {
@@ -386,21 +626,89 @@ public class StudentManagement {
         }
     }
 
+    /**
+     * Saves the form. A row picked from the table is updated only if nobody changed it since it
+     * was read; if someone did, edits to different fields are merged onto theirs and saved, and
+     * edits to the same fields ask whether to keep mine or take theirs.
+     */
     private void onUpdate() {
         try {
             String id = idField.getText().trim();
             if (id.isEmpty()) { showError("Student ID required for update."); return; }
-            Database.updateStudent(id, nameField.getText().trim(), fatherField.getText().trim(),
-                    phoneField.getText().trim(), dobField.getText().trim(), (String)genderCombo.getSelectedItem(),
-                    emailField.getText().trim(), courseCombo.getSelectedItem() + " - " + semesterCombo.getSelectedItem(),
-                    addressArea.getText().trim());
-            loadAllStudents();
-            showInfo("Student updated successfully!");
+            Student mine = formStudent();
+            if (editBase == null || !id.equals(editBase.id) || editBase.version <= 0) {
+                // id typed in rather than picked from the table: nothing to compare against
+                repo.updateStudent(id, mine.name, mine.fatherName, mine.phone, mine.dob, mine.gender, mine.email,
+                        mine.address, mine.course, mine.semester, ageFromDob(mine.dob));
+                loadAllStudents();
+                showInfo("Student updated successfully!");
+                return;
+            }
+            Set<String> edited = StudentDiff.changed(editLoaded, mine);
+            Student toSave = mine;
+            List<String> merged = new ArrayList<>();
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    int version = repo.updateStudent(id, toSave.name, toSave.fatherName, toSave.phone, toSave.dob,
+                            toSave.gender, toSave.email, toSave.address, toSave.course, toSave.semester,
+                            ageFromDob(nz(toSave.dob)), toSave.version);
+                    fillForm(atVersion(toSave, version));
+                    loadAllStudents();
+                    if (merged.isEmpty()) showInfo("Student updated successfully!");
+                    else showInfo("Student updated. Someone else had changed it meanwhile; kept their "
+                            + labels(merged) + " along with your changes.");
+                    return;
+                } catch (Database.ConflictException ex) {
+                    Student theirs = ex.current;
+                    if (theirs == null) { showError("Update failed: student " + id + " was deleted meanwhile."); return; }
+                    Set<String> theirEdits = StudentDiff.changed(editBase, theirs);
+                    List<String> clash = new ArrayList<>();
+                    for (String f : StudentDiff.differing(edited, mine, theirs)) if (theirEdits.contains(f)) clash.add(f);
+                    if (!clash.isEmpty() && !keepMine(id, clash, mine, theirs)) return;
+                    if (attempt >= 2 && clash.isEmpty()) {
+                        showError("Update failed: student " + id + " keeps changing; reload and try again.");
+                        return;
+                    }
+                    for (String f : theirEdits) if (!edited.contains(f) && !merged.contains(f)) merged.add(f);
+                    editBase = theirs;
+                    toSave = StudentDiff.with(theirs, mine, edited);
+                }
+            }
         } catch (Exception ex) {
             showError("Update failed: " + ex.getMessage());
         }
     }
 
+    // Asks how to resolve edits both sides made to the same fields; false = use theirs or cancel
+    private boolean keepMine(String id, List<String> clash, Student mine, Student theirs) {
+        StringBuilder msg = new StringBuilder("Someone else changed student " + id + " while you were editing it.\n\n");
+        for (String f : clash) {
+            msg.append(StudentDiff.label(f)).append(":  yours \"").append(nz(StudentDiff.value(mine, f)))
+                    .append("\", theirs \"").append(nz(StudentDiff.value(theirs, f))).append("\"\n");
+        }
+        msg.append("\nKeep mine overwrites these fields; Use theirs discards your edits.");
+        Object[] options = {"Keep mine", "Use theirs", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(frame, msg.toString(), "Edit conflict", JOptionPane.YES_NO_CANCEL_OPTION,
+                JOptionPane.WARNING_MESSAGE, null, options, options[2]);
+        if (choice == 0) return true;
+        if (choice == 1) {
+            fillForm(theirs);
+            loadAllStudents();
+        }
+        return false;
+    }
+
+    private static Student atVersion(Student s, int version) {
+        return new Student(s.id, s.name, s.fatherName, s.dob, s.gender, s.phone, s.email, s.address, s.course, s.semester,
+                s.courseSemester, s.age, version);
+    }
+
+    private static String labels(List<String> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String f : fields) sb.append(sb.length() == 0 ? "" : ", ").append(StudentDiff.label(f).toLowerCase());
+        return sb.toString();
+    }
+
     private void onDeleteSelected() {
         int sel = table.getSelectedRow();
         if (sel == -1) { showError("Select a table row to delete."); return; }
@@ -408,7 +716,7 @@ public class StudentManagement {
         int confirm = JOptionPane.showConfirmDialog(frame, "Delete student with ID: " + id + " ?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             try {
-                Database.deleteStudent(id);
+                repo.deleteStudent(id);
                 loadAllStudents();
                 showInfo("Student deleted.");
             } catch (Exception ex) {
@@ -418,11 +726,26 @@ public class StudentManagement {
     }
 
     void loadAllStudents() {
-        try {
-            Database.fetchAllData(model);
-        } catch (Exception ex) {
-            showError("Failed loading students: " + ex.getMessage());
-        }
+        loadAllStudents(null);
+    }
+
+    /**
+     * Streams the first roster page (current filters and sort, no search text) into the table
+     * off the EDT and recounts; also used to refresh after writes. onLoaded (may be null) runs
+     * on the EDT after the last row.
+     */
+    void loadAllStudents(Runnable onLoaded) {
+        roster = roster.withSearch(null);
+        countedQuery = null;
+        reloadRoster(onLoaded);
+        if (dashboard.isShowing()) dashboard.refresh();
+    }
+
+    // Same page, search and filters as before; only the rows and total are re-read
+    private void reloadAfterChange() {
+        countedQuery = null;
+        reloadRoster(null);
+        if (dashboard.isShowing()) dashboard.refresh();
     }
 
     private void clearForm() {
@@ -438,6 +761,8 @@ public class StudentManagement {
         courseCombo.setSelectedIndex(0);
         semesterCombo.setSelectedIndex(0);
         table.clearSelection();
+        editBase = null;
+        editLoaded = null;
     }
 
     private void showError(String msg) {
@@ -448,6 +773,142 @@ public class StudentManagement {
         JOptionPane.showMessageDialog(frame, msg, "Info", JOptionPane.INFORMATION_MESSAGE);
     }
 
+    /**
+     * RowSorter that never reorders rows itself: the view is the model (one page from SQL).
+     * Header clicks only record the sort key, so the header shows the arrow, and hand it to
+     * onSort, which reloads the page sorted server-side.
+     */
+    private static class ServerSorter extends RowSorter<TableModel> {
+        private final TableModel model;
+        private final BiConsumer<Integer, Boolean> onSort;
+        private List<SortKey> keys = List.of(new SortKey(StudentTableModel.COL_NAME, SortOrder.ASCENDING));
+
+        ServerSorter(TableModel model, BiConsumer<Integer, Boolean> onSort) {
+            this.model = model;
+            this.onSort = onSort;
+        }
+
+        @Override public TableModel getModel() { return model; }
+
+        @Override
+        public void toggleSortOrder(int column) {
+            boolean ascending = keys.isEmpty() || keys.get(0).getColumn() != column
+                    || keys.get(0).getSortOrder() != SortOrder.ASCENDING;
+            setSortKeys(List.of(new SortKey(column, ascending ? SortOrder.ASCENDING : SortOrder.DESCENDING)));
+            onSort.accept(column, ascending);
+        }
+
+        @Override
+        public void setSortKeys(List<? extends SortKey> sortKeys) {
+            keys = sortKeys == null ? List.of() : List.copyOf(sortKeys);
+            fireSortOrderChanged();
+        }
+
+        @Override public List<? extends SortKey> getSortKeys() { return keys; }
+        @Override public int convertRowIndexToModel(int index) { return index; }
+        @Override public int convertRowIndexToView(int index) { return index; }
+        @Override public int getViewRowCount() { return model.getRowCount(); }
+        @Override public int getModelRowCount() { return model.getRowCount(); }
+        @Override public void modelStructureChanged() {}
+        @Override public void allRowsChanged() {}
+        @Override public void rowsInserted(int firstRow, int endRow) {}
+        @Override public void rowsDeleted(int firstRow, int endRow) {}
+        @Override public void rowsUpdated(int firstRow, int endRow) {}
+        @Override public void rowsUpdated(int firstRow, int endRow, int column) {}
+    }
+
+    /**
+     * Popup list of completions under a text field. Up/Down to move, Enter or click to accept,
+     * Esc to close. The source is called on the lookup thread (it may go over the network); an
+     * answer for text that has since changed is dropped.
+     */
+    private static class AutoComplete {
+        private final JTextField field;
+        private final Function<String, List<String>> source;
+        private final JPopupMenu popup = new JPopupMenu();
+        private final JList<String> list = new JList<>();
+        private final AtomicInteger latest = new AtomicInteger(); // bumped per refresh
+        private boolean adjusting;
+
+        AutoComplete(JTextField field, Function<String, List<String>> source) {
+            this.field = field;
+            this.source = source;
+            popup.setFocusable(false);
+            list.setFocusable(false);
+            list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            popup.add(new JScrollPane(list));
+
+            // checked here, not in refresh: the queued refresh would run after accept() has reset the flag
+            field.getDocument().addDocumentListener(new SimpleDocListener(() -> {
+                if (!adjusting) SwingUtilities.invokeLater(this::refresh);
+            }));
+            field.addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    if (!popup.isVisible()) return;
+                    int n = list.getModel().getSize();
+                    int i = list.getSelectedIndex();
+                    if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                        list.setSelectedIndex(Math.min(n - 1, i + 1));
+                        e.consume();
+                    } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+                        list.setSelectedIndex(Math.max(0, i - 1));
+                        e.consume();
+                    } else if (e.getKeyCode() == KeyEvent.VK_ENTER && i >= 0) {
+                        accept();
+                        e.consume();
+                    } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        popup.setVisible(false);
+                        e.consume();
+                    }
+                }
+            });
+            list.addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    accept();
+                }
+            });
+        }
+
+        private void refresh() {
+            String text = field.getText().trim();
+            int n = latest.incrementAndGet();
+            if (text.isEmpty() || !field.isShowing()) {
+                popup.setVisible(false);
+                return;
+            }
+            LOOKUPS.execute(() -> {
+                if (n != latest.get()) return; // typed on since
+                List<String> items = source.apply(text);
+                SwingUtilities.invokeLater(() -> {
+                    if (n == latest.get()) show(text, items);
+                });
+            });
+        }
+
+        private void show(String text, List<String> items) {
+            if (items.isEmpty() || (items.size() == 1 && items.get(0).equals(text))) {
+                popup.setVisible(false);
+                return;
+            }
+            list.setListData(items.toArray(new String[0]));
+            list.setVisibleRowCount(Math.min(items.size(), 8));
+            popup.setPopupSize(field.getWidth(), list.getPreferredScrollableViewportSize().height + 6);
+            if (!popup.isVisible()) popup.show(field, 0, field.getHeight());
+        }
+
+        private void accept() {
+            String v = list.getSelectedValue();
+            popup.setVisible(false);
+            latest.incrementAndGet(); // a lookup still in flight must not reopen the popup
+            if (v == null) return;
+            adjusting = true;
+            field.setText(v);
+            adjusting = false;
+        }
+    }
+
     // Simple document listener helper
     private static class SimpleDocListener implements DocumentListener {
         private final Runnable action;
@@ -0,0 +1,265 @@
+package com.StudentManagementProject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StudentQuery.java
+ * Parser for the field-qualified search syntax used by the admin search box.
+ *
+ * Examples:
+ *   course:"B.Tech" sem:3 name:ra* age:18..21
+ *   gender:female ravi          (free terms go to full-text search)
+ *   birthday:7                  (birthday today or in the next 6 days)
+ *
+ * Supported fields: id, name, father, course, sem/semester, gender, email, phone, age, birthday.
+ *   field:value     exact match (case-insensitive, except id)
+ *   field:value*    prefix match, compiled to an index range scan
+ *   age:18..21      range (either bound may be omitted: age:..21, age:18..)
+ *
+ * age and birthday are evaluated against today's date and compile to ranges on the
+ * indexed dob_day column (days since 1970-01-01). Rows without a valid dob (dob_day NULL)
+ * match age on the stored age column instead, the same age the roster shows for them.
+ *
+ * Anything without a known field prefix is a free term. The compiled WHERE clause
+ * only uses parameter placeholders; values never get spliced into SQL. course/sem match
+ * the label in the courses/semesters lookup table and compare students by integer id.
+ *
+ * Package-private: used by Database.searchStudents / explainSearch; MemoryRepository reuses the
+ * tokenizer and field names to evaluate the same syntax in memory.
+ */
+final class StudentQuery {
+
+    final String where;             // predicates for indexed columns ("" if none)
+    final List<Object> params;      // bind values for where, in order
+    final List<String> freeTerms;   // terms for full-text / LIKE fallback
+
+    private StudentQuery(String where, List<Object> params, List<String> freeTerms) {
+        this.where = where;
+        this.params = params;
+        this.freeTerms = freeTerms;
+    }
+
+    /**
+     * True if the text uses field:value syntax; plain text keeps the classic OR-of-LIKEs search.
+     */
+    static boolean isStructured(String q) {
+        if (q == null) return false;
+        for (String tok : tokenize(q)) {
+            int c = tok.indexOf(':');
+            if (c > 0 && column(tok.substring(0, c)) != null) return true;
+        }
+        return false;
+    }
+
+    static StudentQuery parse(String q) throws Exception {
+        StringBuilder where = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        List<String> free = new ArrayList<>();
+
+        for (String tok : tokenize(q)) {
+            int c = tok.indexOf(':');
+            String col = c > 0 ? column(tok.substring(0, c)) : null;
+            if (col == null) {
+                String term = unquote(tok);
+                if (!term.isEmpty()) free.add(term);
+                continue;
+            }
+            String raw = tok.substring(c + 1);
+            boolean quoted = raw.startsWith("\"");
+            String value = unquote(raw);
+            if (value.isEmpty()) throw new Exception("Missing value for '" + tok.substring(0, c) + "'.");
+
+            if (where.length() > 0) where.append(" AND ");
+            if ("age".equals(col)) {
+                appendAge(where, params, value);
+            } else if ("birthday".equals(col)) {
+                try {
+                    appendBirthdayWindow(where, params, Integer.parseInt(value.trim()), LocalDate.now());
+                } catch (NumberFormatException nfe) {
+                    throw new Exception("Invalid birthday window (days): " + value);
+                }
+            } else if (lookupTable(col) != null) {
+                // course/semester live in lookup tables: match the label there, compare ids here
+                where.append(col).append("_id IN (SELECT id FROM ").append(lookupTable(col)).append(" WHERE ");
+                if (!quoted && value.endsWith("*")) {
+                    appendPrefix(where, params, "label", value.substring(0, value.length() - 1));
+                } else {
+                    if ("semester".equals(col) && isInt(value)) value = "Sem " + value;
+                    where.append("label = ?");
+                    params.add(value);
+                }
+                where.append(")");
+            } else if (!quoted && value.endsWith("*")) {
+                appendPrefix(where, params, col, value.substring(0, value.length() - 1));
+            } else {
+                if ("id".equals(col)) {
+                    where.append("id = ?"); // primary key lookup, case-sensitive like the column
+                } else {
+                    where.append(col).append(" = ? COLLATE NOCASE");
+                }
+                params.add(value);
+            }
+        }
+        return new StudentQuery(where.toString(), params, free);
+    }
+
+    /** One-line description of the parsed predicates, for explain output. */
+    String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("predicates: ").append(where.isEmpty() ? "(none)" : where);
+        sb.append("\nparams: ").append(params);
+        sb.append("\nfree terms: ").append(freeTerms.isEmpty() ? "(none)" : freeTerms);
+        return sb.toString();
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    static String column(String field) {
+        switch (field.trim().toLowerCase()) {
+            case "id": return "id";
+            case "name": return "name";
+            case "father": case "father_name": return "father_name";
+            case "course": return "course";
+            case "sem": case "semester": return "semester";
+            case "gender": return "gender";
+            case "email": return "email";
+            case "phone": return "phone";
+            case "age": return "age";
+            case "birthday": case "bday": return "birthday";
+            default: return null;
+        }
+    }
+
+    private static String lookupTable(String col) {
+        if ("course".equals(col)) return "courses";
+        if ("semester".equals(col)) return "semesters";
+        return null;
+    }
+
+    // name:ra* -> name >= 'ra' AND name < 'ra' || U+10FFFF (NOCASE), which SQLite serves from the NOCASE index.
+    // The bound is the prefix plus the largest code point rather than the last character bumped,
+    // since a bumped character can land on an upper-case letter that NOCASE folds back down.
+    private static void appendPrefix(StringBuilder where, List<Object> params, String col, String prefix) {
+        if (prefix.isEmpty()) {
+            where.append(col).append(" IS NOT NULL");
+            return;
+        }
+        String lower = foldAscii(prefix);
+        where.append("(").append(col).append(" >= ? COLLATE NOCASE AND ").append(col).append(" < ? COLLATE NOCASE)");
+        params.add(lower);
+        params.add(lower + MAX_CODE_POINT);
+    }
+
+    private static final String MAX_CODE_POINT = new String(Character.toChars(Character.MAX_CODE_POINT));
+
+    // ASCII-only lower-casing, same as SQLite's NOCASE (String.toLowerCase would also fold non-ASCII)
+    private static String foldAscii(String s) {
+        char[] c = s.toCharArray();
+        for (int i = 0; i < c.length; i++) if (c[i] >= 'A' && c[i] <= 'Z') c[i] += 'a' - 'A';
+        return new String(c);
+    }
+
+    private static void appendAge(StringBuilder where, List<Object> params, String value) throws Exception {
+        int dots = value.indexOf("..");
+        try {
+            if (dots < 0) {
+                int age = Integer.parseInt(value.trim());
+                appendAgeRange(where, params, age, age, LocalDate.now());
+                return;
+            }
+            String lo = value.substring(0, dots).trim();
+            String hi = value.substring(dots + 2).trim();
+            if (lo.isEmpty() && hi.isEmpty()) throw new Exception("Age range needs at least one bound.");
+            appendAgeRange(where, params, lo.isEmpty() ? null : Integer.valueOf(lo), hi.isEmpty() ? null : Integer.valueOf(hi), LocalDate.now());
+        } catch (NumberFormatException nfe) {
+            throw new Exception("Invalid age filter: " + value);
+        }
+    }
+
+    /**
+     * Age between lo and hi (inclusive, either may be null) on the given day, as a dob_day range:
+     * age >= lo  <=>  born on or before today - lo years;  age <= hi  <=>  born after today - (hi + 1) years.
+     * Rows without dob_day compare their stored age instead (both branches are served by the dob_day index).
+     * Shared with Database's roster filters.
+     */
+    static void appendAgeRange(StringBuilder where, List<Object> params, Integer lo, Integer hi, LocalDate today) {
+        if (lo != null && hi != null) {
+            where.append("(dob_day BETWEEN ? AND ? OR (dob_day IS NULL AND age BETWEEN ? AND ?))");
+            params.add(bornAfter(hi, today));
+            params.add(bornOnOrBefore(lo, today));
+            params.add(lo);
+            params.add(hi);
+        } else if (lo != null) {
+            where.append("(dob_day <= ? OR (dob_day IS NULL AND age >= ?))");
+            params.add(bornOnOrBefore(lo, today));
+            params.add(lo);
+        } else if (hi != null) {
+            where.append("(dob_day >= ? OR (dob_day IS NULL AND age <= ?))");
+            params.add(bornAfter(hi, today));
+            params.add(hi);
+        }
+    }
+
+    /**
+     * Birthday falls within [today, today + days - 1]. For each age k (0..MAX_AGE) the birth
+     * dates that qualify form one contiguous dob_day range (the window shifted back k years),
+     * so the whole window is an OR of index range scans.
+     */
+    static void appendBirthdayWindow(StringBuilder where, List<Object> params, int days, LocalDate today) throws Exception {
+        if (days < 1 || days > 366) throw new Exception("Birthday window must be 1..366 days.");
+        LocalDate last = today.plusDays(days - 1);
+        where.append("(");
+        for (int k = 0; k <= MAX_AGE; k++) {
+            if (k > 0) where.append(" OR ");
+            where.append("dob_day BETWEEN ? AND ?");
+            params.add(Math.toIntExact(today.minusYears(k).toEpochDay()));
+            params.add(Math.toIntExact(last.minusYears(k).toEpochDay()));
+        }
+        where.append(")");
+    }
+
+    static final int MAX_AGE = 120;
+
+    static int bornOnOrBefore(int age, LocalDate today) {
+        return Math.toIntExact(today.minusYears(age).toEpochDay());
+    }
+
+    static int bornAfter(int age, LocalDate today) {
+        return Math.toIntExact(today.minusYears(age + 1L).toEpochDay()) + 1;
+    }
+
+    static boolean isInt(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) if (!Character.isDigit(s.charAt(i))) return false;
+        return true;
+    }
+
+    static String unquote(String s) {
+        s = s.trim();
+        if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) return s.substring(1, s.length() - 1);
+        if (s.startsWith("\"")) return s.substring(1);
+        return s;
+    }
+
+    // Splits on whitespace, keeping "quoted values" (with or without field: prefix) together
+    static List<String> tokenize(String q) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean inQuote = false;
+        for (int i = 0; i < q.length(); i++) {
+            char ch = q.charAt(i);
+            if (ch == '"') {
+                inQuote = !inQuote;
+                cur.append(ch);
+            } else if (Character.isWhitespace(ch) && !inQuote) {
+                if (cur.length() > 0) { out.add(cur.toString()); cur.setLength(0); }
+            } else {
+                cur.append(ch);
+            }
+        }
+        if (cur.length() > 0) out.add(cur.toString());
+        return out;
+    }
+}
@@ -0,0 +1,143 @@
+package com.StudentManagementProject;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * StudentRepository.java
+ * Storage engine behind the UI: students, users and edit requests.
+ *
+ * - Results are immutable Student / EditRequest records, streamed to a Consumer so ChunkedLoader
+ *   can page them in (or collected by headless callers); no Swing types cross this interface
+ * - Errors are plain Exceptions with a user-readable message; a cancelled CancelToken ends a
+ *   stream with Database.CancelledException
+ * - Engines: "sqlite" (SqliteRepository, the student.db file), "memory" (MemoryRepository,
+ *   concurrent in-process indexes, nothing persisted) and "remote" (RemoteRepository, a
+ *   StudentServer owning the database); pick one with Repositories
+ *
+ * The UI classes only talk to this interface, so the same screens and workloads can run
+ * against either engine.
+ */
+public interface StudentRepository {
+
+    /** Short engine name, e.g. "sqlite". */
+    String engine();
+
+    // ------------------------- LIFECYCLE -------------------------
+
+    /** Starts schema creation / loading in the background; later calls return the same future. */
+    CompletableFuture<Void> initAsync();
+
+    /** Blocks until a started initAsync() has finished, rethrowing its failure. */
+    void awaitInit() throws Exception;
+
+    // ------------------------- STUDENTS -------------------------
+
+    void insertStudent(String id, String name, String fatherName, String dob, Integer age, String email, String phone,
+                       String address, String course, String semester, String gender) throws Exception;
+
+    /**
+     * Inserts the student and their login (username and initial password = id, role student) as
+     * one atomic write; an existing user with that name is kept (userCreated false).
+     */
+    Database.EnrollResult enrollStudent(String id, String name, String fatherName, String dob, Integer age, String email,
+                                        String phone, String address, String course, String semester, String gender) throws Exception;
+
+    /** enrollStudent for many students at once, all or nothing; results in input order. */
+    List<Database.EnrollResult> enrollStudents(List<Student> students) throws Exception;
+
+    /** Unconditional update: overwrites whatever is stored. */
+    void updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                       String email, String address, String course, String semester, Integer age) throws Exception;
+
+    /**
+     * Updates only if the row is still at expectedVersion (Student.version as read); returns the
+     * new version, or throws Database.ConflictException with the current row if it changed meanwhile.
+     */
+    int updateStudent(String id, String name, String fatherName, String phone, String dob, String gender,
+                      String email, String address, String course, String semester, Integer age, int expectedVersion) throws Exception;
+
+    void deleteStudent(String id) throws Exception;
+
+    boolean isStudentIdTaken(String id) throws Exception;
+
+    /** For checks while typing: whether the id is taken if that is known without waiting, else null. */
+    Boolean studentIdTakenIfKnown(String id);
+
+    /** The student with exactly this id, or null. */
+    Student findStudent(String id) throws Exception;
+
+    /** Search box text (plain or field:value syntax, see StudentQuery), ordered by name. */
+    void streamSearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception;
+
+    /** Typo-tolerant name / father's name search, best match first. */
+    void streamFuzzySearch(String q, Consumer<Student> out, Database.CancelToken token) throws Exception;
+
+    int countStudents(RosterQuery rq, Database.CancelToken token) throws Exception;
+
+    void streamStudentPage(RosterQuery rq, Consumer<Student> out, Database.CancelToken token) throws Exception;
+
+    /** How the engine would answer the search text (for the Explain button). */
+    String explainSearch(String q) throws Exception;
+
+    String explainRosterPage(RosterQuery rq) throws Exception;
+
+    List<String> completeStudentNames(String prefix, int limit);
+
+    List<String> completeStudentIds(String prefix, int limit);
+
+    /** Headcounts for the dashboard, or null while they are still being built. */
+    EnrollmentSummary enrollmentSummary() throws Exception;
+
+    void rebuildEnrollmentStats() throws Exception;
+
+    // ------------------------- USERS -------------------------
+
+    void createUser(String username, String passwordPlain, String role, String studentId) throws Exception;
+
+    boolean userExists(String username) throws Exception;
+
+    /** Checks the password; a successful result carries a new session token (AuthResult.token). */
+    Database.AuthResult authenticateUser(String username, String passwordPlain) throws Exception;
+
+    /** The login behind a session token (extending its idle expiry), or null once it has expired. */
+    Database.AuthResult resumeSession(String token);
+
+    void logout(String token);
+
+    void changePassword(String username, String oldPassword, String newPassword) throws Exception;
+
+    /** Sets the session user's own password without checking a password again. */
+    void changePassword(Database.AuthResult session, String newPassword) throws Exception;
+
+    void resetPassword(String adminUsername, String adminPassword, String targetUsername, String newPassword) throws Exception;
+
+    /** Same, authorised by a logged-in admin session instead of the admin's password. */
+    void resetPassword(Database.AuthResult adminSession, String targetUsername, String newPassword) throws Exception;
+
+    // ------------------------- EDIT REQUESTS -------------------------
+
+    /**
+     * Files an OPEN request. A student has at most one open request per field: a new one
+     * supersedes the earlier one (returns true), or is refused if -Dstudent.requests.supersede=false.
+     */
+    boolean createEditRequest(String studentId, String field, String newValue, String message) throws Exception;
+
+    /** All requests, newest first. */
+    void streamEditRequests(Consumer<EditRequest> out, Database.CancelToken token) throws Exception;
+
+    void approveEditRequest(int requestId, String adminUsername) throws Exception;
+
+    void rejectEditRequest(int requestId, String adminUsername, String reason) throws Exception;
+
+    // ------------------------- CHANGES -------------------------
+
+    /**
+     * Registers l to hear about writes: those made through this engine and, for "remote", those
+     * made by other clients of the same server. Called off the EDT; l must be quick.
+     */
+    void addChangeListener(Consumer<StudentChange> l);
+
+    void removeChangeListener(Consumer<StudentChange> l);
+}
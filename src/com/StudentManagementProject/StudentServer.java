@@ -0,0 +1,454 @@
+package com.StudentManagementProject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.BufferUnderflowException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * StudentServer.java
+ * Owns the database and serves it to thin clients (RemoteRepository) over the Wire protocol.
+ *
+ * Run: java -cp ... com.StudentManagementProject.StudentServer [port]   (default 7070, or -Dstudent.server.port)
+ *      then start the UI with -Dstudent.engine=remote -Dstudent.server=host:port
+ *
+ * - The backing engine is Repositories.current(), so -Dstudent.engine=sqlite|memory picks what the
+ *   server itself runs on
+ * - One reader thread per connection; each request runs on a shared bounded worker pool, so a
+ *   client can pipeline calls and a slow search does not hold up the ones behind it. Login, resume
+ *   and logout are the exception: the reader runs them itself once the connection's earlier calls
+ *   are done, so every call runs as the session it was sent under
+ * - Streams (search, roster page, edit requests) go out in ITEMS frames of Wire.BATCH records;
+ *   CANCEL cancels the call's CancelToken on the server
+ * - Each connection is logged in on its own (AUTHENTICATE, or RESUME_SESSION with the token of an
+ *   earlier login): before that only login / password calls are allowed, students only see and
+ *   request changes to their own record, admins get everything. Session password changes act on
+ *   the connection's own login, whatever the client sends
+ * - Every committed write is pushed to the authenticated connections as an EVENT frame
+ *   (students only hear about their own record)
+ *
+ * Binds to localhost unless -Dstudent.server.bind is set (e.g. 0.0.0.0).
+ */
+public final class StudentServer {
+
+    private static final int DEFAULT_PORT = 7070;
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final StudentRepository repo;
+    private final ServerSocket socket;
+    private final ThreadPoolExecutor workers;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Consumer<StudentChange> changeListener = this::broadcast;
+    private volatile boolean running;
+
+    /**
+     * @param port    0 picks a free port (see port())
+     * @param threads request worker threads shared by all connections
+     */
+    public StudentServer(StudentRepository repo, int port, int threads) throws IOException {
+        this.repo = repo;
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory tf = r -> {
+            Thread t = new Thread(r, "server-worker-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        // when the queue is full the connection's reader runs the call itself, which stops it
+        // reading further requests from that client until it catches up
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), tf, new ThreadPoolExecutor.CallerRunsPolicy());
+        String bind = System.getProperty("student.server.bind");
+        socket = new ServerSocket(port, 128, bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind));
+    }
+
+    public void start() {
+        running = true;
+        repo.addChangeListener(changeListener);
+        Thread t = new Thread(this::acceptLoop, "server-accept");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void stop() {
+        running = false;
+        repo.removeChangeListener(changeListener);
+        try { socket.close(); } catch (IOException ignored) {}
+        for (Connection c : connections) c.close();
+        workers.shutdown();
+    }
+
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("student.server.port", DEFAULT_PORT);
+        int threads = Integer.getInteger("student.server.threads", Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+        StudentRepository repo = Repositories.current();
+        repo.initAsync();
+        repo.awaitInit();
+        StudentServer server = new StudentServer(repo, port, threads);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-shutdown"));
+        System.out.println("[SERVER] " + repo.engine() + " engine, " + threads + " workers, listening on "
+                + server.socket.getInetAddress().getHostAddress() + ":" + server.port());
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket s = socket.accept();
+                s.setTcpNoDelay(true);
+                Connection c = new Connection(s);
+                connections.add(c);
+                Thread t = new Thread(c::readLoop, "server-conn-" + s.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException ex) {
+                if (running) System.err.println("[SERVER] accept failed: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Called on the writing thread; the sends are queued so a slow client cannot stall the writer
+    private void broadcast(StudentChange change) {
+        for (Connection c : connections) {
+            if (c.shouldHear(change)) workers.execute(() -> c.send(event(change)));
+        }
+    }
+
+    // Calls that log the connection in or out
+    private static boolean changesSession(byte op) {
+        return op == Wire.AUTHENTICATE || op == Wire.RESUME_SESSION || op == Wire.LOGOUT;
+    }
+
+    private static Wire.Out event(StudentChange change) {
+        return Wire.Out.response(0, Wire.EVENT).i8(change.kind.ordinal()).str(change.studentId).strings(change.fields);
+    }
+
+    /** Thrown by calls a connection is not allowed to make. */
+    private static final class Denied extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        Denied(String message) {
+            super(message);
+        }
+    }
+
+    // ------------------------- CONNECTION -------------------------
+
+    private final class Connection {
+        private final Socket s;
+        private final DataOutputStream out;
+        private final Map<Integer, Database.CancelToken> inFlight = new ConcurrentHashMap<>();
+        private volatile Database.AuthResult auth; // null until AUTHENTICATE succeeds
+
+        Connection(Socket s) throws IOException {
+            this.s = s;
+            this.out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 64 * 1024));
+        }
+
+        void readLoop() {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 64 * 1024))) {
+                if (in.readInt() != Wire.MAGIC || in.readInt() != Wire.VERSION) return;
+                synchronized (out) {
+                    out.writeInt(Wire.MAGIC);
+                    out.writeInt(Wire.VERSION);
+                    out.flush();
+                }
+                Wire.In frame;
+                while ((frame = Wire.readFrame(in)) != null) {
+                    int reqId = frame.i32();
+                    byte op = frame.i8();
+                    if (op == Wire.CANCEL) {
+                        Database.CancelToken t = inFlight.get(reqId);
+                        if (t != null) t.cancel();
+                        continue;
+                    }
+                    if (changesSession(op)) {
+                        // the calls sent before it run as the old session and the ones after as the new:
+                        // run it here once the former are done, reading nothing further meanwhile
+                        awaitIdle();
+                        send(call(reqId, op, frame, new Database.CancelToken()));
+                        continue;
+                    }
+                    Database.CancelToken token = new Database.CancelToken();
+                    inFlight.put(reqId, token);
+                    Wire.In args = frame;
+                    workers.execute(() -> {
+                        try {
+                            send(call(reqId, op, args, token));
+                        } finally {
+                            inFlight.remove(reqId);
+                            synchronized (inFlight) {
+                                if (inFlight.isEmpty()) inFlight.notifyAll();
+                            }
+                        }
+                    });
+                }
+            } catch (SocketException ignored) {
+                // client went away
+            } catch (IOException ex) {
+                System.err.println("[SERVER] connection dropped: " + ex.getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void awaitIdle() throws InterruptedException {
+            synchronized (inFlight) {
+                while (!inFlight.isEmpty()) inFlight.wait();
+            }
+        }
+
+        boolean shouldHear(StudentChange change) {
+            Database.AuthResult a = auth;
+            if (a == null) return false;
+            if (isAdmin(a)) return true;
+            return change.studentId != null && change.studentId.equalsIgnoreCase(a.studentId);
+        }
+
+        void send(Wire.Out frame) {
+            synchronized (out) {
+                try {
+                    Wire.writeFrame(out, frame);
+                } catch (IOException ex) {
+                    close();
+                }
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            for (Database.CancelToken t : inFlight.values()) t.cancel();
+            try { s.close(); } catch (IOException ignored) {}
+        }
+
+        // Runs one request; the returned frame is its final answer (streams send ITEMS on the way)
+        private Wire.Out call(int reqId, byte op, Wire.In in, Database.CancelToken token) {
+            try {
+                Wire.Out ok = Wire.Out.response(reqId, Wire.OK);
+                switch (op) {
+                    // --- allowed before login
+                    case Wire.AUTHENTICATE: {
+                        Database.AuthResult a = repo.authenticateUser(in.str(), in.str());
+                        if (a != null && a.ok) auth = a;
+                        return ok.auth(a);
+                    }
+                    case Wire.CHANGE_PASSWORD: {
+                        String username = in.str();
+                        repo.changePassword(username, in.str(), in.str());
+                        return ok;
+                    }
+                    case Wire.RESET_PASSWORD:
+                        // checks the admin password itself
+                        repo.resetPassword(in.str(), in.str(), in.str(), in.str());
+                        return ok;
+                    case Wire.RESUME_SESSION: {
+                        Database.AuthResult a = repo.resumeSession(in.str());
+                        if (a != null) auth = a;
+                        return ok.auth(a);
+                    }
+                    case Wire.LOGOUT: {
+                        Database.AuthResult a = auth;
+                        auth = null;
+                        if (a != null) repo.logout(a.token);
+                        return ok;
+                    }
+                    case Wire.CHANGE_OWN_PASSWORD:
+                        repo.changePassword(requireLogin(), in.str());
+                        return ok;
+
+                    // --- students: own record only
+                    case Wire.FIND_STUDENT: {
+                        String id = in.str();
+                        requireSelf(id);
+                        Student st = repo.findStudent(id);
+                        ok.bool(st != null);
+                        return st == null ? ok : ok.student(st);
+                    }
+                    case Wire.CREATE_REQUEST: {
+                        String studentId = in.str();
+                        requireSelf(studentId);
+                        return ok.bool(repo.createEditRequest(studentId, in.str(), in.str(), in.str()));
+                    }
+                    case Wire.STREAM_REQUESTS: {
+                        Database.AuthResult a = requireLogin();
+                        Batcher<EditRequest> b = new Batcher<>(reqId, Wire.Out::editRequest);
+                        repo.streamEditRequests(r -> {
+                            if (isAdmin(a) || r.studentId.equalsIgnoreCase(a.studentId)) b.accept(r);
+                        }, token);
+                        b.flush();
+                        return ok;
+                    }
+                    default:
+                        break;
+                }
+
+                requireAdmin();
+                switch (op) {
+                    case Wire.INSERT_STUDENT:
+                        repo.insertStudent(in.str(), in.str(), in.str(), in.str(), in.integer(), in.str(), in.str(),
+                                in.str(), in.str(), in.str(), in.str());
+                        return ok;
+                    case Wire.ENROLL_STUDENTS:
+                        return ok.enrollResults(repo.enrollStudents(in.students()));
+                    case Wire.UPDATE_STUDENT:
+                        repo.updateStudent(in.str(), in.str(), in.str(), in.str(), in.str(), in.str(), in.str(),
+                                in.str(), in.str(), in.str(), in.integer());
+                        return ok;
+                    case Wire.UPDATE_STUDENT_IF_VERSION:
+                        return ok.i32(repo.updateStudent(in.str(), in.str(), in.str(), in.str(), in.str(), in.str(), in.str(),
+                                in.str(), in.str(), in.str(), in.integer(), in.i32()));
+                    case Wire.DELETE_STUDENT:
+                        repo.deleteStudent(in.str());
+                        return ok;
+                    case Wire.ID_TAKEN:
+                        return ok.bool(repo.isStudentIdTaken(in.str()));
+                    case Wire.STREAM_SEARCH: {
+                        Batcher<Student> b = new Batcher<>(reqId, Wire.Out::student);
+                        repo.streamSearch(in.str(), b, token);
+                        b.flush();
+                        return ok;
+                    }
+                    case Wire.STREAM_FUZZY: {
+                        Batcher<Student> b = new Batcher<>(reqId, Wire.Out::student);
+                        repo.streamFuzzySearch(in.str(), b, token);
+                        b.flush();
+                        return ok;
+                    }
+                    case Wire.COUNT_STUDENTS:
+                        return ok.i32(repo.countStudents(in.rosterQuery(), token));
+                    case Wire.STREAM_PAGE: {
+                        Batcher<Student> b = new Batcher<>(reqId, Wire.Out::student);
+                        repo.streamStudentPage(in.rosterQuery(), b, token);
+                        b.flush();
+                        return ok;
+                    }
+                    case Wire.EXPLAIN_SEARCH:
+                        return ok.str(repo.explainSearch(in.str()));
+                    case Wire.EXPLAIN_PAGE:
+                        return ok.str(repo.explainRosterPage(in.rosterQuery()));
+                    case Wire.COMPLETE_NAMES:
+                        return ok.strings(repo.completeStudentNames(in.str(), in.i32()));
+                    case Wire.COMPLETE_IDS:
+                        return ok.strings(repo.completeStudentIds(in.str(), in.i32()));
+                    case Wire.ENROLLMENT_SUMMARY:
+                        return ok.summary(repo.enrollmentSummary());
+                    case Wire.REBUILD_STATS:
+                        repo.rebuildEnrollmentStats();
+                        return ok;
+                    case Wire.CREATE_USER:
+                        repo.createUser(in.str(), in.str(), in.str(), in.str());
+                        return ok;
+                    case Wire.USER_EXISTS:
+                        return ok.bool(repo.userExists(in.str()));
+                    case Wire.RESET_PASSWORD_AS_ADMIN:
+                        repo.resetPassword(auth, in.str(), in.str());
+                        return ok;
+                    case Wire.APPROVE_REQUEST: // handled by the session's admin, never a name from the client
+                        repo.approveEditRequest(in.i32(), auth.username);
+                        return ok;
+                    case Wire.REJECT_REQUEST: {
+                        int id = in.i32();
+                        repo.rejectEditRequest(id, auth.username, in.str());
+                        return ok;
+                    }
+                    default:
+                        return error(reqId, false, "Unknown operation " + op + ".");
+                }
+            } catch (Database.CancelledException ex) {
+                return error(reqId, true, ex.getMessage());
+            } catch (Database.ConflictException ex) {
+                return Wire.Out.response(reqId, Wire.CONFLICT).str(ex.getMessage()).student(ex.current);
+            } catch (RequestLimiter.Rejected ex) {
+                return Wire.Out.response(reqId, Wire.LIMITED).str(ex.getMessage()).i32((int) Math.min(Integer.MAX_VALUE, ex.retryAfterMillis));
+            } catch (BufferUnderflowException ex) {
+                return error(reqId, false, "Malformed request.");
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+                return error(reqId, false, "Internal error.");
+            } catch (Exception ex) {
+                // data layer errors carry a user-readable message (see StudentRepository)
+                return error(reqId, false, ex.getMessage());
+            }
+        }
+
+        // The connection's login, as long as its session is still live (a password reset or
+        // logout elsewhere ends it); each call also keeps the session from idling out
+        private Database.AuthResult requireLogin() throws Denied {
+            Database.AuthResult a = auth;
+            if (a == null) throw new Denied("Not logged in.");
+            if (repo.resumeSession(a.token) == null) {
+                auth = null;
+                throw new Denied("Session expired; please log in again.");
+            }
+            return a;
+        }
+
+        private void requireAdmin() throws Denied {
+            if (!isAdmin(requireLogin())) throw new Denied("Admin access required.");
+        }
+
+        private void requireSelf(String studentId) throws Denied {
+            Database.AuthResult a = requireLogin();
+            if (!isAdmin(a) && (a.studentId == null || !a.studentId.equalsIgnoreCase(studentId))) {
+                throw new Denied("Students can only access their own record.");
+            }
+        }
+
+        /** Collects streamed records and sends them as ITEMS frames of Wire.BATCH. */
+        private final class Batcher<T> implements Consumer<T> {
+            private final int reqId;
+            private final BiConsumer<Wire.Out, T> encoder;
+            private Wire.Out frame;
+            private int count;
+
+            Batcher(int reqId, BiConsumer<Wire.Out, T> encoder) {
+                this.reqId = reqId;
+                this.encoder = encoder;
+            }
+
+            @Override
+            public void accept(T item) {
+                if (frame == null) frame = Wire.Out.response(reqId, Wire.ITEMS).i32(0);
+                encoder.accept(frame, item);
+                if (++count == Wire.BATCH) flush();
+            }
+
+            void flush() {
+                if (frame == null) return;
+                frame.patchI32(Wire.Out.HEADER, count); // the count was written as 0 after the header
+                send(frame);
+                frame = null;
+                count = 0;
+            }
+        }
+    }
+
+    private static Wire.Out error(int reqId, boolean cancelled, String message) {
+        return Wire.Out.response(reqId, Wire.ERROR).bool(cancelled).str(message);
+    }
+
+    private static boolean isAdmin(Database.AuthResult a) {
+        return "admin".equalsIgnoreCase(a.role);
+    }
+}
@@ -0,0 +1,218 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * StudentTableModel.java
+ * Columnar, read-only table model for the admin student roster.
+ *
+ * - One array per column instead of one Object[] of boxed values per row
+ * - Gender, course and semester are dictionary-encoded: an int code per row plus one shared String per distinct value
+ * - Age is a primitive int[]; "Course/Sem" is derived from course + semester on read (memoized per pair)
+ * - Each row's version (not a column) is kept so the form can send conditional updates (studentAt)
+ *
+ * Swing adapter over Student records, 12 columns:
+ *   ID, Name, Father, DOB, Gender, Phone, Course/Sem, E-mail, Address, Age, Course, Semester
+ *
+ * Loaded progressively (ChunkedLoader): reset(), then appendRows() once per chunk, which fires
+ * one rows-inserted event per chunk.
+ */
+public class StudentTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int COL_ID = 0, COL_NAME = 1, COL_FATHER = 2, COL_DOB = 3, COL_GENDER = 4, COL_PHONE = 5,
+            COL_COURSE_SEM = 6, COL_EMAIL = 7, COL_ADDRESS = 8, COL_AGE = 9, COL_COURSE = 10, COL_SEMESTER = 11;
+
+    private static final String[] COLUMNS = {"ID", "Name", "Father", "DOB", "Gender", "Phone", "Course/Sem", "E-mail", "Address", "Age", "Course", "Semester"};
+
+    private int size;
+    private String[] ids = new String[0];
+    private String[] names = new String[0];
+    private String[] fathers = new String[0];
+    private String[] dobs = new String[0];
+    private String[] phones = new String[0];
+    private String[] emails = new String[0];
+    private String[] addresses = new String[0];
+    private int[] ages = new int[0];
+    private int[] versions = new int[0];
+    private int[] genderCodes = new int[0];
+    private int[] courseCodes = new int[0];
+    private int[] semesterCodes = new int[0];
+
+    private Dictionary genders = new Dictionary();
+    private Dictionary courses = new Dictionary();
+    private Dictionary semesters = new Dictionary();
+    private Map<Long, String> courseSemCache = new HashMap<>();
+
+    /** Adds one student as a row. Does not fire events; visible models use appendRows(). */
+    public void append(Student st) {
+        if (size == ids.length) grow(Math.max(64, size + (size >> 1)));
+        ids[size] = st.id;
+        names[size] = st.name;
+        fathers[size] = st.fatherName;
+        dobs[size] = st.dob;
+        genderCodes[size] = genders.encode(st.gender);
+        phones[size] = st.phone;
+        emails[size] = st.email;
+        addresses[size] = st.address;
+        ages[size] = st.age;
+        versions[size] = st.version;
+        courseCodes[size] = courses.encode(st.course);
+        semesterCodes[size] = semesters.encode(st.semester);
+        size++;
+    }
+
+    /** Drops all rows (and dictionaries). Does not fire events. */
+    public void clear() {
+        size = 0;
+        ids = new String[0];
+        names = new String[0];
+        fathers = new String[0];
+        dobs = new String[0];
+        phones = new String[0];
+        emails = new String[0];
+        addresses = new String[0];
+        ages = new int[0];
+        versions = new int[0];
+        genderCodes = new int[0];
+        courseCodes = new int[0];
+        semesterCodes = new int[0];
+        genders = new Dictionary();
+        courses = new Dictionary();
+        semesters = new Dictionary();
+        courseSemCache = new HashMap<>();
+    }
+
+    /** clear() plus a table-changed event. EDT only. */
+    public void reset() {
+        clear();
+        fireTableDataChanged();
+    }
+
+    /** Appends a chunk of rows with a single rows-inserted event. EDT only. */
+    public void appendRows(List<Student> rows) {
+        if (rows.isEmpty()) return;
+        int first = size;
+        if (size + rows.size() > ids.length) grow(Math.max(size + rows.size(), size + (size >> 1)));
+        for (Student st : rows) append(st);
+        fireTableRowsInserted(first, size - 1);
+    }
+
+    /** Releases unused capacity once loading is done. */
+    public void trimToSize() {
+        if (ids.length != size) grow(size);
+    }
+
+    // ------------------------- TABLE MODEL -------------------------
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == COL_AGE ? Integer.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case COL_ID: return ids[row];
+            case COL_NAME: return names[row];
+            case COL_FATHER: return fathers[row];
+            case COL_DOB: return dobs[row];
+            case COL_GENDER: return genders.decode(genderCodes[row]);
+            case COL_PHONE: return phones[row];
+            case COL_COURSE_SEM: return courseSem(courseCodes[row], semesterCodes[row]);
+            case COL_EMAIL: return emails[row];
+            case COL_ADDRESS: return addresses[row];
+            case COL_AGE: return ages[row];
+            case COL_COURSE: return courses.decode(courseCodes[row]);
+            case COL_SEMESTER: return semesters.decode(semesterCodes[row]);
+            default: throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+
+    // ------------------------- ROW ACCESS -------------------------
+
+    /** The row as a Student, version included. */
+    public Student studentAt(int row) {
+        return new Student(ids[row], names[row], fathers[row], dobs[row], genders.decode(genderCodes[row]), phones[row],
+                emails[row], addresses[row], courses.decode(courseCodes[row]), semesters.decode(semesterCodes[row]),
+                courseSem(courseCodes[row], semesterCodes[row]), ages[row], versions[row]);
+    }
+
+    // ------------------------- HELPERS -------------------------
+
+    private String courseSem(int course, int semester) {
+        long key = ((long) course << 32) | (semester & 0xffffffffL);
+        String v = courseSemCache.get(key);
+        if (v == null) {
+            v = Database.joinCourseSemester(courses.decode(course), semesters.decode(semester));
+            courseSemCache.put(key, v);
+        }
+        return v;
+    }
+
+    private void grow(int cap) {
+        ids = Arrays.copyOf(ids, cap);
+        names = Arrays.copyOf(names, cap);
+        fathers = Arrays.copyOf(fathers, cap);
+        dobs = Arrays.copyOf(dobs, cap);
+        phones = Arrays.copyOf(phones, cap);
+        emails = Arrays.copyOf(emails, cap);
+        addresses = Arrays.copyOf(addresses, cap);
+        ages = Arrays.copyOf(ages, cap);
+        versions = Arrays.copyOf(versions, cap);
+        genderCodes = Arrays.copyOf(genderCodes, cap);
+        courseCodes = Arrays.copyOf(courseCodes, cap);
+        semesterCodes = Arrays.copyOf(semesterCodes, cap);
+    }
+
+    // Distinct values of one low-cardinality column; code 0 is reserved for null
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        Dictionary() {
+            values.add(null);
+        }
+
+        int encode(String value) {
+            if (value == null) return 0;
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+    }
+}
@@ -4,6 +4,9 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * StudentView.java
@@ -13,12 +16,17 @@ import java.awt.event.*;
  */
 public class StudentView extends JFrame {
 
+    private static final long serialVersionUID = 1L;
+
     private final Database.AuthResult auth;
+    private final StudentRepository repo = Repositories.current();
     private final String studentId; // id to load (from auth.studentId or auth.username)
+    private Consumer<StudentChange> changeListener; // remote engine: admin approved or edited this record
 
     // UI components (read-only)
     private JTextField idField, nameField, fatherField, genderField, dobField, ageField, emailField, phoneField, courseField, semesterField;
     private JTextArea addressArea;
+    private JButton requestEditBtn; // disabled while the edit request quota refills
 
     public StudentView(Database.AuthResult auth) {
         super("Student Portal — " + (auth == null ? "Unknown" : auth.username));
@@ -73,7 +81,7 @@ public class StudentView extends JFrame {
         JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton refreshBtn = new JButton("Refresh");
         JButton changePwdBtn = new JButton("Change Password");
-        JButton requestEditBtn = new JButton("Request Edit");
+        requestEditBtn = new JButton("Request Edit");
         JButton myRequestsBtn = new JButton("My Requests"); // NEW
         JButton logoutBtn = new JButton("Logout");
 
@@ -95,12 +103,21 @@ public class StudentView extends JFrame {
                 JOptionPane.showMessageDialog(this, "Authentication context missing.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            ChangePasswordDialog.showDialog(this, auth.username, false);
+            login.showChangePassword(this, auth);
         });
         requestEditBtn.addActionListener(e -> showRequestDialog());
         myRequestsBtn.addActionListener(e -> showMyRequestsDialog());
         logoutBtn.addActionListener(e -> doLogout());
 
+        if ("remote".equals(repo.engine())) {
+            changeListener = change -> {
+                if (change.kind != StudentChange.Kind.REQUESTS_CHANGED && studentId.equalsIgnoreCase(change.studentId)) {
+                    SwingUtilities.invokeLater(this::loadStudent);
+                }
+            };
+            repo.addChangeListener(changeListener);
+        }
+
         // Esc -> logout
         KeyStroke esc = KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0);
         getRootPane().registerKeyboardAction(e -> doLogout(), esc, JComponent.WHEN_IN_FOCUSED_WINDOW);
@@ -112,6 +129,12 @@ public class StudentView extends JFrame {
         });
     }
 
+    @Override
+    public void dispose() {
+        if (changeListener != null) repo.removeChangeListener(changeListener);
+        super.dispose();
+    }
+
     private JTextField makeReadonlyField() {
         JTextField t = new JTextField();
         t.setEditable(false);
@@ -134,51 +157,36 @@ public class StudentView extends JFrame {
         }
 
         try {
-            DefaultTableModel tmp = new DefaultTableModel();
-            Database.searchStudents(tmp, studentId);
-            if (tmp.getRowCount() == 0) {
+            Student s = repo.findStudent(studentId.trim());
+            if (s == null) {
                 JOptionPane.showMessageDialog(this, "No record found for student id: " + studentId, "Not found", JOptionPane.INFORMATION_MESSAGE);
                 clearFields();
                 return;
             }
 
-            // take first matching row
-            Object id = tmp.getValueAt(0, 0);
-            Object name = tmp.getValueAt(0, 1);
-            Object father = tmp.getValueAt(0, 2);
-            Object dob = tmp.getValueAt(0, 3);
-            Object gender = tmp.getValueAt(0, 4);
-            Object phone = tmp.getValueAt(0, 5);
-            Object courseSem = tmp.getValueAt(0, 6);
-            Object email = tmp.getValueAt(0, 7);
-            Object address = tmp.getValueAt(0, 8);
-            Object age = tmp.getValueAt(0, 9);
-            Object course = tmp.getValueAt(0, 10);
-            Object semester = tmp.getValueAt(0, 11);
-
-            idField.setText(id == null ? "" : id.toString());
-            nameField.setText(name == null ? "" : name.toString());
-            fatherField.setText(father == null ? "" : father.toString());
-            dobField.setText(dob == null ? "" : dob.toString());
-            genderField.setText(gender == null ? "" : gender.toString());
-            phoneField.setText(phone == null ? "" : phone.toString());
-            emailField.setText(email == null ? "" : email.toString());
-            addressArea.setText(address == null ? "" : address.toString());
-            ageField.setText(age == null ? "" : age.toString());
-
-            // prefer explicit course/semester columns, fallback to Course/Sem column
-            if (course != null && !course.toString().trim().isEmpty()) {
-                courseField.setText(course.toString());
-            } else if (courseSem != null) {
-                courseField.setText(splitCourse(courseSem.toString())[0]);
+            idField.setText(text(s.id));
+            nameField.setText(text(s.name));
+            fatherField.setText(text(s.fatherName));
+            dobField.setText(text(s.dob));
+            genderField.setText(text(s.gender));
+            phoneField.setText(text(s.phone));
+            emailField.setText(text(s.email));
+            addressArea.setText(text(s.address));
+            ageField.setText(String.valueOf(s.age));
+
+            // prefer explicit course/semester, fallback to the joined Course/Sem text
+            if (s.course != null && !s.course.trim().isEmpty()) {
+                courseField.setText(s.course);
+            } else if (s.courseSemester != null) {
+                courseField.setText(splitCourse(s.courseSemester)[0]);
             } else {
                 courseField.setText("");
             }
 
-            if (semester != null && !semester.toString().trim().isEmpty()) {
-                semesterField.setText(semester.toString());
-            } else if (courseSem != null) {
-                semesterField.setText(splitCourse(courseSem.toString())[1]);
+            if (s.semester != null && !s.semester.trim().isEmpty()) {
+                semesterField.setText(s.semester);
+            } else if (s.courseSemester != null) {
+                semesterField.setText(splitCourse(s.courseSemester)[1]);
             } else {
                 semesterField.setText("");
             }
@@ -189,6 +197,10 @@ public class StudentView extends JFrame {
         }
     }
 
+    private static String text(String v) {
+        return v == null ? "" : v;
+    }
+
     private String[] splitCourse(String cs) {
         if (cs == null) return new String[] {"",""};
         if (cs.contains(" - ")) {
@@ -207,7 +219,8 @@ public class StudentView extends JFrame {
     /** Logout handler: close this window and show login again (then open appropriate UI) */
     private void doLogout() {
         dispose();
-        Database.AuthResult ar = LoginDialog.showLogin(null);
+        if (auth != null) repo.logout(auth.token);
+        Database.AuthResult ar = login.showLogin(null);
         if (ar == null || !ar.ok) {
             System.exit(0);
             return;
@@ -280,14 +293,32 @@ public class StudentView extends JFrame {
         }
 
         try {
-            Database.createEditRequest(sid, field, newVal, msg);
-            JOptionPane.showMessageDialog(this, "Request submitted. Admin will review it.", "Requested", JOptionPane.INFORMATION_MESSAGE);
+            boolean replaced = repo.createEditRequest(sid, field, newVal, msg);
+            JOptionPane.showMessageDialog(this, replaced
+                    ? "Request submitted. It replaces your earlier open request for this field; admin will review the new value."
+                    : "Request submitted. Admin will review it.", "Requested", JOptionPane.INFORMATION_MESSAGE);
+        } catch (RequestLimiter.Rejected ex) {
+            holdRequests(ex.retryAfterMillis);
+            JOptionPane.showMessageDialog(this, ex.getMessage() + "\nYour request was not sent; open requests are still waiting for review.",
+                    "Request limit reached", JOptionPane.WARNING_MESSAGE);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Failed to submit request: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
-    /** Show a dialog listing this student's edit requests (filtered from fetchAllEditRequests) */
+    // Disables Request Edit until the quota has a request again
+    private void holdRequests(long millis) {
+        requestEditBtn.setEnabled(false);
+        requestEditBtn.setToolTipText("Request limit reached; try again in a little while.");
+        Timer t = new Timer((int) Math.min(Integer.MAX_VALUE, millis), e -> {
+            requestEditBtn.setEnabled(true);
+            requestEditBtn.setToolTipText(null);
+        });
+        t.setRepeats(false);
+        t.start();
+    }
+
+    /** Show a dialog listing this student's edit requests (filtered from streamEditRequests) */
     private void showMyRequestsDialog() {
         if (auth == null) {
             JOptionPane.showMessageDialog(this, "Authentication missing.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -300,9 +331,11 @@ public class StudentView extends JFrame {
         }
 
         // Fetch all requests and filter for this student
-        DefaultTableModel all = new DefaultTableModel();
+        List<EditRequest> mine = new ArrayList<>();
         try {
-            Database.fetchAllEditRequests(all);
+            repo.streamEditRequests(r -> {
+                if (sid.equalsIgnoreCase(r.studentId == null ? "" : r.studentId)) mine.add(r);
+            }, new Database.CancelToken());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Failed to load requests: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -311,21 +344,8 @@ public class StudentView extends JFrame {
         // Build filtered model
         DefaultTableModel model = new DefaultTableModel();
         model.setColumnIdentifiers(new Object[] {"ID","Field","New Value","Message","Status","Created At","Handled By","Handled At","Handled Reason"});
-        for (int r = 0; r < all.getRowCount(); r++) {
-            Object studentCol = all.getValueAt(r, 1);
-            String sidRow = studentCol == null ? "" : studentCol.toString();
-            if (!sid.equalsIgnoreCase(sidRow)) continue;
-            Object id = all.getValueAt(r, 0);
-            Object field = all.getValueAt(r, 2);
-            Object newValue = all.getValueAt(r, 3);
-            Object message = all.getValueAt(r, 4);
-            Object status = all.getValueAt(r, 5);
-            Object createdAt = all.getValueAt(r, 6);
-            Object handledBy = all.getValueAt(r, 7);
-            Object handledAt = all.getValueAt(r, 8);
-            Object handledReason = all.getValueAt(r, 9);
-
-            model.addRow(new Object[] { id, field, newValue, message, status, createdAt, handledBy, handledAt, handledReason });
+        for (EditRequest r : mine) {
+            model.addRow(new Object[] { r.id, r.field, r.newValue, r.message, r.status, r.createdAt, r.handledBy, r.handledAt, r.handledReason });
         }
 
         JTable t = new JTable(model);
@@ -339,7 +359,7 @@ public class StudentView extends JFrame {
 
     // main for standalone testing (optional)
     public static void main(String[] args) {
-        try { Database.dbInit(); } catch (Exception e) { e.printStackTrace(); }
+        try { Repositories.current().initAsync().join(); } catch (Exception e) { e.printStackTrace(); }
         Database.AuthResult ar = new Database.AuthResult(true, "S101", "student", "S101");
         SwingUtilities.invokeLater(() -> {
             StudentView v = new StudentView(ar);
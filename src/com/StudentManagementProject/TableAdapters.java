@@ -0,0 +1,53 @@
+package com.StudentManagementProject;
+
+import java.util.List;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * TableAdapters.java
+ * Swing side of the Student / EditRequest records: column names and Object[] rows for a
+ * DefaultTableModel.
+ *
+ * - Student rows use the StudentTableModel column order (the admin roster itself uses the
+ *   columnar StudentTableModel, not these)
+ * - row(...) is what ChunkedLoader.into(DefaultTableModel, ...) converts each record with
+ *
+ * Package-private: the data layer never touches it, so headless callers load no Swing classes.
+ */
+final class TableAdapters {
+
+    private static final Object[] STUDENT_COLUMNS = {"ID", "Name", "Father", "DOB", "Gender", "Phone", "Course/Sem", "E-mail", "Address", "Age", "Course", "Semester"};
+    private static final Object[] EDIT_REQUEST_COLUMNS = {"ID", "Student ID", "Field", "New Value", "Message", "Status", "Created At", "Handled By", "Handled At", "Handled Reason"};
+
+    private TableAdapters() {}
+
+    static Object[] studentColumns() {
+        return STUDENT_COLUMNS.clone();
+    }
+
+    static Object[] editRequestColumns() {
+        return EDIT_REQUEST_COLUMNS.clone();
+    }
+
+    static Object[] row(Student s) {
+        return new Object[] {s.id, s.name, s.fatherName, s.dob, s.gender, s.phone, s.courseSemester, s.email, s.address, s.age, s.course, s.semester};
+    }
+
+    static Object[] row(EditRequest r) {
+        return new Object[] {r.id, r.studentId, r.field, r.newValue, r.message, r.status, r.createdAt, r.handledBy, r.handledAt, r.handledReason};
+    }
+
+    /** New DefaultTableModel holding students, in studentColumns() order. */
+    static DefaultTableModel students(List<Student> students) {
+        DefaultTableModel model = new DefaultTableModel(studentColumns(), 0);
+        for (Student s : students) model.addRow(row(s));
+        return model;
+    }
+
+    /** New DefaultTableModel holding requests, in editRequestColumns() order. */
+    static DefaultTableModel editRequests(List<EditRequest> requests) {
+        DefaultTableModel model = new DefaultTableModel(editRequestColumns(), 0);
+        for (EditRequest r : requests) model.addRow(row(r));
+        return model;
+    }
+}
@@ -0,0 +1,345 @@
+package com.StudentManagementProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TrigramIndex.java
+ * In-memory trigram index over students.name and students.father_name for typo-tolerant search.
+ *
+ * - Each student gets a dense int slot; name and father_name are indexed as two docs
+ *   (doc = slot * 2 + field) so a match on either field is scored on its own
+ * - Trigrams are packed into a long (3 x 16-bit chars) and map to sorted int[] posting lists
+ *   in an open-addressing table, so there is no boxing on the hot path
+ * - Candidates are ranked by Jaccard similarity of trigram sets
+ *
+ * Kept current by Database write paths (put/remove); thread-safe via synchronized.
+ * Package-private: used by Database only.
+ */
+final class TrigramIndex {
+
+    static final int FIELD_NAME = 0;
+    static final int FIELD_FATHER = 1;
+
+    // --- Search hit: student id and best similarity over name / father_name
+    static final class Match {
+        final String studentId;
+        final double score;
+
+        Match(String studentId, double score) {
+            this.studentId = studentId;
+            this.score = score;
+        }
+    }
+
+    // posting table (open addressing, linear probing)
+    private long[] keys = new long[1024];
+    private int[][] postings = new int[1024][];
+    private int[] postingSizes = new int[1024];
+    private boolean[] used = new boolean[1024];
+    private int keyCount;
+
+    // slot bookkeeping
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] idBySlot = new String[256];
+    private String[][] textBySlot = new String[256][];
+    private int[] trigramCounts = new int[512]; // per doc
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private int slotCount;
+
+    // scratch accumulator reused across queries (indexed by doc)
+    private int[] scratch = new int[0];
+    private float[] slotBest = new float[0];
+
+    /** Insert or replace the indexed names for a student. */
+    synchronized void put(String studentId, String name, String fatherName) {
+        if (studentId == null) return;
+        remove(studentId);
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.remove(freeSlots.size() - 1);
+        } else {
+            slot = slotCount++;
+            ensureSlotCapacity(slotCount);
+        }
+        slotById.put(studentId, slot);
+        idBySlot[slot] = studentId;
+        textBySlot[slot] = new String[] { name, fatherName };
+        addDoc(slot * 2 + FIELD_NAME, name);
+        addDoc(slot * 2 + FIELD_FATHER, fatherName);
+    }
+
+    synchronized void remove(String studentId) {
+        Integer slot = slotById.remove(studentId);
+        if (slot == null) return;
+        String[] text = textBySlot[slot];
+        removeDoc(slot * 2 + FIELD_NAME, text[FIELD_NAME]);
+        removeDoc(slot * 2 + FIELD_FATHER, text[FIELD_FATHER]);
+        idBySlot[slot] = null;
+        textBySlot[slot] = null;
+        freeSlots.add(slot);
+    }
+
+    synchronized int size() {
+        return slotById.size();
+    }
+
+    /**
+     * Returns up to limit students whose name or father's name is similar to q,
+     * best first. minScore is the Jaccard threshold (0..1).
+     */
+    synchronized List<Match> search(String q, int limit, double minScore) {
+        long[] qt = trigrams(q);
+        List<Match> out = new ArrayList<>();
+        if (qt.length == 0) return out;
+
+        int docs = slotCount * 2;
+        if (scratch.length < docs) scratch = new int[docs];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+
+        // Prefix filter: Jaccard >= minScore needs at least m shared trigrams, so every match
+        // contains one of the (|q| - m + 1) rarest query trigrams. Only those lists are scanned;
+        // the frequent rest are probed per candidate by binary search. Exact, but much less work.
+        int[] ks = new int[qt.length];
+        int present = 0;
+        for (long t : qt) {
+            int k = find(t);
+            if (k >= 0 && postingSizes[k] > 0) ks[present++] = k;
+        }
+        Integer[] byRarity = new Integer[present];
+        for (int i = 0; i < present; i++) byRarity[i] = ks[i];
+        Arrays.sort(byRarity, (x, y) -> Integer.compare(postingSizes[x], postingSizes[y]));
+        int m = Math.max(1, (int) Math.ceil(minScore * qt.length));
+        int prefix = Math.min(present, qt.length - m + 1);
+
+        for (int j = 0; j < prefix; j++) {
+            int k = byRarity[j];
+            int[] list = postings[k];
+            int n = postingSizes[k];
+            for (int i = 0; i < n; i++) {
+                int doc = list[i];
+                if (scratch[doc]++ == 0) {
+                    if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                    touched[touchedCount++] = doc;
+                }
+            }
+        }
+        for (int j = prefix; j < present; j++) {
+            int k = byRarity[j];
+            int[] list = postings[k];
+            int n = postingSizes[k];
+            if ((long) touchedCount * 20 < n) {
+                for (int i = 0; i < touchedCount; i++) {
+                    if (Arrays.binarySearch(list, 0, n, touched[i]) >= 0) scratch[touched[i]]++;
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if (scratch[list[i]] > 0) scratch[list[i]]++;
+                }
+            }
+        }
+
+        // best field per student (slotBest), then top-K with a small min-heap
+        if (slotBest.length < slotCount) slotBest = new float[slotCount];
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            int shared = scratch[doc];
+            scratch[doc] = 0;
+            float score = (float) shared / (qt.length + trigramCounts[doc] - shared);
+            if (score < minScore) continue;
+            int slot = doc >> 1;
+            float prev = slotBest[slot];
+            if (prev == 0f) touched[i] = -1 - slot; // remember slot for the second pass
+            if (score > prev) slotBest[slot] = score;
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            if (touched[i] >= 0) continue;
+            int slot = -1 - touched[i];
+            float score = slotBest[slot];
+            if (heapSize < limit) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (score > slotBest[heap[0]]) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+        // drain heap (ascending) into out, then reverse for best-first
+        while (heapSize > 0) {
+            int slot = heap[0];
+            out.add(new Match(idBySlot[slot], slotBest[slot]));
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            if (touched[i] < 0) slotBest[-1 - touched[i]] = 0f;
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // min-heap on slotBest score
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (slotBest[heap[i]] >= slotBest[heap[parent]]) break;
+            int t = heap[i]; heap[i] = heap[parent]; heap[parent] = t;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, m = i;
+            if (l < size && slotBest[heap[l]] < slotBest[heap[m]]) m = l;
+            if (r < size && slotBest[heap[r]] < slotBest[heap[m]]) m = r;
+            if (m == i) return;
+            int t = heap[i]; heap[i] = heap[m]; heap[m] = t;
+            i = m;
+        }
+    }
+
+    // ------------------------- TRIGRAMS -------------------------
+
+    /**
+     * Unique, sorted trigrams of text. Each word is lower-cased and padded as "  word "
+     * so short names and word starts still produce trigrams.
+     */
+    static long[] trigrams(String text) {
+        if (text == null) return new long[0];
+        String s = text.trim().toLowerCase();
+        if (s.isEmpty()) return new long[0];
+        long[] buf = new long[s.length() * 3 + 3];
+        int n = 0;
+        // sliding window over "  word " for each run of letters/digits
+        char a = ' ', b = ' ';
+        boolean inWord = false;
+        for (int i = 0; i <= s.length(); i++) {
+            char c = i < s.length() ? s.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) { a = ' '; b = ' '; inWord = true; }
+                buf[n++] = ((long) a << 32) | ((long) b << 16) | c;
+                a = b; b = c;
+            } else if (inWord) {
+                buf[n++] = ((long) a << 32) | ((long) b << 16) | ' ';
+                inWord = false;
+            }
+        }
+        long[] t = Arrays.copyOf(buf, n);
+        Arrays.sort(t);
+        int u = 0;
+        for (int i = 0; i < t.length; i++) {
+            if (i == 0 || t[i] != t[i - 1]) t[u++] = t[i];
+        }
+        return Arrays.copyOf(t, u);
+    }
+
+    // ------------------------- POSTINGS -------------------------
+
+    private void addDoc(int doc, String text) {
+        long[] t = trigrams(text);
+        trigramCounts[doc] = t.length;
+        for (long g : t) {
+            int k = findOrInsert(g);
+            int[] list = postings[k];
+            int n = postingSizes[k];
+            if (list == null) {
+                list = new int[4];
+            } else if (n == list.length) {
+                list = Arrays.copyOf(list, n + (n >> 1) + 1);
+            }
+            // keep sorted: docs are usually appended in increasing order
+            int pos = n;
+            if (n > 0 && list[n - 1] > doc) {
+                pos = Arrays.binarySearch(list, 0, n, doc);
+                if (pos >= 0) continue;
+                pos = -pos - 1;
+                System.arraycopy(list, pos, list, pos + 1, n - pos);
+            }
+            list[pos] = doc;
+            postings[k] = list;
+            postingSizes[k] = n + 1;
+        }
+    }
+
+    private void removeDoc(int doc, String text) {
+        for (long g : trigrams(text)) {
+            int k = find(g);
+            if (k < 0) continue;
+            int[] list = postings[k];
+            int n = postingSizes[k];
+            int pos = Arrays.binarySearch(list, 0, n, doc);
+            if (pos < 0) continue;
+            System.arraycopy(list, pos + 1, list, pos, n - pos - 1);
+            postingSizes[k] = n - 1;
+        }
+        trigramCounts[doc] = 0;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(long key) {
+        if ((keyCount + 1) * 2 > keys.length) rehash(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        keyCount++;
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[][] oldPostings = postings;
+        int[] oldSizes = postingSizes;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        postings = new int[capacity][];
+        postingSizes = new int[capacity];
+        used = new boolean[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (!oldUsed[j]) continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (used[i]) i = (i + 1) & mask;
+            used[i] = true;
+            keys[i] = oldKeys[j];
+            postings[i] = oldPostings[j];
+            postingSizes[i] = oldSizes[j];
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void ensureSlotCapacity(int slots) {
+        if (slots > idBySlot.length) {
+            int cap = Math.max(slots, idBySlot.length * 2);
+            idBySlot = Arrays.copyOf(idBySlot, cap);
+            textBySlot = Arrays.copyOf(textBySlot, cap);
+            trigramCounts = Arrays.copyOf(trigramCounts, cap * 2);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.StudentManagementProject;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire.java
+ * Binary protocol between StudentServer and RemoteRepository.
+ *
+ * - Connection starts with MAGIC + VERSION from the client; the server answers with the same two ints
+ * - Then length-prefixed frames both ways: int length, then payload (at most MAX_FRAME bytes)
+ * - Request payload:  int reqId, byte op, arguments in call order
+ * - Response payload: int reqId, byte kind, then
+ *     OK     the call's result (nothing for void calls)
+ *     ITEMS  int count + records, any number of times before the OK that ends a stream
+ *     ERROR  boolean cancelled, String message
+ *     EVENT  (reqId 0, pushed by the server) byte StudentChange.Kind ordinal, String studentId,
+ *            strings fields (StudentChange.fields)
+ *     CONFLICT  String message, Student as it is now (a conditional update lost; Database.ConflictException)
+ *     LIMITED   String message, int retryAfterMillis (edit request quota used up; RequestLimiter.Rejected)
+ * - reqIds are chosen by the client, so it may send many requests without waiting (pipelining);
+ *   responses come back in completion order, not request order
+ * - CANCEL carries the reqId of the call to cancel and gets no response of its own
+ * - APPROVE_REQUEST / REJECT_REQUEST leave out the admin name; the server records the connection's user
+ * - Strings are int byte length (-1 = null) + UTF-8; Integer is a presence byte + int
+ *
+ * Package-private: only the server and the remote engine speak it.
+ */
+final class Wire {
+
+    static final int MAGIC = 0x534D5031; // "SMP1"
+    static final int VERSION = 6; // 2: Student carries its row version; CONFLICT replies. 3: EVENT lists changed fields.
+                                  // 4: CREATE_REQUEST answers whether it superseded an open request. 5: LIMITED replies
+                                  // 6: APPROVE/REJECT_REQUEST no longer carry the admin name (the session's user is used)
+    static final int MAX_FRAME = 16 * 1024 * 1024;
+    static final int BATCH = 256; // records per ITEMS frame
+
+    // --- request ops (one per StudentRepository call, plus CANCEL)
+    static final byte INSERT_STUDENT = 1;
+    static final byte UPDATE_STUDENT = 2;
+    static final byte DELETE_STUDENT = 3;
+    static final byte ID_TAKEN = 4;
+    static final byte FIND_STUDENT = 5;
+    static final byte STREAM_SEARCH = 6;
+    static final byte STREAM_FUZZY = 7;
+    static final byte COUNT_STUDENTS = 8;
+    static final byte STREAM_PAGE = 9;
+    static final byte EXPLAIN_SEARCH = 10;
+    static final byte EXPLAIN_PAGE = 11;
+    static final byte COMPLETE_NAMES = 12;
+    static final byte COMPLETE_IDS = 13;
+    static final byte ENROLLMENT_SUMMARY = 14;
+    static final byte REBUILD_STATS = 15;
+    static final byte CREATE_USER = 16;
+    static final byte USER_EXISTS = 17;
+    static final byte AUTHENTICATE = 18;
+    static final byte CHANGE_PASSWORD = 19;
+    static final byte RESET_PASSWORD = 20;
+    static final byte CREATE_REQUEST = 21;
+    static final byte STREAM_REQUESTS = 22;
+    static final byte APPROVE_REQUEST = 23;
+    static final byte REJECT_REQUEST = 24;
+    static final byte CANCEL = 25;
+    static final byte RESUME_SESSION = 26;
+    static final byte LOGOUT = 27;
+    static final byte CHANGE_OWN_PASSWORD = 28;   // on the connection's session
+    static final byte RESET_PASSWORD_AS_ADMIN = 29; // on the connection's session
+    static final byte ENROLL_STUDENTS = 30;
+    static final byte UPDATE_STUDENT_IF_VERSION = 31;
+
+    // --- response kinds
+    static final byte OK = 1;
+    static final byte ITEMS = 2;
+    static final byte ERROR = 3;
+    static final byte EVENT = 4;
+    static final byte CONFLICT = 5;
+    static final byte LIMITED = 6;
+
+    private Wire() {}
+
+    // ------------------------- FRAMING -------------------------
+
+    static void writeFrame(DataOutputStream out, Out frame) throws IOException {
+        out.writeInt(frame.size);
+        out.write(frame.buf, 0, frame.size);
+        out.flush();
+    }
+
+    /** Next frame, or null at a clean end of stream. */
+    static In readFrame(DataInputStream in) throws IOException {
+        int len;
+        try {
+            len = in.readInt();
+        } catch (EOFException ex) {
+            return null;
+        }
+        if (len < 0 || len > MAX_FRAME) throw new IOException("Bad frame length " + len + ".");
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new In(b);
+    }
+
+    // ------------------------- ENCODING -------------------------
+
+    /** Growable frame payload; write the header first (request() / response()). */
+    static final class Out {
+        static final int HEADER = 5; // reqId + op / kind
+
+        byte[] buf = new byte[128];
+        int size;
+
+        static Out request(int reqId, byte op) {
+            return new Out().i32(reqId).i8(op);
+        }
+
+        static Out response(int reqId, byte kind) {
+            return new Out().i32(reqId).i8(kind);
+        }
+
+        Out i8(int v) {
+            ensure(1);
+            buf[size++] = (byte) v;
+            return this;
+        }
+
+        Out bool(boolean v) {
+            return i8(v ? 1 : 0);
+        }
+
+        Out i32(int v) {
+            ensure(4);
+            buf[size++] = (byte) (v >>> 24);
+            buf[size++] = (byte) (v >>> 16);
+            buf[size++] = (byte) (v >>> 8);
+            buf[size++] = (byte) v;
+            return this;
+        }
+
+        void patchI32(int at, int v) {
+            buf[at] = (byte) (v >>> 24);
+            buf[at + 1] = (byte) (v >>> 16);
+            buf[at + 2] = (byte) (v >>> 8);
+            buf[at + 3] = (byte) v;
+        }
+
+        Out integer(Integer v) {
+            bool(v != null);
+            return v == null ? this : i32(v);
+        }
+
+        Out str(String s) {
+            if (s == null) return i32(-1);
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            i32(b.length);
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, size, b.length);
+            size += b.length;
+            return this;
+        }
+
+        Out strings(Collection<String> list) {
+            i32(list.size());
+            for (String s : list) str(s);
+            return this;
+        }
+
+        Out student(Student s) {
+            str(s.id).str(s.name).str(s.fatherName).str(s.dob).str(s.gender).str(s.phone).str(s.email)
+                    .str(s.address).str(s.course).str(s.semester).str(s.courseSemester);
+            return i32(s.age).i32(s.version);
+        }
+
+        Out editRequest(EditRequest r) {
+            return i32(r.id).str(r.studentId).str(r.field).str(r.newValue).str(r.message).str(r.status)
+                    .str(r.createdAt).str(r.handledBy).str(r.handledAt).str(r.handledReason);
+        }
+
+        Out students(List<Student> list) {
+            i32(list.size());
+            for (Student s : list) student(s);
+            return this;
+        }
+
+        Out enrollResults(List<Database.EnrollResult> list) {
+            i32(list.size());
+            for (Database.EnrollResult r : list) str(r.studentId).str(r.username).bool(r.userCreated);
+            return this;
+        }
+
+        Out rosterQuery(RosterQuery rq) {
+            return str(rq.search).str(rq.course).str(rq.semester).str(rq.gender).integer(rq.ageMin).integer(rq.ageMax)
+                    .i32(rq.sortColumn).bool(rq.ascending).i32(rq.offset).i32(rq.limit);
+        }
+
+        Out auth(Database.AuthResult a) {
+            bool(a != null);
+            return a == null ? this : bool(a.ok).str(a.username).str(a.role).str(a.studentId).str(a.token);
+        }
+
+        Out summary(EnrollmentSummary s) {
+            bool(s != null);
+            if (s == null) return this;
+            i32(s.total).counts(s.byCourse).counts(s.bySemester).counts(s.byGender).counts(s.byAgeBand);
+            i32(s.byCourseSemester.size());
+            for (Map.Entry<String, Map<String, Integer>> e : s.byCourseSemester.entrySet()) str(e.getKey()).counts(e.getValue());
+            return this;
+        }
+
+        private Out counts(Map<String, Integer> m) {
+            i32(m.size());
+            for (Map.Entry<String, Integer> e : m.entrySet()) str(e.getKey()).i32(e.getValue());
+            return this;
+        }
+
+        private void ensure(int n) {
+            if (size + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+        }
+    }
+
+    // ------------------------- DECODING -------------------------
+
+    /** Reader over one received frame; a truncated frame throws BufferUnderflowException. */
+    static final class In {
+        private final ByteBuffer b;
+
+        In(byte[] bytes) {
+            b = ByteBuffer.wrap(bytes);
+        }
+
+        byte i8() {
+            return b.get();
+        }
+
+        boolean bool() {
+            return b.get() != 0;
+        }
+
+        int i32() {
+            return b.getInt();
+        }
+
+        Integer integer() {
+            return bool() ? b.getInt() : null;
+        }
+
+        String str() {
+            int len = b.getInt();
+            if (len < 0) return null;
+            String s = new String(b.array(), b.position(), len, StandardCharsets.UTF_8);
+            b.position(b.position() + len);
+            return s;
+        }
+
+        List<String> strings() {
+            int n = i32();
+            List<String> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(str());
+            return out;
+        }
+
+        Student student() {
+            return new Student(str(), str(), str(), str(), str(), str(), str(), str(), str(), str(), str(), i32(), i32());
+        }
+
+        EditRequest editRequest() {
+            return new EditRequest(i32(), str(), str(), str(), str(), str(), str(), str(), str(), str());
+        }
+
+        List<Student> students() {
+            int n = i32();
+            List<Student> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(student());
+            return out;
+        }
+
+        List<Database.EnrollResult> enrollResults() {
+            int n = i32();
+            List<Database.EnrollResult> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(new Database.EnrollResult(str(), str(), bool()));
+            return out;
+        }
+
+        RosterQuery rosterQuery() {
+            String search = str(), course = str(), semester = str(), gender = str();
+            Integer ageMin = integer(), ageMax = integer();
+            int sortColumn = i32();
+            boolean ascending = bool();
+            int offset = i32(), limit = i32();
+            return RosterQuery.all().withSearch(search).withFilters(course, semester, gender, ageMin, ageMax)
+                    .withSort(sortColumn, ascending).withOffset(offset).withLimit(limit);
+        }
+
+        Database.AuthResult auth() {
+            if (!bool()) return null;
+            return new Database.AuthResult(bool(), str(), str(), str(), str());
+        }
+
+        EnrollmentSummary summary() {
+            if (!bool()) return null;
+            int total = i32();
+            Map<String, Integer> byCourse = counts(), bySemester = counts(), byGender = counts(), byAgeBand = counts();
+            int n = i32();
+            Map<String, Map<String, Integer>> pairs = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) pairs.put(str(), counts());
+            return new EnrollmentSummary(total, byCourse, bySemester, byGender, byAgeBand, pairs);
+        }
+
+        private Map<String, Integer> counts() {
+            int n = i32();
+            Map<String, Integer> m = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) m.put(str(), i32());
+            return m;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.StudentManagementProject;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.function.Supplier;
 
 /**
  * Combined dialog file (login.java)
@@ -12,9 +13,11 @@ import java.awt.event.*;
  *  - class LoginDialog extends JDialog { ... }  <-- package-private, used by rest of project
  *  - class ChangePasswordDialog extends JDialog { ... } <-- package-private
  *
- * Usage from other classes remains unchanged:
- *   Database.AuthResult ar = LoginDialog.showLogin(parent);
- *   ChangePasswordDialog.showDialog(parent, username, isAdmin);
+ * Usage from other classes goes through the wrappers (javac -Xlint warns when another
+ * file uses an auxiliary class directly):
+ *   Database.AuthResult ar = login.showLogin(parent);
+ *   login.showChangePassword(parent, username, isAdmin);
+ *   login.showChangePassword(parent, auth);   // logged in: no password re-entry
  *
  * Save this file as: src/com/StudentManagementProject/login.java
  */
@@ -26,9 +29,22 @@ public class login {
         return LoginDialog.showLogin(parent);
     }
 
+    public static Database.AuthResult showLogin(Frame parent, Runnable onShown) {
+        return LoginDialog.showLogin(parent, onShown);
+    }
+
     public static void showChangePassword(Frame parent, String username, boolean isAdmin) {
         ChangePasswordDialog.showDialog(parent, username, isAdmin);
     }
+
+    public static void showChangePassword(Frame parent, Database.AuthResult session) {
+        ChangePasswordDialog.showDialog(parent, session);
+    }
+
+    // builds the login dialog without showing it (CdsTraining's warm-up)
+    static void warmUp() {
+        new LoginDialog(null).dispose();
+    }
 }
 
 /* -------------------------------------------------------------------------
@@ -37,10 +53,13 @@ public class login {
    ------------------------------------------------------------------------- */
 class LoginDialog extends JDialog {
 
+    private static final long serialVersionUID = 1L;
+
     private JTextField userField;
     private JPasswordField passField;
     private JButton loginBtn, cancelBtn;
     private Database.AuthResult result = null;
+    private final StudentRepository repo = Repositories.current();
 
     // role selection
     private JRadioButton adminRadio;
@@ -121,18 +140,21 @@ class LoginDialog extends JDialog {
         }
 
         try {
-            Database.AuthResult ar = Database.authenticateUser(u, p);
+            repo.awaitInit(); // DB may still be initializing in the background at startup
+            Database.AuthResult ar = repo.authenticateUser(u, p);
             if (ar == null || !ar.ok) {
                 JOptionPane.showMessageDialog(this, "Invalid username or password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
             if (ar.role == null) {
+                repo.logout(ar.token);
                 JOptionPane.showMessageDialog(this, "Authenticated but no role assigned. Contact admin.", "Login Failed", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
             if (!ar.role.equalsIgnoreCase(wantedRole)) {
+                repo.logout(ar.token);
                 JOptionPane.showMessageDialog(this,
                         "This account is registered as '" + ar.role + "'.\nPlease select the correct role or contact admin.",
                         "Role Mismatch", JOptionPane.ERROR_MESSAGE);
@@ -151,16 +173,25 @@ class LoginDialog extends JDialog {
      * Shows the dialog and returns AuthResult (ok==true) or null if cancelled/failed.
      */
     public static Database.AuthResult showLogin(Frame parent) {
+        return showLogin(parent, null);
+    }
+
+    /**
+     * Same as showLogin(parent); onShown (may be null) runs on the EDT once the dialog is visible.
+     */
+    public static Database.AuthResult showLogin(Frame parent, Runnable onShown) {
         final Database.AuthResult[] out = new Database.AuthResult[1];
         // show on EDT and block until closed (modal)
         try {
             if (SwingUtilities.isEventDispatchThread()) {
                 LoginDialog dlg = new LoginDialog(parent);
+                if (onShown != null) SwingUtilities.invokeLater(onShown);
                 dlg.setVisible(true);
                 out[0] = dlg.result;
             } else {
                 SwingUtilities.invokeAndWait(() -> {
                     LoginDialog dlg = new LoginDialog(parent);
+                    if (onShown != null) SwingUtilities.invokeLater(onShown);
                     dlg.setVisible(true); // modal; blocks here until user closes dialog
                     out[0] = dlg.result;
                 });
@@ -181,6 +212,8 @@ class LoginDialog extends JDialog {
    ------------------------------------------------------------------------- */
 class ChangePasswordDialog extends JDialog {
 
+    private static final long serialVersionUID = 1L;
+
     private final JTextField targetField;        // target username (editable for admin)
     private final JPasswordField oldField;       // old/current password (for own change)
     private final JPasswordField adminAuthField; // admin password for resetting others (visible when needed)
@@ -191,11 +224,22 @@ class ChangePasswordDialog extends JDialog {
 
     private final boolean isAdmin;
     private final String currentUsername;
+    private final Database.AuthResult session; // login that opened the dialog; null = check passwords as before
+    private final StudentRepository repo = Repositories.current();
 
     ChangePasswordDialog(Frame parent, String currentUsername, boolean isAdmin) {
+        this(parent, currentUsername, isAdmin, null);
+    }
+
+    ChangePasswordDialog(Frame parent, Database.AuthResult session) {
+        this(parent, session.username, session.isAdmin(), session.token == null ? null : session);
+    }
+
+    private ChangePasswordDialog(Frame parent, String currentUsername, boolean isAdmin, Database.AuthResult session) {
         super(parent, "Change Password", true);
         this.isAdmin = isAdmin;
         this.currentUsername = currentUsername == null ? "" : currentUsername;
+        this.session = session;
         targetField = new JTextField(24);
         oldField = new JPasswordField(24);
         adminAuthField = new JPasswordField(24);
@@ -281,10 +325,16 @@ class ChangePasswordDialog extends JDialog {
             else oldField.requestFocusInWindow();
         });
 
-        if (!isAdmin) {
+        if (!isAdmin || session != null) {
             adminAuthField.setEnabled(false);
             adminAuthField.setText("");
         }
+        if (session != null) {
+            // the login already proved who this is
+            oldField.setEnabled(false);
+            oldField.setToolTipText("Not needed: you are logged in");
+            adminAuthField.setToolTipText("Not needed: you are logged in as admin");
+        }
     }
 
     private void doChange() {
@@ -316,13 +366,22 @@ class ChangePasswordDialog extends JDialog {
         }
 
         try {
+            if (session != null) {
+                boolean own = target.equalsIgnoreCase(currentUsername);
+                if (own) repo.changePassword(session, np);
+                else repo.resetPassword(session, target, np);
+                JOptionPane.showMessageDialog(this, own ? "Your password changed successfully."
+                        : "Password for user '" + target + "' has been reset.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+                return;
+            }
             if (!isAdmin) {
                 if (old.isEmpty()) {
                     JOptionPane.showMessageDialog(this, "Enter your current password.", "Missing", JOptionPane.WARNING_MESSAGE);
                     oldField.requestFocusInWindow();
                     return;
                 }
-                Database.changePassword(target, old, np);
+                repo.changePassword(target, old, np);
                 JOptionPane.showMessageDialog(this, "Password changed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
                 dispose();
                 return;
@@ -333,7 +392,7 @@ class ChangePasswordDialog extends JDialog {
                         oldField.requestFocusInWindow();
                         return;
                     }
-                    Database.changePassword(target, old, np);
+                    repo.changePassword(target, old, np);
                     JOptionPane.showMessageDialog(this, "Your password changed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
                     dispose();
                     return;
@@ -343,7 +402,7 @@ class ChangePasswordDialog extends JDialog {
                         adminAuthField.requestFocusInWindow();
                         return;
                     }
-                    Database.resetPassword(currentUsername, adminAuth, target, np);
+                    repo.resetPassword(currentUsername, adminAuth, target, np);
                     JOptionPane.showMessageDialog(this, "Password for user '" + target + "' has been reset.", "Success", JOptionPane.INFORMATION_MESSAGE);
                     dispose();
                     return;
@@ -359,9 +418,18 @@ class ChangePasswordDialog extends JDialog {
      * Note: this method will schedule display on EDT and return quickly.
      */
     public static void showDialog(Frame parent, String currentUsername, boolean isAdmin) {
+        show(() -> new ChangePasswordDialog(parent, currentUsername, isAdmin));
+    }
+
+    /** Same for a logged-in user: the session authorises the change, so no password is asked again. */
+    public static void showDialog(Frame parent, Database.AuthResult session) {
+        show(() -> new ChangePasswordDialog(parent, session));
+    }
+
+    private static void show(Supplier<ChangePasswordDialog> factory) {
         SwingUtilities.invokeLater(() -> {
-            System.out.println("[DEBUG] Opening ChangePasswordDialog for user=" + currentUsername + " isAdmin=" + isAdmin);
-            ChangePasswordDialog dlg = new ChangePasswordDialog(parent, currentUsername, isAdmin);
+            ChangePasswordDialog dlg = factory.get();
+            System.out.println("[DEBUG] Opening ChangePasswordDialog for user=" + dlg.currentUsername + " isAdmin=" + dlg.isAdmin);
             dlg.setAlwaysOnTop(true);
             dlg.setVisible(true); // modal; blocks until closed
             dlg.setAlwaysOnTop(false);